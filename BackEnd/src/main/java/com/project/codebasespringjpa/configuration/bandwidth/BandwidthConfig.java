@@ -0,0 +1,81 @@
+package com.project.codebasespringjpa.configuration.bandwidth;
+
+import com.project.codebasespringjpa.configuration.security.jwtConfig.JwtProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BandwidthConfig {
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    JwtProvider jwtProvider;
+    @Value("${bandwidth.UPLOAD_BYTES_PER_SECOND}")
+    long uploadRate;
+    @Value("${bandwidth.DOWNLOAD_BYTES_PER_SECOND}")
+    long downloadRate;
+    @Value("${bandwidth.PRINCIPAL_UPLOAD_BYTES_PER_SECOND}")
+    long principalUploadRate;
+    @Value("${bandwidth.PRINCIPAL_DOWNLOAD_BYTES_PER_SECOND}")
+    long principalDownloadRate;
+    @Value("${bandwidth.MAX_UPLOADS}")
+    int maxUploads;
+    @Value("${bandwidth.MAX_DOWNLOADS}")
+    int maxDownloads;
+    @Value("${bandwidth.LARGE_TRANSFER_BYTES}")
+    long largeBytes;
+    @Value("${bandwidth.QUEUE_WAIT_MS}")
+    long queueWaitMillis;
+    @Value("${ratelimit.IDLE_EVICT_MS}")
+    long idleMillis;
+
+    @Bean
+    public BandwidthLimiter uploadBandwidthLimiter() {
+        return new BandwidthLimiter("upload", uploadRate, principalUploadRate, maxUploads,
+                largeBytes, queueWaitMillis, idleMillis, meterRegistry);
+    }
+
+    @Bean
+    public BandwidthLimiter downloadBandwidthLimiter() {
+        return new BandwidthLimiter("download", downloadRate, principalDownloadRate, maxDownloads,
+                largeBytes, queueWaitMillis, idleMillis, meterRegistry);
+    }
+
+    // Upload chạy sau security để biết principal
+    @Bean
+    public FilterRegistrationBean<BandwidthFilter> uploadBandwidthFilterRegistration() {
+        FilterRegistrationBean<BandwidthFilter> registration = new FilterRegistrationBean<>(
+                new BandwidthFilter(this.uploadBandwidthLimiter(), true, jwtProvider));
+        registration.setName("uploadBandwidthFilter");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 10);
+        registration.addUrlPatterns("/files/*");
+        return registration;
+    }
+
+    // Tải xuống chạy trước StaticAssetFilter vì file tĩnh được trả ngay trong filter đó;
+    // chưa qua security nên filter tự lấy user id từ JWT để chia băng thông theo user
+    @Bean
+    public FilterRegistrationBean<BandwidthFilter> downloadBandwidthFilterRegistration() {
+        FilterRegistrationBean<BandwidthFilter> registration = new FilterRegistrationBean<>(
+                new BandwidthFilter(this.downloadBandwidthLimiter(), false, jwtProvider));
+        registration.setName("downloadBandwidthFilter");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 20);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.IDLE_EVICT_MS}")
+    public void evictIdle() {
+        this.uploadBandwidthLimiter().evictIdle();
+        this.downloadBandwidthLimiter().evictIdle();
+    }
+}
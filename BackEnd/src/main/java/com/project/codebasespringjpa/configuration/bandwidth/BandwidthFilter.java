@@ -0,0 +1,132 @@
+package com.project.codebasespringjpa.configuration.bandwidth;
+
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
+import com.project.codebasespringjpa.configuration.security.jwtConfig.JwtProvider;
+import com.project.codebasespringjpa.configuration.security.rateLimit.RateLimitResponse;
+import com.project.codebasespringjpa.configuration.staticAsset.StaticAssetFilter;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.service.imp.MediaService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+// Giới hạn băng thông + số transfer lớn đồng thời cho upload (/files) hoặc tải media/file tĩnh/ZIP khoá học
+public class BandwidthFilter extends OncePerRequestFilter {
+    static final Pattern BUNDLE = Pattern.compile("^/courses/\\d+/bundle$");
+
+    final BandwidthLimiter limiter;
+    final boolean upload;
+    final JwtProvider jwtProvider;
+
+    public BandwidthFilter(BandwidthLimiter limiter, boolean upload, JwtProvider jwtProvider) {
+        this.limiter = limiter;
+        this.upload = upload;
+        this.jwtProvider = jwtProvider;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (upload)
+            return !"POST".equals(method) && !"PUT".equals(method);
+        if (!"GET".equals(method) && !"HEAD".equals(method))
+            return true;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/media/") && !StaticAssetFilter.ASSET.matcher(path).matches()
+                && !BUNDLE.matcher(path).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = keyOf(request);
+        if (upload) {
+            // Không có Content-Length (chunked) cũng tính là transfer lớn
+            boolean large = limiter.isLarge(request.getContentLengthLong());
+            if (large && !limiter.acquireSlot()) {
+                RateLimitResponse.reject(response, limiter.retryAfterSeconds(), ErrorCode.SERVER_BUSY);
+                return;
+            }
+            AtomicBoolean held = new AtomicBoolean(large);
+            try {
+                filterChain.doFilter(limiter.isShaping()
+                        ? new ThrottledRequest(request, limiter, key) : request, response);
+            } finally {
+                releaseAfter(request, () -> {
+                    if (held.getAndSet(false))
+                        limiter.releaseSlot();
+                });
+            }
+            return;
+        }
+        ThrottledResponse wrapped = new ThrottledResponse(response, limiter, key, "HEAD".equals(request.getMethod()));
+        // sendfile không đi qua ThrottledOutputStream: MediaService xin token cho cả đoạn trước khi giao cho Tomcat,
+        // mỗi lượt tối đa sendfileMaxBytes; đoạn dài hơn ghi qua stream (có giới hạn tốc độ, giữ slot tới khi xong)
+        request.setAttribute(MediaService.SENDFILE_MAX_BYTES, limiter.sendfileMaxBytes());
+        if (limiter.isShaping())
+            request.setAttribute(MediaService.SENDFILE_ADMISSION,
+                    (MediaService.SendfileAdmission) bytes -> limiter.admit(key, bytes));
+        try {
+            filterChain.doFilter(request, wrapped);
+        } finally {
+            releaseAfter(request, wrapped::release);
+        }
+    }
+
+    // Request đã chuyển sang pool media: giữ slot tới khi async kết thúc
+    private static void releaseAfter(HttpServletRequest request, Runnable release) {
+        if (!request.isAsyncStarted()) {
+            release.run();
+            return;
+        }
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                release.run();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                release.run();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                release.run();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    // Đã đăng nhập thì theo user id, còn lại theo IP
+    // Filter tải xuống chạy trước security (file tĩnh trả ngay trong StaticAssetFilter): tự đọc user id trong JWT
+    private String keyOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal)
+            return "user:" + principal.getId();
+        String token = request.getHeader("Authorization");
+        if (jwtProvider != null && StringUtils.hasText(token) && token.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtProvider.parseClaims(token.substring(7));
+                return "user:" + Long.parseLong(claims.getSubject());
+            } catch (RuntimeException e) {
+                // Token hỏng/hết hạn: tính theo IP, security chain sẽ tự từ chối nếu cần
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
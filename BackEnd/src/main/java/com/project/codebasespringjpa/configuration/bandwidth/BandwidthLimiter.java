@@ -0,0 +1,119 @@
+package com.project.codebasespringjpa.configuration.bandwidth;
+
+import com.project.codebasespringjpa.configuration.security.rateLimit.RateLimiter;
+import com.project.codebasespringjpa.configuration.security.rateLimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Băng thông của một chiều (upload/download): bucket chung + bucket theo principal, tính bằng byte
+// Phần băng thông còn lại của NIC luôn dành cho API JSON
+public class BandwidthLimiter {
+    // Gửi/nhận tối đa từng này byte mỗi lần xin token
+    public static final int CHUNK_BYTES = 16 * 1024;
+    static final long MIN_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    final TokenBucket global;
+    final RateLimiter principals;
+    final Semaphore slots;
+    final long largeBytes;
+    final long queueWaitMillis;
+    final Counter rejected;
+
+    // bytesPerSecond <= 0: không giới hạn; burst tối đa 1/4 giây
+    public BandwidthLimiter(String direction, long bytesPerSecond, long principalBytesPerSecond, int maxLargeTransfers,
+                            long largeBytes, long queueWaitMillis, long idleMillis, MeterRegistry meterRegistry) {
+        this.global = bytesPerSecond > 0
+                ? new TokenBucket(burstOf(bytesPerSecond), bytesPerSecond / 1e9, System.nanoTime()) : null;
+        this.principals = principalBytesPerSecond > 0
+                ? new RateLimiter(burstOf(principalBytesPerSecond), principalBytesPerSecond * 60, idleMillis) : null;
+        this.slots = new Semaphore(maxLargeTransfers, true);
+        this.largeBytes = largeBytes;
+        this.queueWaitMillis = queueWaitMillis;
+        this.rejected = meterRegistry.counter("media.transfer.rejected", "direction", direction);
+        meterRegistry.gauge("media.transfer.active", Tags.of("direction", direction), slots,
+                it -> maxLargeTransfers - it.availablePermits());
+        meterRegistry.gauge("media.transfer.queued", Tags.of("direction", direction), slots,
+                Semaphore::getQueueLength);
+    }
+
+    public boolean isShaping() {
+        return global != null || principals != null;
+    }
+
+    public boolean isLarge(long length) {
+        return length < 0 || length > largeBytes;
+    }
+
+    // Chờ tới khi cả principal và bucket chung đủ token cho `bytes` (bytes <= CHUNK_BYTES)
+    public void acquire(String key, int bytes) throws InterruptedIOException {
+        if (principals != null) {
+            while (!principals.tryAcquire(key, bytes))
+                park(principals.nanosUntil(key, bytes));
+        }
+        if (global != null) {
+            while (!global.tryConsume(bytes, System.nanoTime()))
+                park(global.nanosUntil(bytes, System.nanoTime()));
+        }
+    }
+
+    // sendfile không đi qua stream: chờ tới lượt như một chunk rồi ghi nợ phần còn lại của đoạn,
+    // lượt tải sau (của principal và của cả server) phải chờ trả hết nợ nên tốc độ trung bình vẫn đúng
+    // Đoạn tối đa sendfileMaxBytes() nên nợ chỉ kéo dài cỡ vài trăm ms ở tốc độ theo principal
+    public void admit(String key, long bytes) throws InterruptedIOException {
+        int first = (int) Math.min(bytes, CHUNK_BYTES);
+        this.acquire(key, first);
+        long rest = bytes - first;
+        if (rest <= 0)
+            return;
+        if (principals != null)
+            principals.charge(key, rest);
+        if (global != null)
+            global.charge(rest, System.nanoTime());
+    }
+
+    // Mỗi lượt sendfile không vượt ngưỡng transfer lớn: không cần slot (Tomcat gửi sau khi servlet trả về,
+    // slot không giữ được tới lúc gửi xong) và nợ token có giới hạn
+    public long sendfileMaxBytes() {
+        return largeBytes;
+    }
+
+    // Giới hạn số transfer lớn chạy đồng thời: chờ tối đa QUEUE_WAIT_MS rồi từ chối
+    public boolean acquireSlot() {
+        try {
+            if (slots.tryAcquire(queueWaitMillis, TimeUnit.MILLISECONDS))
+                return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void releaseSlot() {
+        slots.release();
+    }
+
+    public long retryAfterSeconds() {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(queueWaitMillis));
+    }
+
+    public void evictIdle() {
+        if (principals != null)
+            principals.evictIdle();
+    }
+
+    private static void park(long nanos) throws InterruptedIOException {
+        LockSupport.parkNanos(Math.max(MIN_PARK_NANOS, nanos));
+        if (Thread.interrupted())
+            throw new InterruptedIOException("Bandwidth wait interrupted");
+    }
+
+    private static long burstOf(long bytesPerSecond) {
+        return Math.max(4L * CHUNK_BYTES, bytesPerSecond / 4);
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.codebasespringjpa.configuration.bandwidth;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import java.io.IOException;
+
+// Đọc body theo tốc độ cho phép: dừng đọc thì TCP window đầy và client tự chậm lại
+public class ThrottledInputStream extends ServletInputStream {
+    final ServletInputStream in;
+    final BandwidthLimiter limiter;
+    final String key;
+
+    public ThrottledInputStream(ServletInputStream in, BandwidthLimiter limiter, String key) {
+        this.in = in;
+        this.limiter = limiter;
+        this.key = key;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0)
+            limiter.acquire(key, 1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, Math.min(len, BandwidthLimiter.CHUNK_BYTES));
+        if (read > 0)
+            limiter.acquire(key, read);
+        return read;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return in.isFinished();
+    }
+
+    @Override
+    public boolean isReady() {
+        return in.isReady();
+    }
+
+    @Override
+    public void setReadListener(ReadListener readListener) {
+        in.setReadListener(readListener);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
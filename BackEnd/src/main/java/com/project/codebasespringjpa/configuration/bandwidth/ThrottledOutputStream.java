@@ -0,0 +1,78 @@
+package com.project.codebasespringjpa.configuration.bandwidth;
+
+import com.project.codebasespringjpa.util.ResponseChannel;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+// Ghi ra client từng đoạn CHUNK_BYTES, mỗi đoạn phải xin đủ token trước
+public class ThrottledOutputStream extends ServletOutputStream implements ResponseChannel.ByteBufferOutput {
+    final ServletOutputStream out;
+    // Response bên dưới, để ghi ByteBuffer (media) mà không chép qua heap
+    final ServletResponse target;
+    final BandwidthLimiter limiter;
+    final String key;
+    WritableByteChannel channel;
+
+    public ThrottledOutputStream(ServletOutputStream out, ServletResponse target, BandwidthLimiter limiter,
+                                 String key) {
+        this.out = out;
+        this.target = target;
+        this.limiter = limiter;
+        this.key = key;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        limiter.acquire(key, 1);
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int chunk = Math.min(len, BandwidthLimiter.CHUNK_BYTES);
+            limiter.acquire(key, chunk);
+            out.write(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) throws IOException {
+        if (channel == null)
+            channel = ResponseChannel.of(target);
+        while (buffer.hasRemaining()) {
+            int chunk = Math.min(buffer.remaining(), BandwidthLimiter.CHUNK_BYTES);
+            limiter.acquire(key, chunk);
+            ByteBuffer slice = buffer.slice(buffer.position(), chunk);
+            while (slice.hasRemaining())
+                channel.write(slice);
+            buffer.position(buffer.position() + chunk);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    @Override
+    public boolean isReady() {
+        return out.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+        out.setWriteListener(writeListener);
+    }
+}
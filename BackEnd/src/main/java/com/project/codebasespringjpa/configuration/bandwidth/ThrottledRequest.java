@@ -0,0 +1,25 @@
+package com.project.codebasespringjpa.configuration.bandwidth;
+
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.io.IOException;
+
+public class ThrottledRequest extends HttpServletRequestWrapper {
+    final BandwidthLimiter limiter;
+    final String key;
+    ServletInputStream stream;
+
+    public ThrottledRequest(HttpServletRequest request, BandwidthLimiter limiter, String key) {
+        super(request);
+        this.limiter = limiter;
+        this.key = key;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (stream == null)
+            stream = new ThrottledInputStream(super.getInputStream(), limiter, key);
+        return stream;
+    }
+}
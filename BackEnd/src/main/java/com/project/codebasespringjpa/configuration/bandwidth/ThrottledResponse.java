@@ -0,0 +1,75 @@
+package com.project.codebasespringjpa.configuration.bandwidth;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Response tải xuống: xin slot khi biết Content-Length lớn, body đi qua ThrottledOutputStream
+public class ThrottledResponse extends HttpServletResponseWrapper {
+    final BandwidthLimiter limiter;
+    final String key;
+    final boolean head;
+    // Được đọc/ghi từ thread Tomcat, thread pool media và AsyncListener
+    volatile boolean slot;
+    volatile boolean rejected;
+    ServletOutputStream stream;
+
+    public ThrottledResponse(HttpServletResponse response, BandwidthLimiter limiter, String key, boolean head) {
+        super(response);
+        this.limiter = limiter;
+        this.key = key;
+        this.head = head;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        this.setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        this.checkSlot(len);
+        if (!rejected)
+            super.setContentLengthLong(len);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        // 503 đã gửi: người gọi phải kiểm tra isCommitted() sau setContentLength thay vì ghi tiếp
+        if (rejected)
+            throw new IOException("Download rejected: no transfer slot");
+        if (stream == null)
+            stream = limiter.isShaping()
+                    ? new ThrottledOutputStream(super.getOutputStream(), this.getResponse(), limiter, key)
+                    : super.getOutputStream();
+        return stream;
+    }
+
+    public synchronized void release() {
+        if (slot) {
+            slot = false;
+            limiter.releaseSlot();
+        }
+    }
+
+    // Hết slot: trả 503 ngay, response đã commit nên MediaService dừng trước khi ghi body
+    private void checkSlot(long length) {
+        if (head || slot || rejected || !limiter.isLarge(length))
+            return;
+        if (limiter.acquireSlot()) {
+            slot = true;
+            return;
+        }
+        rejected = true;
+        HttpServletResponse response = (HttpServletResponse) this.getResponse();
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(limiter.retryAfterSeconds()));
+        try {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
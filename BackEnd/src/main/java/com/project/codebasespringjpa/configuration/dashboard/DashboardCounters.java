@@ -0,0 +1,155 @@
+package com.project.codebasespringjpa.configuration.dashboard;
+
+import com.project.codebasespringjpa.dto.statics.DashboardResponse;
+import com.project.codebasespringjpa.repository.IAppointmentRepository;
+import com.project.codebasespringjpa.repository.ICourseRepository;
+import com.project.codebasespringjpa.repository.IProgramRepository;
+import com.project.codebasespringjpa.repository.ISurveyResultRepository;
+import com.project.codebasespringjpa.repository.IUserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Bộ đếm dashboard giữ trong RAM: nạp lúc khởi động, cộng/trừ theo DashboardEvent, định kỳ đối soát với DB
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DashboardCounters {
+    static final int COUNTERS = DashboardEvent.Counter.values().length;
+    // Chạy trước DashboardStream: delta được đẩy đi thì snapshot đã chứa nó
+    static final int EVENT_ORDER = 0;
+
+    // Phát ra khi đối soát làm đổi ít nhất một bộ đếm: client SSE cần snapshot mới thay cho giá trị đã cộng dồn
+    public record Reconciled(DashboardResponse snapshot) {
+    }
+
+    @Autowired
+    IUserRepository userRepository;
+    @Autowired
+    ICourseRepository courseRepository;
+    @Autowired
+    IProgramRepository programRepository;
+    @Autowired
+    IAppointmentRepository appointmentRepository;
+    @Autowired
+    ISurveyResultRepository surveyResultRepository;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    final AtomicLong[] values = new AtomicLong[COUNTERS];
+    volatile boolean loaded;
+    ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        for (int i = 0; i < COUNTERS; i++)
+            values[i] = new AtomicLong();
+        AtomicInteger counter = new AtomicInteger();
+        // Mỗi câu count một thread để các câu chạy song song
+        executor = new ThreadPoolExecutor(COUNTERS, COUNTERS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(COUNTERS * 4),
+                r -> {
+                    Thread t = new Thread(r, "dashboard-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void seed() {
+        this.load();
+    }
+
+    public DashboardResponse snapshot() {
+        if (!loaded)
+            this.load();
+        return DashboardResponse.builder()
+                .cntUser(this.get(DashboardEvent.Counter.USER))
+                .cntSpecialist(this.get(DashboardEvent.Counter.SPECIALIST))
+                .cntCourse(this.get(DashboardEvent.Counter.COURSE))
+                .cntProgram(this.get(DashboardEvent.Counter.PROGRAM))
+                .cntAppointment(this.get(DashboardEvent.Counter.APPOINTMENT))
+                .cntSurvey(this.get(DashboardEvent.Counter.SURVEY))
+                .cntRegistration(this.get(DashboardEvent.Counter.REGISTRATION))
+                .build();
+    }
+
+    // Chỉ áp dụng sau khi transaction commit: rollback thì không làm lệch bộ đếm
+    @Order(EVENT_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEvent(DashboardEvent event) {
+        if (loaded)
+            values[event.counter().ordinal()].addAndGet(event.delta());
+    }
+
+    // Sự kiện commit trong lúc đang đếm có thể bị tính hai lần hoặc bỏ sót: lần đối soát sau sẽ sửa
+    @Scheduled(fixedDelayString = "${dashboard.RECONCILE_MS}", initialDelayString = "${dashboard.RECONCILE_MS}")
+    void reconcile() {
+        long[] before = new long[COUNTERS];
+        for (int i = 0; i < COUNTERS; i++)
+            before[i] = values[i].get();
+        long[] fresh = this.load();
+        boolean drifted = false;
+        for (int i = 0; i < COUNTERS; i++) {
+            if (before[i] != fresh[i]) {
+                drifted = true;
+                log.warn("Dashboard counter {} drifted: {} -> {}", DashboardEvent.Counter.values()[i], before[i],
+                        fresh[i]);
+            }
+        }
+        if (drifted)
+            eventPublisher.publishEvent(new Reconciled(this.snapshot()));
+    }
+
+    private long get(DashboardEvent.Counter counter) {
+        return values[counter.ordinal()].get();
+    }
+
+    private synchronized long[] load() {
+        CompletableFuture<Long> users = this.count(userRepository::cntUserActice);
+        CompletableFuture<Long> specialists = this.count(userRepository::cntSpecialistActive);
+        CompletableFuture<Long> courses = this.count(courseRepository::countCourseActive);
+        CompletableFuture<Long> programs = this.count(programRepository::countProgramActive);
+        CompletableFuture<Long> appointments = this.count(appointmentRepository::countAppointmentActive);
+        CompletableFuture<Long> surveys = this.count(surveyResultRepository::countResult);
+        CompletableFuture<Long> registrations = this.count(programRepository::countRegisterActive);
+        long[] fresh;
+        try {
+            fresh = new long[]{users.join(), specialists.join(), courses.join(), programs.join(), appointments.join(),
+                    surveys.join(), registrations.join()};
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+        for (int i = 0; i < COUNTERS; i++)
+            values[i].set(fresh[i]);
+        loaded = true;
+        return fresh;
+    }
+
+    private CompletableFuture<Long> count(Supplier<Long> query) {
+        return CompletableFuture.supplyAsync(query, executor)
+                .thenApply(value -> value == null ? 0L : value);
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.codebasespringjpa.configuration.dashboard;
+
+import com.project.codebasespringjpa.entity.UserEntity;
+import com.project.codebasespringjpa.enums.RoleEnum;
+
+// Thay đổi số lượng đang hoạt động (tạo mới: +1, xoá mềm: -1), phát ra từ service sau khi ghi DB
+public record DashboardEvent(Counter counter, long delta) {
+    // Thứ tự khai báo là chỉ số mảng trong DashboardCounters
+    public enum Counter {
+        USER, SPECIALIST, COURSE, PROGRAM, APPOINTMENT, SURVEY, REGISTRATION
+    }
+
+    public static boolean isSpecialist(UserEntity user) {
+        return user.getRole() != null && RoleEnum.SPECIALIST.name().equals(user.getRole().getName());
+    }
+}
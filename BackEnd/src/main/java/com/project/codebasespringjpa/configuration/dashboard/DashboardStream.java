@@ -0,0 +1,194 @@
+package com.project.codebasespringjpa.configuration.dashboard;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Đẩy thay đổi bộ đếm dashboard qua SSE: một publisher, fan-out tới mọi client đang mở dashboard
+// Mỗi client có hàng đợi giới hạn; client đọc chậm làm đầy hàng đợi thì bị ngắt, client tự kết nối lại và nhận snapshot mới
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DashboardStream {
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    DashboardCounters dashboardCounters;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Value("${dashboard.STREAM_MAX_CLIENTS}")
+    int maxClients;
+    @Value("${dashboard.STREAM_BUFFER}")
+    int bufferSize;
+    @Value("${dashboard.STREAM_THREADS}")
+    int threads;
+    @Value("${dashboard.STREAM_TIMEOUT_MS}")
+    long timeoutMillis;
+
+    final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    ThreadPoolExecutor executor;
+    Counter dropped;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        // Hàng đợi task không giới hạn cứng: mỗi client chỉ có tối đa một task drain đang chờ
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "dashboard-stream-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        dropped = meterRegistry.counter("dashboard.stream.dropped");
+        meterRegistry.gaugeCollectionSize("dashboard.stream.clients", Tags.empty(), subscribers);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Subscriber subscriber : subscribers)
+            subscriber.close();
+        executor.shutdown();
+    }
+
+    // Xác thực JWT một lần khi mở kết nối; sau đó chỉ còn chi phí ghi vài byte mỗi khi có thay đổi
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxClients)
+            throw new AppException(ErrorCode.SERVER_BUSY);
+        return this.subscribe(new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        // Snapshot trước, đăng ký sau: delta commit trong khoảng giữa có thể tới hai lần nhưng không bị mất
+        // và luôn đứng sau snapshot trong hàng đợi
+        subscriber.offer(SseEmitter.event()
+                .name("snapshot")
+                .data(json(dashboardCounters.snapshot())));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @Order(DashboardCounters.EVENT_ORDER + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEvent(DashboardEvent event) {
+        if (subscribers.isEmpty())
+            return;
+        // Serialize một lần cho mọi client
+        String data = json(event);
+        for (Subscriber subscriber : subscribers)
+            subscriber.offer(SseEmitter.event().name("delta").data(data));
+    }
+
+    // Đối soát đã sửa bộ đếm: delta cộng dồn ở client không tự đúng lại được, gửi snapshot để client thay toàn bộ
+    @EventListener
+    void onReconciled(DashboardCounters.Reconciled event) {
+        if (subscribers.isEmpty())
+            return;
+        String data = json(event.snapshot());
+        for (Subscriber subscriber : subscribers)
+            subscriber.offer(SseEmitter.event().name("snapshot").data(data));
+    }
+
+    // Comment SSE giữ kết nối qua proxy và phát hiện client đã đóng tab
+    @Scheduled(fixedDelayString = "${dashboard.STREAM_HEARTBEAT_MS}")
+    void heartbeat() {
+        for (Subscriber subscriber : subscribers)
+            subscriber.offer(SseEmitter.event().comment("ping"));
+    }
+
+    private static String json(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed)
+                return;
+            if (!queue.offer(event)) {
+                dropped.increment();
+                log.debug("Dashboard stream client too slow, disconnecting");
+                this.close();
+                return;
+            }
+            this.schedule();
+        }
+
+        // Mỗi client tối đa một task drain: publisher không bao giờ bị chặn bởi socket của client
+        void schedule() {
+            if (!scheduled.compareAndSet(false, true))
+                return;
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                this.close();
+            }
+        }
+
+        void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null)
+                    emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                this.close();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!closed && !queue.isEmpty())
+                this.schedule();
+        }
+
+        void close() {
+            if (closed)
+                return;
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // emitter đã hoàn tất
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.codebasespringjpa.configuration.dashboard;
+
+import com.project.codebasespringjpa.enums.SeriesMetricEnum;
+import java.time.LocalDate;
+
+// Dữ liệu của một ngày đã thay đổi (vd: đổi trạng thái lịch hẹn cũ): bỏ bucket đó khỏi cache thống kê
+public record SeriesEvent(SeriesMetricEnum metric, LocalDate day) {
+}
@@ -8,6 +8,7 @@ import com.project.codebasespringjpa.enums.RoleEnum;
 import com.project.codebasespringjpa.repository.IMajorRepository;
 import com.project.codebasespringjpa.repository.IObjectRepository;
 import com.project.codebasespringjpa.repository.IUserRepository;
+import com.project.codebasespringjpa.service.interfaces.IProgramStatService;
 import com.project.codebasespringjpa.service.interfaces.IRoleService;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
@@ -35,6 +36,8 @@ public class ApplicationInitConfig {
     IMajorRepository majorRepository;
     @Autowired
     IObjectRepository objectRepository;
+    @Autowired
+    IProgramStatService programStatService;
 
     @Bean
     ApplicationRunner applicationRunner() {
@@ -43,6 +46,7 @@ public class ApplicationInitConfig {
             this.createMajors();
             this.createAccount();
             this.createObject();
+            this.createProgramStats();
         };
     }
 
@@ -55,6 +59,12 @@ public class ApplicationInitConfig {
         }
     }
 
+    // Lần đầu có tbl_program_stat (ddl-auto tạo bảng rỗng): dựng từ dữ liệu có sẵn
+    void createProgramStats() {
+        if (programStatService.isEmpty())
+            programStatService.rebuild();
+    }
+
     void createMajors() {
         if (majorRepository.count() == 0) {
             List<String> majorEntityList = Arrays.asList("Thanh thiếu niên", "Nghiện", "Gia đình", "Sức khỏe tâm thần",
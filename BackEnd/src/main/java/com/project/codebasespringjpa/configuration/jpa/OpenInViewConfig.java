@@ -0,0 +1,25 @@
+package com.project.codebasespringjpa.configuration.jpa;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Thay bản open-in-view mặc định của Spring Boot để bỏ qua login/register:
+// open-in-view giữ connection Hikari tới hết request, kể cả lúc chờ BCrypt
+@Configuration
+public class OpenInViewConfig implements WebMvcConfigurer {
+    static final String[] EXCLUDED = {"/auth/login", "/auth/register"};
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(this.openEntityManagerInViewInterceptor()).excludePathPatterns(EXCLUDED);
+    }
+}
@@ -0,0 +1,148 @@
+package com.project.codebasespringjpa.configuration.mediaPool;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pool riêng cho upload/tải media: client chậm chỉ giữ thread của pool này, thread Tomcat được trả lại cho API
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MediaExecutor {
+    public interface Transfer {
+        void run() throws IOException;
+    }
+
+    // Đánh dấu request trả file: pool đầy thì GlobalExceptionHandler trả 503 trần thay vì JSON
+    public static final String STREAM = MediaExecutor.class.getName() + ".stream";
+
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Value("${media.TRANSFER_THREADS}")
+    int threads;
+    @Value("${media.TRANSFER_QUEUE}")
+    int queueSize;
+    @Value("${media.TRANSFER_TIMEOUT_MS}")
+    long timeoutMillis;
+
+    ThreadPoolExecutor executor;
+    AsyncTaskExecutor taskExecutor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        Counter rejected = meterRegistry.counter("executor.rejected", "name", "media");
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "media-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, e) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Media pool is saturated");
+                });
+        // executor.active / executor.queued / executor.pool.size ... với tag name=media
+        new ExecutorServiceMetrics(executor, "media", Tags.empty()).bindTo(meterRegistry);
+        taskExecutor = new TaskExecutorAdapter(executor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // Việc nền sau khi lưu file (tính CRC...): pool đầy thì RejectedExecutionException
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    // Cho controller MVC: pool đầy thì TaskRejectedException -> SERVER_BUSY
+    public <T> WebAsyncTask<T> submit(Callable<T> callable) {
+        return new WebAsyncTask<>(timeoutMillis, taskExecutor, callable);
+    }
+
+    // Cho endpoint trả file (media, ZIP): pool đầy thì 503 + Retry-After, thẻ <video> không nhận JSON
+    public WebAsyncTask<Void> stream(HttpServletRequest request, Transfer transfer) {
+        request.setAttribute(STREAM, Boolean.TRUE);
+        return this.submit(() -> {
+            transfer.run();
+            return null;
+        });
+    }
+
+    // Cho filter chạy ngoài MVC: chuyển request sang async rồi ghi response trên pool media
+    public void dispatch(HttpServletRequest request, HttpServletResponse response, Transfer transfer)
+            throws IOException {
+        AsyncContext context = request.startAsync(request, response);
+        context.setTimeout(timeoutMillis);
+        // complete() chỉ được gọi một lần: bởi transfer hoặc bởi timeout, bên nào tới trước
+        AtomicBoolean done = new AtomicBoolean();
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (!done.compareAndSet(false, true))
+                    return;
+                log.warn("Media transfer timed out after {} ms", timeoutMillis);
+                // Chưa gửi gì thì báo 503; đã gửi một phần thì chỉ đóng kết nối, transfer đang chạy sẽ gặp lỗi ghi và dừng
+                if (!response.isCommitted()) {
+                    response.setHeader("Retry-After", "1");
+                    response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                }
+                context.complete();
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        try {
+            executor.execute(() -> {
+                try {
+                    transfer.run();
+                } catch (IOException | RuntimeException e) {
+                    // Thường là client ngắt kết nối giữa chừng
+                    log.debug("Media transfer aborted: {}", e.getMessage());
+                } finally {
+                    if (done.compareAndSet(false, true))
+                        context.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            done.set(true);
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            context.complete();
+        }
+    }
+}
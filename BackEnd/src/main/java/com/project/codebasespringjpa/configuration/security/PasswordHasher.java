@@ -0,0 +1,109 @@
+package com.project.codebasespringjpa.configuration.security;
+
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// BCrypt chạy trên pool riêng (giới hạn thread + hàng đợi), không chiếm thread của Tomcat
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PasswordHasher {
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+
+    @Value("${security.HASH_THREADS}")
+    int threads;
+    @Value("${security.HASH_QUEUE}")
+    int queueSize;
+    @Value("${security.BCRYPT_TARGET_MS}")
+    long targetMillis;
+
+    @Getter
+    PasswordEncoder encoder;
+    // Hash giả cùng cost, dùng khi username không tồn tại để thời gian login như nhau
+    @Getter
+    String dummyHash;
+    ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        int strength = this.calibrate();
+        log.info("BCrypt strength = {} (target {} ms)", strength, targetMillis);
+        encoder = new BCryptPasswordEncoder(strength);
+        dummyHash = encoder.encode(UUID.randomUUID().toString());
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String encodedPassword) {
+        return this.submit(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return this.await(this.matchesAsync(rawPassword, encodedPassword));
+    }
+
+    public String encode(String rawPassword) {
+        return this.await(this.submit(() -> encoder.encode(rawPassword)));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            // Hàng đợi đầy: từ chối ngay thay vì để request chờ
+            throw new AppException(ErrorCode.SERVER_BUSY);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    // Chọn cost lớn nhất mà thời gian hash vẫn nằm trong target
+    private int calibrate() {
+        new BCryptPasswordEncoder(4).encode("warm-up");
+        int strength = MIN_STRENGTH;
+        for (int s = MIN_STRENGTH; s <= MAX_STRENGTH; s++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(s).encode("calibration");
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (elapsed > targetMillis)
+                break;
+            strength = s;
+        }
+        return strength;
+    }
+}
@@ -2,9 +2,11 @@ package com.project.codebasespringjpa.configuration.security;
 
 import com.project.codebasespringjpa.configuration.security.jwtConfig.JwtAuthenticationFilter;
 import com.project.codebasespringjpa.configuration.security.jwtConfig.UnauthenErr;
+import com.project.codebasespringjpa.configuration.security.rateLimit.AuthRateLimitFilter;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
@@ -13,7 +15,7 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -26,11 +28,13 @@ import org.springframework.web.cors.CorsConfigurationSource;
 
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity(securedEnabled = true)
+@EnableMethodSecurity(securedEnabled = true, prePostEnabled = false)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Security {
     @Autowired
     UnauthenErr unauthenErr;
+    @Autowired
+    PasswordHasher passwordHasher;
 
     private static final String[] ALLOWED_ORIGINS = {
             "http://localhost:3000",
@@ -44,8 +48,8 @@ public class Security {
     };
 
     private static final String[] SWAGGER_WHITELIST = {
-            "/auth/login", "/auth/register",
-            "/files/**",
+            "/auth/login", "/auth/register", "/auth/refresh", "/auth/logout",
+            "/media/**",
             "/swagger-ui/**", "/v3/api-docs/**",
             "/avatar*", // Thêm đường dẫn avatar
             "/*.avif", "/*.jpg", "/*.jpeg", "/*.png", "/*.gif", // Thêm các định dạng ảnh phổ biến
@@ -54,11 +58,47 @@ public class Security {
             "/*.MP4", "/*.MP3", "/*.MKV"
     };
 
+    // File tĩnh/media không cần security: bỏ qua hẳn filter chain
+    private static final String[] STATIC_ASSETS = {
+            "/media/**",
+            "/*.avif", "/*.jpg", "/*.jpeg", "/*.png", "/*.gif", "/*.webp",
+            "/*.JPG", "/*.JPEG", "/*.PNG",
+            "/*.mp4", "/*.mp3", "/*.mkv",
+            "/*.MP4", "/*.MP3", "/*.MKV"
+    };
+
+    @Bean
+    public WebSecurityCustomizer webSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(STATIC_ASSETS);
+    }
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
     }
 
+    @Bean
+    public AuthRateLimitFilter authRateLimitFilter() {
+        return new AuthRateLimitFilter();
+    }
+
+    // Chỉ chạy trong security chain, không đăng ký thêm ở servlet container (file tĩnh không phải parse JWT)
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(
+            JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    // Chỉ chạy trong security chain (sau CORS), không đăng ký thêm ở servlet container
+    @Bean
+    public FilterRegistrationBean<AuthRateLimitFilter> authRateLimitFilterRegistration(AuthRateLimitFilter filter) {
+        FilterRegistrationBean<AuthRateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     // ---cors
     @Bean
     public WebMvcConfigurer configurer() {
@@ -70,14 +110,15 @@ public class Security {
                         .allowedOriginPatterns(ALLOWED_ORIGIN_PATTERNS)
                         .allowCredentials(true)
                         .allowedMethods("GET", "POST", "DELETE", "PUT", "PATCH", "OPTIONS")
-                        .allowedHeaders("*");
+                        .allowedHeaders("*")
+                        .exposedHeaders("X-RateLimit-Limit", "X-RateLimit-Remaining", "Retry-After");
             }
         };
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return passwordHasher.getEncoder();
     }
 
     @Bean
@@ -93,10 +134,13 @@ public class Security {
         http.authorizeHttpRequests(auth -> auth
                 // Public endpoints - không cần authentication
                 .requestMatchers(SWAGGER_WHITELIST).permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Tất cả endpoints khác cần authentication
                 .anyRequest().authenticated())
                 .exceptionHandling(ex -> ex
                         .authenticationEntryPoint(unauthenErr))
+                .addFilterBefore(authRateLimitFilter(), UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
@@ -53,6 +53,10 @@ public class UserDetailsImpl implements UserDetails {
         return userEntity.getRole().getName();
     }
 
+    public UserPrincipal toPrincipal() {
+        return new UserPrincipal(userEntity.getId(), userEntity.getUsername(), getRoleName(), userEntity.getEmail());
+    }
+
     @Override
     public boolean isAccountNonExpired() {
         return true;
@@ -0,0 +1,61 @@
+package com.project.codebasespringjpa.configuration.security;
+
+import com.project.codebasespringjpa.configuration.security.methodSecurity.RoleBits;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import java.util.Collection;
+import java.util.List;
+
+// Principal gọn nhẹ, bất biến cho các request đã xác thực bằng JWT (không giữ UserEntity)
+@Getter
+public class UserPrincipal implements UserDetails {
+    private final Long id;
+    private final String username;
+    private final String roleName;
+    private final String email;
+    private final List<GrantedAuthority> authorities;
+    private final long roleMask;
+
+    public UserPrincipal(Long id, String username, String roleName, String email) {
+        this.id = id;
+        this.username = username;
+        this.roleName = roleName;
+        this.email = email;
+        // Thêm prefix ROLE_ nếu chưa có
+        String authority = roleName.startsWith("ROLE_") ? roleName : "ROLE_" + roleName;
+        this.authorities = List.of(new SimpleGrantedAuthority(authority));
+        this.roleMask = RoleBits.bitOf(authority);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -1,15 +1,12 @@
 package com.project.codebasespringjpa.configuration.security.jwtConfig;
 
-import com.project.codebasespringjpa.configuration.security.UserDetailsImpl;
-import com.project.codebasespringjpa.repository.IUserRepository;
-import com.project.codebasespringjpa.service.interfaces.IUserService;
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
 import io.jsonwebtoken.*;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -23,22 +20,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     JwtProvider jwtProvider;
     @Autowired
-    IUserService userService;
+    PrincipalCache principalCache;
     @Autowired
-    IUserRepository userRepository;
-    @Value("${jwt.SECRET_KEY}")
-    private String JWT_SECRET;
+    RevocationList revocationList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         try{
             String jwtToken = getJwtFromRequest(request);
-            if(jwtToken != null && this.validateToken(jwtToken)){
-                String username = jwtProvider.getKeyByValueFromJWT("username", jwtToken);
-                UserDetailsImpl userDetails = (UserDetailsImpl) userService.loadUserByUsername(username);
-                if(userDetails != null) {
+            Claims claims = jwtToken != null ? this.parseToken(jwtToken) : null;
+            Long userId = claims != null ? Long.parseLong(claims.getSubject()) : null;
+            if(userId != null && !revocationList.isRevoked(claims.getId(), userId, claims.getIssuedAt())){
+                // Chỉ parse JWT một lần, principal lấy từ cache theo user id
+                UserPrincipal principal = principalCache.get(userId);
+                if(principal != null) {
                     UsernamePasswordAuthenticationToken
-                            authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                            authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
@@ -59,9 +56,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     public boolean validateToken(String authToken){
+        return this.parseToken(authToken) != null;
+    }
+
+    private Claims parseToken(String authToken){
         try{
-            Jwts.parser().setSigningKey(JWT_SECRET).parseClaimsJws(authToken);
-            return true;
+            return jwtProvider.parseClaims(authToken);
         }
         catch (SignatureException e){
             logger.error("Invalid JWT signature: "+ e.getMessage());
@@ -78,6 +78,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         catch (IllegalArgumentException e){
             logger.error("JWT claims string is empty: "+ e.getMessage());
         }
-        return false;
+        return null;
     }
 }
@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtProvider {
@@ -21,13 +22,18 @@ public class JwtProvider {
     IUserRepository userRepository;
 
     public String generateToken(UserDetailsImpl customDetailService) {
-        return this.generateTokenByUsername(customDetailService.getUsername());
+        return this.generateToken(customDetailService.getUserEntity());
     }
 
     public String generateTokenByUsername(String username) {
+        UserEntity userEntity = userRepository.findByUsername(username).get();
+        return this.generateToken(userEntity);
+    }
+
+    // Dùng lại user đã xác thực, không query lại DB
+    public String generateToken(UserEntity userEntity) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + JWT_EXPIRATION);
-        UserEntity userEntity = userRepository.findByUsername(username).get();
 
         String roleName = userEntity.getRole().getName();
         // Thêm prefix ROLE_ nếu chưa có
@@ -36,15 +42,23 @@ public class JwtProvider {
         }
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(Long.toString(userEntity.getId()))
                 .claim("username", userEntity.getUsername())
                 .claim("role", roleName) // Lưu "ROLE_ADMIN" thay vì "ADMIN"
                 .setExpiration(expiryDate)
-                .setIssuedAt(new Date())
+                .setIssuedAt(now)
                 .signWith(SignatureAlgorithm.HS512, JWT_SECRET)
                 .compact();
     }
 
+    public Claims parseClaims(String token) {
+        return Jwts.parser()
+                .setSigningKey(JWT_SECRET)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
     public Long getUserIdFromJWT(String token) {
         Claims claims = Jwts.parser()
                 .setSigningKey(JWT_SECRET)
@@ -0,0 +1,57 @@
+package com.project.codebasespringjpa.configuration.security.jwtConfig;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
+import com.project.codebasespringjpa.repository.IUserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.concurrent.TimeUnit;
+
+// Cache principal theo user id: request ổn định không còn query tbl_user
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PrincipalCache {
+    @Autowired
+    IUserRepository userRepository;
+    @Value("${jwt.PRINCIPAL_CACHE_SIZE}")
+    long maxSize;
+    @Value("${jwt.PRINCIPAL_CACHE_TTL}")
+    long ttlMillis;
+
+    Cache<Long, UserPrincipal> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    // Trả về null nếu user không tồn tại hoặc đã bị xoá
+    public UserPrincipal get(Long userId) {
+        return cache.get(userId, id -> userRepository.findPrincipalById(id).orElse(null));
+    }
+
+    public void evict(Long userId) {
+        if (userId == null)
+            return;
+        cache.invalidate(userId);
+        // Xoá lại sau commit để request song song không nạp lại dữ liệu cũ vào cache
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.project.codebasespringjpa.configuration.security.jwtConfig;
+
+import com.project.codebasespringjpa.entity.RevokedTokenEntity;
+import com.project.codebasespringjpa.repository.IRevokedTokenRepository;
+import com.project.codebasespringjpa.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+// Danh sách token bị thu hồi: Bloom filter trong RAM chặn trước, chỉ khi "có thể bị thu hồi" mới query DB
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RevocationList {
+    static final String USER_PREFIX = "user:";
+    // Lùi mốc poll: revoked_at do node khác ghi có thể lệch giờ hoặc commit muộn hơn thời điểm ghi
+    static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    @Autowired
+    IRevokedTokenRepository revokedTokenRepository;
+    @Value("${jwt.JWT_EXPIRATION}")
+    long accessExpiration;
+    @Value("${jwt.REVOCATION_BLOOM_SIZE}")
+    long bloomSize;
+
+    final Object lock = new Object();
+    volatile BloomFilter current;
+    BloomFilter building;
+    LocalDateTime polledAt;
+
+    @PostConstruct
+    void init() {
+        polledAt = LocalDateTime.now();
+        this.rebuild();
+    }
+
+    public boolean isRevoked(String jti, Long userId, Date issuedAt) {
+        BloomFilter filter = current;
+        if (jti != null && filter.mightContain(jti) && revokedTokenRepository.existsByTokenKey(jti))
+            return true;
+        String userKey = USER_PREFIX + userId;
+        if (issuedAt != null && filter.mightContain(userKey)) {
+            LocalDateTime revokedAt = revokedTokenRepository.findLastRevokedAt(userKey);
+            // iat của JWT chỉ chính xác tới giây: token phát hành cùng giây với lúc thu hồi cũng bị từ chối
+            return revokedAt != null
+                    && issuedAt.getTime() / 1000 <= revokedAt.atZone(ZoneId.systemDefault()).toEpochSecond();
+        }
+        return false;
+    }
+
+    public void revokeToken(String jti, Date expiration) {
+        if (jti == null || expiration == null)
+            return;
+        this.revoke(jti, LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault()));
+    }
+
+    // Mọi access token của user phát hành trước thời điểm này đều bị từ chối
+    public void revokeUser(Long userId) {
+        this.revoke(USER_PREFIX + userId, LocalDateTime.now().plus(Duration.ofMillis(accessExpiration)));
+    }
+
+    // Lưu DB trước rồi mới đánh dấu filter (sau commit nếu đang trong transaction): rebuild đọc DB
+    // trước commit thì key vẫn được ghi vào filter đang dựng, đọc sau commit thì DB đã có key
+    private void revoke(String key, LocalDateTime expiryDate) {
+        revokedTokenRepository.save(RevokedTokenEntity.builder()
+                .tokenKey(key)
+                .revokedAt(LocalDateTime.now())
+                .expiryDate(expiryDate)
+                .build());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark(key);
+                }
+            });
+        } else {
+            this.mark(key);
+        }
+    }
+
+    // current và building được đánh dấu cùng lúc dưới lock, không lọt giữa hai bước của rebuild
+    private void mark(String key) {
+        synchronized (lock) {
+            current.put(key);
+            if (building != null)
+                building.put(key);
+        }
+    }
+
+    // Thu hồi trên node khác chỉ có trong DB: đọc định kỳ các key mới để không phải chờ tới lần rebuild
+    @Scheduled(fixedDelayString = "${jwt.REVOCATION_POLL_MS}", initialDelayString = "${jwt.REVOCATION_POLL_MS}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            for (String key : revokedTokenRepository.findKeysRevokedSince(polledAt.minus(POLL_OVERLAP)))
+                this.mark(key);
+            polledAt = now;
+        } catch (Exception e) {
+            log.error("Khong the doc revocation moi: " + e.getMessage());
+        }
+    }
+
+    // Dọn bản ghi hết hạn và dựng lại filter (bỏ key đã hết hạn khỏi filter)
+    @Scheduled(fixedDelayString = "${jwt.REVOCATION_REBUILD_MS}", initialDelayString = "${jwt.REVOCATION_REBUILD_MS}")
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        BloomFilter next = new BloomFilter(bloomSize, 0.01);
+        synchronized (lock) {
+            building = next;
+        }
+        boolean loaded = false;
+        try {
+            revokedTokenRepository.deleteExpired(now);
+            for (String key : revokedTokenRepository.findActiveKeys(now))
+                next.put(key);
+            loaded = true;
+        } catch (Exception e) {
+            log.error("Khong the dung lai revocation filter: " + e.getMessage());
+        } finally {
+            synchronized (lock) {
+                if (loaded || current == null)
+                    current = next;
+                building = null;
+            }
+        }
+    }
+}
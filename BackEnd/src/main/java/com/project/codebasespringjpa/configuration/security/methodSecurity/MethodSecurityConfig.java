@@ -0,0 +1,61 @@
+package com.project.codebasespringjpa.configuration.security.methodSecurity;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+// Thay interceptor @PreAuthorize mặc định (prePostEnabled = false ở Security)
+@Slf4j
+@Configuration
+public class MethodSecurityConfig {
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static RoleMaskAuthorizationManager roleMaskAuthorizationManager(
+            ObjectProvider<MethodSecurityExpressionHandler> expressionHandler,
+            ObjectProvider<PermissionEvaluator> permissionEvaluator,
+            ObjectProvider<RoleHierarchy> roleHierarchy,
+            ApplicationContext context) {
+        // Dựng handler giống cấu hình mặc định của Spring Security khi context không khai báo sẵn
+        return new RoleMaskAuthorizationManager(() -> expressionHandler.getIfAvailable(() -> {
+            DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+            handler.setApplicationContext(context);
+            permissionEvaluator.ifAvailable(handler::setPermissionEvaluator);
+            roleHierarchy.ifAvailable(handler::setRoleHierarchy);
+            return handler;
+        }));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeAdvisor(RoleMaskAuthorizationManager roleMaskAuthorizationManager) {
+        return AuthorizationManagerBeforeMethodInterceptor.preAuthorize(roleMaskAuthorizationManager);
+    }
+
+    // Biên dịch sẵn mọi endpoint lúc khởi động để request đầu tiên không phải parse
+    @EventListener(ApplicationReadyEvent.class)
+    public void precompile(ApplicationReadyEvent event) {
+        RoleMaskAuthorizationManager manager = event.getApplicationContext().getBean(RoleMaskAuthorizationManager.class);
+        RequestMappingHandlerMapping mapping = event.getApplicationContext()
+                .getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        int compiled = 0;
+        for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+            if (manager.compile(handlerMethod.getMethod()) != RoleMaskAuthorizationManager.FALLBACK)
+                compiled++;
+        }
+        log.info("Precompiled {} role checks", compiled);
+    }
+}
@@ -0,0 +1,26 @@
+package com.project.codebasespringjpa.configuration.security.methodSecurity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gán mỗi authority (ROLE_xxx) một bit cố định, tối đa 64 role
+public class RoleBits {
+    private static final ConcurrentHashMap<String, Long> BITS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    private RoleBits() {
+    }
+
+    // Trả về 0 nếu đã hết bit, nơi gọi phải tự xử lý (fallback về SpEL)
+    public static long bitOf(String authority) {
+        if (authority == null)
+            return 0L;
+        Long bit = BITS.get(authority);
+        if (bit != null)
+            return bit;
+        return BITS.computeIfAbsent(authority, key -> {
+            int index = NEXT.getAndIncrement();
+            return index < Long.SIZE ? 1L << index : 0L;
+        });
+    }
+}
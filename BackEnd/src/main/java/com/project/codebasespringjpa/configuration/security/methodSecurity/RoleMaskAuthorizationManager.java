@@ -0,0 +1,94 @@
+package com.project.codebasespringjpa.configuration.security.methodSecurity;
+
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.function.SingletonSupplier;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// @PreAuthorize dạng "hasRole('A') or hasRole('B')" được biên dịch một lần thành bitmask,
+// biểu thức khác (vd: #username == authentication.name) vẫn đi qua SpEL như cũ
+public class RoleMaskAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+    static final Pattern HAS_ROLE = Pattern.compile("hasRole\\('([A-Za-z0-9_]+)'\\)");
+    static final long FALLBACK = 0L;
+
+    private final SingletonSupplier<PreAuthorizeAuthorizationManager> delegate;
+    private final ConcurrentHashMap<Method, Long> masks = new ConcurrentHashMap<>();
+
+    // Expression handler lấy từ context lúc cần lần đầu: SpEL fallback vẫn resolve được @bean, permission evaluator
+    public RoleMaskAuthorizationManager(Supplier<MethodSecurityExpressionHandler> expressionHandler) {
+        this.delegate = SingletonSupplier.of(() -> {
+            PreAuthorizeAuthorizationManager manager = new PreAuthorizeAuthorizationManager();
+            manager.setExpressionHandler(expressionHandler.get());
+            return manager;
+        });
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        long required = this.compile(invocation.getMethod());
+        if (required == FALLBACK)
+            return delegate.obtain().authorize(authentication, invocation);
+        return new AuthorizationDecision((maskOf(authentication.get()) & required) != 0);
+    }
+
+    // Interface 6.x vẫn bắt buộc check(); interceptor chỉ gọi authorize()
+    @Override
+    @Deprecated
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        AuthorizationResult result = this.authorize(authentication, invocation);
+        if (result == null || result instanceof AuthorizationDecision)
+            return (AuthorizationDecision) result;
+        return new AuthorizationDecision(result.isGranted());
+    }
+
+    public long compile(Method method) {
+        Long mask = masks.get(method);
+        if (mask != null)
+            return mask;
+        return masks.computeIfAbsent(method, RoleMaskAuthorizationManager::parse);
+    }
+
+    private static long parse(Method method) {
+        PreAuthorize annotation = AnnotatedElementUtils.findMergedAnnotation(method, PreAuthorize.class);
+        if (annotation == null)
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), PreAuthorize.class);
+        if (annotation == null)
+            return FALLBACK;
+        long mask = 0L;
+        for (String term : annotation.value().trim().split("\\s+or\\s+")) {
+            Matcher matcher = HAS_ROLE.matcher(term.trim());
+            if (!matcher.matches())
+                return FALLBACK;
+            // hasRole('X') so khớp authority ROLE_X
+            long bit = RoleBits.bitOf("ROLE_" + matcher.group(1));
+            if (bit == 0L)
+                return FALLBACK;
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    private static long maskOf(Authentication authentication) {
+        if (authentication == null)
+            return 0L;
+        if (authentication.getPrincipal() instanceof UserPrincipal principal)
+            return principal.getRoleMask();
+        long mask = 0L;
+        for (GrantedAuthority authority : authentication.getAuthorities())
+            mask |= RoleBits.bitOf(authority.getAuthority());
+        return mask;
+    }
+}
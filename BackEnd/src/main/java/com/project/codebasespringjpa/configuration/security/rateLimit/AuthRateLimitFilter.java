@@ -0,0 +1,98 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+// Giới hạn /auth/login, /auth/register theo IP và username trước khi tốn BCrypt
+@Slf4j
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+    static final int MAX_BODY_BYTES = 16 * 1024;
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Value("${ratelimit.AUTH_IP_CAPACITY}")
+    long ipCapacity;
+    @Value("${ratelimit.AUTH_IP_REFILL_PER_MINUTE}")
+    long ipRefill;
+    @Value("${ratelimit.AUTH_USER_CAPACITY}")
+    long userCapacity;
+    @Value("${ratelimit.AUTH_USER_REFILL_PER_MINUTE}")
+    long userRefill;
+    @Value("${ratelimit.IDLE_EVICT_MS}")
+    long idleMillis;
+
+    RateLimiter ipLimiter;
+    RateLimiter userLimiter;
+
+    @PostConstruct
+    void init() {
+        ipLimiter = new RateLimiter(ipCapacity, ipRefill, idleMillis);
+        userLimiter = new RateLimiter(userCapacity, userRefill, idleMillis);
+        meterRegistry.gauge("auth.ratelimit.buckets", ipLimiter, it -> it.size() + userLimiter.size());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !"POST".equals(request.getMethod())
+                || !("/auth/login".equals(path) || "/auth/register".equals(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getServletPath();
+        // Sau reverse proxy, getRemoteAddr() là IP client nhờ server.forward-headers-strategy
+        String ipKey = path + "|" + request.getRemoteAddr();
+        if (!ipLimiter.tryAcquire(ipKey, 1)) {
+            this.reject(response, path, "ip", ipLimiter.retryAfterSeconds(ipKey, 1));
+            return;
+        }
+        BufferedBodyRequest wrapped = new BufferedBodyRequest(request, MAX_BODY_BYTES);
+        String username = this.readUsername(wrapped.getBodyIfComplete());
+        if (username != null) {
+            // Theo cặp (username, IP): spam sai mật khẩu từ IP khác không khóa được đăng nhập của chủ tài khoản
+            String userKey = path + "|" + username.toLowerCase() + "|" + request.getRemoteAddr();
+            if (!userLimiter.tryAcquire(userKey, 1)) {
+                this.reject(response, path, "username", userLimiter.retryAfterSeconds(userKey, 1));
+                return;
+            }
+        }
+        filterChain.doFilter(wrapped, response);
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.IDLE_EVICT_MS}")
+    public void evictIdle() {
+        ipLimiter.evictIdle();
+        userLimiter.evictIdle();
+    }
+
+    private String readUsername(byte[] body) {
+        if (body == null || body.length == 0)
+            return null;
+        try {
+            JsonNode username = MAPPER.readTree(body).get("username");
+            return username != null && username.isTextual() ? username.asText() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, String path, String reason, long retryAfter) throws IOException {
+        meterRegistry.counter("auth.ratelimit.rejected", "endpoint", path, "reason", reason).increment();
+        RateLimitResponse.reject(response, retryAfter);
+    }
+}
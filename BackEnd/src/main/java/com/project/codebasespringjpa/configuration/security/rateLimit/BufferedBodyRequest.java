@@ -0,0 +1,92 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// Đọc trước phần đầu body (đã giới hạn kích thước) rồi trả lại nguyên vẹn cho controller
+public class BufferedBodyRequest extends HttpServletRequestWrapper {
+    private final byte[] head;
+    private final boolean complete;
+
+    public BufferedBodyRequest(HttpServletRequest request, int maxBytes) throws IOException {
+        super(request);
+        byte[] read = request.getInputStream().readNBytes(maxBytes + 1);
+        this.complete = read.length <= maxBytes;
+        this.head = read;
+    }
+
+    // null nếu body lớn hơn giới hạn
+    public byte[] getBodyIfComplete() {
+        return complete ? head : null;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        return new HeadInputStream(complete ? null : super.getInputStream());
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    // Trả phần đầu đã đọc trước, sau đó (nếu body dài hơn giới hạn) đọc tiếp từ stream gốc
+    private class HeadInputStream extends ServletInputStream {
+        final ByteArrayInputStream buffered = new ByteArrayInputStream(head);
+        final ServletInputStream rest;
+
+        HeadInputStream(ServletInputStream rest) {
+            this.rest = rest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (buffered.available() > 0)
+                return buffered.read();
+            return rest == null ? -1 : rest.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+            if (buffered.available() > 0)
+                return buffered.read(buffer, off, len);
+            return rest == null ? -1 : rest.read(buffer, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return buffered.available() == 0 && (rest == null || rest.isFinished());
+        }
+
+        @Override
+        public boolean isReady() {
+            return buffered.available() > 0 || rest == null || rest.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (rest != null && !rest.isFinished()) {
+                // Stream gốc báo khi có dữ liệu; phần đầu trong RAM luôn đọc được ngay trong onDataAvailable
+                rest.setReadListener(readListener);
+                return;
+            }
+            // Toàn bộ body đã nằm trong RAM
+            try {
+                if (buffered.available() > 0)
+                    readListener.onDataAvailable();
+                readListener.onAllDataRead();
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
+        }
+    }
+}
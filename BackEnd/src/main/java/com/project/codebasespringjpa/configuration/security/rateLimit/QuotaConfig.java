@@ -0,0 +1,21 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QuotaConfig implements WebMvcConfigurer {
+    @Autowired
+    QuotaInterceptor quotaInterceptor;
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(quotaInterceptor);
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import java.lang.annotation.*;
+
+// Trọng số quota của một endpoint; endpoint không khai báo tốn 1 đơn vị
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QuotaCost {
+    int value();
+
+    // > 0: `value` là giá cho mỗi pageSize bản ghi, cost tăng theo tham số `pageParam` (làm tròn lên)
+    int pageSize() default 0;
+
+    String pageParam() default "limit";
+}
@@ -0,0 +1,123 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Quota theo principal của JWT, chặn trước khi vào controller/service
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QuotaInterceptor implements HandlerInterceptor {
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Value("${quota.CAPACITY}")
+    long capacity;
+    @Value("${quota.REFILL_PER_MINUTE}")
+    long refillPerMinute;
+    @Value("${quota.MAX_PAGE_SIZE}")
+    long maxPageSize;
+    @Value("${ratelimit.IDLE_EVICT_MS}")
+    long idleMillis;
+
+    RateLimiter limiter;
+    final ConcurrentHashMap<Method, Optional<QuotaCost>> costs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        limiter = new RateLimiter(capacity, refillPerMinute, idleMillis);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        // Lượt dispatch lại sau khi xử lý async (pool media) đã được tính ở lượt đầu
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC)
+            return true;
+        // Chặn page size quá lớn trước khi handler chạy, kể cả khi quota còn đủ
+        this.checkPageSize(handlerMethod.getMethod(), request);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal))
+            return true;
+        long cost = this.costOf(handlerMethod.getMethod(), request);
+        String key = Long.toString(principal.getId());
+        boolean allowed = limiter.tryAcquire(key, cost);
+        response.setHeader("X-RateLimit-Limit", Long.toString(capacity));
+        response.setHeader("X-RateLimit-Remaining", Long.toString(limiter.remaining(key)));
+        if (!allowed) {
+            meterRegistry.counter("api.quota.rejected", "endpoint", handlerMethod.getMethod().getName()).increment();
+            RateLimitResponse.reject(response, limiter.retryAfterSeconds(key, cost));
+            return false;
+        }
+        return true;
+    }
+
+    void checkPageSize(Method method, HttpServletRequest request) {
+        QuotaCost annotation = this.annotationOf(method);
+        if (annotation == null || annotation.pageSize() <= 0)
+            return;
+        String value = request.getParameter(annotation.pageParam());
+        if (value == null)
+            return;
+        long requested;
+        try {
+            requested = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            // Để Spring báo lỗi convert tham số như bình thường
+            return;
+        }
+        if (requested < 1 || requested > maxPageSize)
+            throw new AppException(ErrorCode.PAGE_SIZE_INVALID);
+    }
+
+    // Endpoint phân trang tính theo số bản ghi yêu cầu; tối đa bằng capacity để request vẫn có thể được phục vụ
+    long costOf(Method method, HttpServletRequest request) {
+        QuotaCost annotation = this.annotationOf(method);
+        if (annotation == null)
+            return 1;
+        long cost = annotation.value();
+        if (annotation.pageSize() > 0) {
+            long requested = this.parsePositive(request.getParameter(annotation.pageParam()));
+            if (requested > 0)
+                cost = Math.max(cost, (requested + annotation.pageSize() - 1) / annotation.pageSize() * annotation.value());
+        }
+        return Math.min(cost, capacity);
+    }
+
+    private QuotaCost annotationOf(Method method) {
+        return costs.computeIfAbsent(method,
+                it -> Optional.ofNullable(it.getAnnotation(QuotaCost.class))).orElse(null);
+    }
+
+    private long parsePositive(String value) {
+        if (value == null)
+            return 0;
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.IDLE_EVICT_MS}")
+    public void evictIdle() {
+        limiter.evictIdle();
+    }
+}
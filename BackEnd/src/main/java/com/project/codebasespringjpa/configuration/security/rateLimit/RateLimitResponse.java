@@ -0,0 +1,28 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.codebasespringjpa.exception.ApiResponse;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public class RateLimitResponse {
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Cùng định dạng với các lỗi khác: HTTP 200, mã lỗi nằm trong body
+    public static void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        reject(response, retryAfterSeconds, ErrorCode.TOO_MANY_REQUESTS);
+    }
+
+    public static void reject(HttpServletResponse response, long retryAfterSeconds, ErrorCode errorCode)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        MAPPER.writeValue(response.getOutputStream(), ApiResponse.builder()
+                .code(errorCode.getCode())
+                .message(errorCode.getMessage())
+                .build());
+    }
+}
@@ -0,0 +1,67 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Tập token bucket theo key (IP, username, ...), bucket không dùng tới sẽ bị dọn theo thời gian
+public class RateLimiter {
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final long capacity;
+    private final double refillPerNano;
+    private final long idleNanos;
+
+    public RateLimiter(long capacity, long refillPerMinute, long idleMillis) {
+        this.capacity = capacity;
+        this.refillPerNano = (double) refillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    }
+
+    public boolean tryAcquire(String key, long cost) {
+        long now = System.nanoTime();
+        return this.bucket(key, now).tryConsume(cost, now);
+    }
+
+    public void charge(String key, long cost) {
+        long now = System.nanoTime();
+        this.bucket(key, now).charge(cost, now);
+    }
+
+    public long remaining(String key) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key);
+        return bucket == null ? capacity : bucket.available(now);
+    }
+
+    public long retryAfterSeconds(String key, long cost) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key);
+        return bucket == null ? 0 : TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntil(cost, now)) + 1;
+    }
+
+    // Số nano giây cần chờ để key có đủ `cost` token
+    public long nanosUntil(String key, long cost) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key);
+        return bucket == null ? 0 : bucket.nanosUntil(cost, now);
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(it -> it.isIdle(now, idleNanos));
+    }
+
+    private TokenBucket bucket(String key, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null)
+            return bucket;
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerNano, now));
+    }
+}
@@ -0,0 +1,64 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Token bucket lock-free: trạng thái bất biến, cập nhật bằng CAS
+public class TokenBucket {
+    private record State(double tokens, long lastNanos) {}
+
+    private final long capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, double refillPerNano, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerNano;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    public boolean tryConsume(long cost, long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double tokens = this.refill(current, nowNanos);
+            if (tokens < cost) {
+                // Vẫn ghi lại lượng token đã nạp để lần sau không tính lại từ đầu
+                if (state.compareAndSet(current, new State(tokens, Math.max(current.lastNanos(), nowNanos))))
+                    return false;
+                continue;
+            }
+            if (state.compareAndSet(current, new State(tokens - cost, Math.max(current.lastNanos(), nowNanos))))
+                return true;
+        }
+    }
+
+    // Trừ token kể cả khi không đủ (số dư âm): lượt sau phải chờ nạp bù hết phần nợ
+    public void charge(long cost, long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double tokens = this.refill(current, nowNanos) - cost;
+            if (state.compareAndSet(current, new State(tokens, Math.max(current.lastNanos(), nowNanos))))
+                return;
+        }
+    }
+
+    public long available(long nowNanos) {
+        return (long) this.refill(state.get(), nowNanos);
+    }
+
+    // Số nano giây cần chờ để đủ `cost` token
+    public long nanosUntil(long cost, long nowNanos) {
+        double missing = cost - this.refill(state.get(), nowNanos);
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / refillPerNano);
+    }
+
+    // Bucket đã đầy lại và không được dùng trong khoảng idle thì có thể bỏ
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        State current = state.get();
+        return nowNanos - current.lastNanos() > idleNanos && this.refill(current, nowNanos) >= capacity;
+    }
+
+    private double refill(State current, long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - current.lastNanos());
+        return Math.min(capacity, current.tokens() + elapsed * refillPerNano);
+    }
+}
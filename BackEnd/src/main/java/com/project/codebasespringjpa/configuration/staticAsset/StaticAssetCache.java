@@ -0,0 +1,67 @@
+package com.project.codebasespringjpa.configuration.staticAsset;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+
+// Giữ nội dung các file tĩnh nhỏ, hay dùng trong RAM; giới hạn theo tổng số byte
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StaticAssetCache {
+    public record Entry(byte[] data, long lastModified, String etag, String contentType) {
+    }
+
+    @Value("${static.MEMORY_CACHE_BYTES}")
+    long maxBytes;
+    @Value("${static.MEMORY_CACHE_FILE_BYTES}")
+    long maxFileBytes;
+    @Value("${static.MISSING_TTL_MS}")
+    long missingTtl;
+
+    Cache<String, Entry> cache;
+    // Tên không có trên media store (ảnh mặc định trong jar, link hỏng): không hỏi lại store mỗi request
+    Cache<String, Boolean> missing;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> entry.data().length)
+                .build();
+        missing = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(missingTtl))
+                .maximumSize(10_000)
+                .build();
+    }
+
+    public Entry get(String fileName) {
+        return cache.getIfPresent(fileName);
+    }
+
+    public boolean isCacheable(long size) {
+        return size <= maxFileBytes;
+    }
+
+    public void put(String fileName, Entry entry) {
+        cache.put(fileName, entry);
+    }
+
+    public boolean isMissing(String fileName) {
+        return missing.getIfPresent(fileName) != null;
+    }
+
+    public void markMissing(String fileName) {
+        missing.put(fileName, Boolean.TRUE);
+    }
+
+    // Gọi khi file được ghi/xoá trên store
+    public void evict(String fileName) {
+        cache.invalidate(fileName);
+        missing.invalidate(fileName);
+    }
+}
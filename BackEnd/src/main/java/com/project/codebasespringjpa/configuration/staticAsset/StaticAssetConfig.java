@@ -0,0 +1,23 @@
+package com.project.codebasespringjpa.configuration.staticAsset;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StaticAssetConfig {
+    @Bean
+    public StaticAssetFilter staticAssetFilter() {
+        return new StaticAssetFilter();
+    }
+
+    // Đặt trước springSecurityFilterChain để file tĩnh không đi qua security
+    @Bean
+    public FilterRegistrationBean<StaticAssetFilter> staticAssetFilterRegistration(StaticAssetFilter filter) {
+        FilterRegistrationBean<StaticAssetFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
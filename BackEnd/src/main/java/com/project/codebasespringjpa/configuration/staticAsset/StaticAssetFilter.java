@@ -0,0 +1,103 @@
+package com.project.codebasespringjpa.configuration.staticAsset;
+
+import com.project.codebasespringjpa.configuration.mediaPool.MediaExecutor;
+import com.project.codebasespringjpa.configuration.storage.MediaStore;
+import com.project.codebasespringjpa.service.imp.MediaService;
+import com.project.codebasespringjpa.service.interfaces.IMediaService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Pattern;
+
+// Đường tắt cho file tĩnh ở thư mục gốc (/abc.jpg, /abc.mp4): chạy trước security chain, không parse JWT
+public class StaticAssetFilter extends OncePerRequestFilter {
+    public static final Pattern ASSET = Pattern.compile("^/[^/]+\\.(avif|jpe?g|png|gif|webp|mp4|mp3|mkv)$",
+            Pattern.CASE_INSENSITIVE);
+    // Tên file sinh theo UUID hoặc SHA-256: nội dung không bao giờ đổi
+    static final Pattern IMMUTABLE = Pattern.compile(
+            "^([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}|[0-9a-f]{64})\\.[A-Za-z0-9]+$");
+    static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    static final String REVALIDATE_CACHE_CONTROL = "no-cache";
+
+    @Autowired
+    StaticAssetCache staticAssetCache;
+    @Autowired
+    IMediaService mediaService;
+    @Autowired
+    MediaStore mediaStore;
+    @Autowired
+    MediaExecutor mediaExecutor;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method))
+            return true;
+        return !ASSET.matcher(request.getRequestURI().substring(request.getContextPath().length())).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String fileName = request.getRequestURI().substring(request.getContextPath().length() + 1);
+        boolean immutable = IMMUTABLE.matcher(fileName).matches();
+        boolean ranged = request.getHeader(HttpHeaders.RANGE) != null;
+
+        // File bất biến đã có trong cache: trả luôn, không cần stat file
+        StaticAssetCache.Entry entry = immutable && !ranged ? staticAssetCache.get(fileName) : null;
+        if (entry == null) {
+            MediaStore.ObjectInfo info = staticAssetCache.isMissing(fileName) ? null : mediaStore.stat(fileName);
+            if (info == null) {
+                // Không có trên media store (vd: ảnh mặc định trong jar): để resource handler xử lý
+                staticAssetCache.markMissing(fileName);
+                filterChain.doFilter(request, response);
+                return;
+            }
+            response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL);
+            if (ranged || !staticAssetCache.isCacheable(info.size())) {
+                // File lớn / có Range: đi đường media (Range); sendfile chạy trên thread Tomcat, còn lại ghi trên pool media
+                if (mediaService.isSendfile(fileName, null, request))
+                    mediaService.serve(fileName, null, request, response);
+                else
+                    mediaExecutor.dispatch(request, response, () -> mediaService.serve(fileName, null, request, response));
+                return;
+            }
+            entry = staticAssetCache.get(fileName);
+            long lastModified = info.lastModified();
+            if (entry == null || entry.lastModified() != lastModified) {
+                byte[] data;
+                try (InputStream in = mediaStore.open(fileName)) {
+                    data = in.readAllBytes();
+                }
+                entry = new StaticAssetCache.Entry(data, lastModified,
+                        MediaService.etag(info.size(), lastModified),
+                        MediaTypeFactory.getMediaType(fileName).map(MediaType::toString)
+                                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+                staticAssetCache.put(fileName, entry);
+            }
+        } else {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        }
+
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, entry.lastModified());
+        if (new ServletWebRequest(request, response).checkNotModified(entry.etag(), entry.lastModified()))
+            return;
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        response.setContentLength(entry.data().length);
+        // Hết slot tải xuống thì BandwidthFilter đã trả 503
+        if (!"HEAD".equals(request.getMethod()) && !response.isCommitted())
+            response.getOutputStream().write(entry.data());
+    }
+}
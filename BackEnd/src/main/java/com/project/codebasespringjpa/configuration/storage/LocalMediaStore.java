@@ -0,0 +1,100 @@
+package com.project.codebasespringjpa.configuration.storage;
+
+import com.project.codebasespringjpa.util.ResponseChannel;
+import org.springframework.util.FileSystemUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+// Lưu trên thư mục local (volume backend_static); Tomcat gửi file bằng sendfile
+public class LocalMediaStore implements MediaStore {
+    protected final Path base;
+
+    public LocalMediaStore(Path base) throws IOException {
+        this.base = base.toAbsolutePath().normalize();
+        Files.createDirectories(this.base);
+    }
+
+    @Override
+    public ObjectInfo stat(String key) throws IOException {
+        Path path = this.resolve(key);
+        if (path == null)
+            return null;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.isRegularFile()
+                    ? new ObjectInfo(attributes.size(), attributes.lastModifiedTime().toMillis()) : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(this.require(key));
+    }
+
+    @Override
+    public void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel file = FileChannel.open(this.require(key), StandardOpenOption.READ)) {
+            ResponseChannel.transfer(file, position, count, target);
+        }
+    }
+
+    // Đổi tên nguyên tử để không ai đọc được file ghi dở (copy nếu file tạm nằm khác ổ đĩa)
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = this.require(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Path temp = target.resolveSibling(target.getFileName() + ".part");
+            Files.move(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Path path = this.resolve(key);
+        if (path != null)
+            Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void deletePrefix(String prefix) throws IOException {
+        Path path = this.resolve(prefix);
+        if (path != null)
+            FileSystemUtils.deleteRecursively(path);
+    }
+
+    @Override
+    public Path localPath(String key) {
+        Path path = this.resolve(key);
+        return path != null && Files.isRegularFile(path) ? path : null;
+    }
+
+    // null nếu key trỏ ra ngoài thư mục gốc
+    protected Path resolve(String key) {
+        if (!MediaStore.isValidKey(key))
+            return null;
+        Path path = base.resolve(key).normalize();
+        return path.startsWith(base) && !path.equals(base) ? path : null;
+    }
+
+    private Path require(String key) throws IOException {
+        Path path = this.resolve(key);
+        if (path == null)
+            throw new NoSuchFileException(key);
+        return path;
+    }
+}
@@ -0,0 +1,79 @@
+package com.project.codebasespringjpa.configuration.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Như LocalMediaStore nhưng đọc qua mmap: file hay dùng được map một lần, request chỉ copy từ page cache ra socket
+public class MappedMediaStore extends LocalMediaStore {
+    record Mapping(MappedByteBuffer buffer, long lastModified) {
+    }
+
+    final Cache<String, Mapping> mappings;
+
+    public MappedMediaStore(Path base, long maxMappings) throws IOException {
+        super(base);
+        this.mappings = Caffeine.newBuilder()
+                .maximumSize(maxMappings)
+                .build();
+    }
+
+    @Override
+    public void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        Mapping mapping = this.mappingOf(key);
+        if (mapping == null) {
+            super.transferTo(key, position, count, target);
+            return;
+        }
+        ByteBuffer slice = mapping.buffer().duplicate();
+        slice.position((int) position).limit((int) (position + count));
+        while (slice.hasRemaining())
+            target.write(slice);
+    }
+
+    // Không dùng sendfile để mọi lượt đọc đi qua vùng nhớ đã map
+    @Override
+    public Path sendfilePath(String key) {
+        return null;
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        mappings.invalidate(key);
+        super.put(key, source);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        mappings.invalidate(key);
+        super.delete(key);
+    }
+
+    @Override
+    public void deletePrefix(String prefix) throws IOException {
+        mappings.asMap().keySet().removeIf(key -> key.startsWith(prefix + "/"));
+        super.deletePrefix(prefix);
+    }
+
+    // File > 2 GB không map được một lần: quay về transferTo
+    private Mapping mappingOf(String key) throws IOException {
+        ObjectInfo info = this.stat(key);
+        if (info == null || info.size() == 0 || info.size() > Integer.MAX_VALUE)
+            return null;
+        Mapping mapping = mappings.getIfPresent(key);
+        if (mapping != null && mapping.lastModified() == info.lastModified()
+                && mapping.buffer().capacity() == info.size())
+            return mapping;
+        try (FileChannel file = FileChannel.open(this.resolve(key), StandardOpenOption.READ)) {
+            mapping = new Mapping(file.map(FileChannel.MapMode.READ_ONLY, 0, info.size()), info.lastModified());
+        }
+        mappings.put(key, mapping);
+        return mapping;
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.codebasespringjpa.configuration.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Nơi lưu file media: key là tên file ("abc.mp4") hoặc đường dẫn con ("hls/abc/index.m3u8")
+public interface MediaStore {
+    record ObjectInfo(long size, long lastModified) {
+    }
+
+    // null nếu không có object
+    ObjectInfo stat(String key) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    // Ghi đoạn [position, position + count) của object ra target
+    void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+
+    // source là file tạm đã ghi xong; sau khi put thì source bị chuyển đi hoặc bị xoá
+    void put(String key, Path source) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    // Xoá mọi object nằm dưới "thư mục" prefix
+    void deletePrefix(String prefix) throws IOException;
+
+    // File trên đĩa local để xử lý trực tiếp (đóng gói HLS, đọc ảnh); null nếu object nằm ở store từ xa
+    default Path localPath(String key) {
+        return null;
+    }
+
+    // File để Tomcat gửi bằng sendfile; null thì phải đi qua transferTo
+    default Path sendfilePath(String key) {
+        return this.localPath(key);
+    }
+
+    default void download(String key, Path target) throws IOException {
+        try (InputStream in = this.open(key)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    default boolean exists(String key) throws IOException {
+        return this.stat(key) != null;
+    }
+
+    // Chặn key trỏ ra ngoài store ("..", đường dẫn tuyệt đối, ký tự rỗng)
+    static boolean isValidKey(String key) {
+        if (key == null || key.isEmpty() || key.startsWith("/") || key.indexOf('\\') >= 0 || key.indexOf('\0') >= 0)
+            return false;
+        for (String part : key.split("/", -1)) {
+            if (part.isEmpty() || part.equals(".") || part.equals(".."))
+                return false;
+        }
+        return true;
+    }
+}
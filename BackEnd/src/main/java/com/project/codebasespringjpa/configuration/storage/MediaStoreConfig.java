@@ -0,0 +1,45 @@
+package com.project.codebasespringjpa.configuration.storage;
+
+import com.project.codebasespringjpa.util.UtilFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Slf4j
+@Configuration
+public class MediaStoreConfig {
+    @Value("${media.STORE}")
+    String store;
+    @Value("${media.LOCAL_DIR}")
+    String localDir;
+    @Value("${media.MMAP_MAX_FILES}")
+    long mmapMaxFiles;
+    @Value("${media.S3_ENDPOINT}")
+    String s3Endpoint;
+    @Value("${media.S3_REGION}")
+    String s3Region;
+    @Value("${media.S3_BUCKET}")
+    String s3Bucket;
+    @Value("${media.S3_ACCESS_KEY}")
+    String s3AccessKey;
+    @Value("${media.S3_SECRET_KEY}")
+    String s3SecretKey;
+    @Value("${media.S3_PART_SIZE}")
+    long s3PartSize;
+
+    // media.STORE = local | mmap | s3
+    @Bean
+    public MediaStore mediaStore() throws IOException {
+        String dir = localDir == null || localDir.isBlank() ? UtilFile.getResourceDirectory() : localDir;
+        log.info("Media store = {}", store);
+        return switch (store.trim().toLowerCase()) {
+            case "local" -> new LocalMediaStore(Paths.get(dir));
+            case "mmap" -> new MappedMediaStore(Paths.get(dir), mmapMaxFiles);
+            case "s3" -> new S3MediaStore(s3Endpoint, s3Region, s3AccessKey, s3SecretKey, s3Bucket, s3PartSize);
+            default -> throw new IllegalStateException("Unknown media.STORE: " + store);
+        };
+    }
+}
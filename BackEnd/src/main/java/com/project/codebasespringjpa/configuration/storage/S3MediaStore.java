@@ -0,0 +1,222 @@
+package com.project.codebasespringjpa.configuration.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+// Lưu trên object store tương thích S3 (AWS S3, MinIO...): mọi node dùng chung một bucket
+@Slf4j
+public class S3MediaStore implements MediaStore, AutoCloseable {
+    static final int DELETE_BATCH = 1000;
+
+    final S3Client client;
+    // Client async có multipart: file lớn được chia part và upload song song
+    final S3AsyncClient asyncClient;
+    final String bucket;
+    volatile boolean bucketReady;
+
+    // Không có access key: dùng chuỗi credential mặc định của AWS SDK (biến môi trường, IAM role...)
+    public S3MediaStore(String endpoint, String region, String accessKey, String secretKey, String bucket,
+                        long partSize) {
+        AwsCredentialsProvider credentials = accessKey == null || accessKey.isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .forcePathStyle(true);
+        S3AsyncClientBuilder asyncBuilder = S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .forcePathStyle(true)
+                .multipartEnabled(true)
+                .multipartConfiguration(MultipartConfiguration.builder()
+                        .thresholdInBytes(partSize)
+                        .minimumPartSizeInBytes(partSize)
+                        .build());
+        // Endpoint riêng cho MinIO / store tự host; để trống thì dùng AWS
+        if (endpoint != null && !endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+            asyncBuilder.endpointOverride(URI.create(endpoint));
+        }
+        this.client = builder.build();
+        this.asyncClient = asyncBuilder.build();
+        this.bucket = bucket;
+        // Store chưa sẵn sàng (MinIO đang khởi động) không làm hỏng lúc khởi động: thử lại ở lần ghi đầu tiên
+        try {
+            this.ensureBucket();
+        } catch (SdkException e) {
+            log.warn("S3 bucket {} chua san sang: {}", bucket, e.getMessage());
+        }
+    }
+
+    @Override
+    public ObjectInfo stat(String key) throws IOException {
+        if (!MediaStore.isValidKey(key))
+            return null;
+        try {
+            HeadObjectResponse response = client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .build());
+            return new ObjectInfo(response.contentLength(), response.lastModified().toEpochMilli());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404)
+                return null;
+            throw new IOException(e);
+        } catch (SdkException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return this.get(key, null);
+    }
+
+    // GET có Range: chỉ kéo về đúng đoạn cần gửi, stream thẳng ra client
+    @Override
+    public void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        if (count <= 0)
+            return;
+        try (InputStream in = this.get(key, "bytes=" + position + "-" + (position + count - 1))) {
+            in.transferTo(Channels.newOutputStream(target));
+        }
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        if (!MediaStore.isValidKey(key))
+            throw new NoSuchFileException(key);
+        try {
+            this.ensureBucket();
+        } catch (SdkException e) {
+            throw new IOException(e);
+        }
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(MediaTypeFactory.getMediaType(key).map(MediaType::toString)
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE))
+                .build();
+        try {
+            asyncClient.putObject(request, AsyncRequestBody.fromFile(source)).join();
+        } catch (CompletionException e) {
+            throw new IOException(e.getCause());
+        } catch (SdkException e) {
+            throw new IOException(e);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        if (!MediaStore.isValidKey(key))
+            return;
+        try {
+            client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .build());
+        } catch (SdkException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void deletePrefix(String prefix) throws IOException {
+        if (!MediaStore.isValidKey(prefix))
+            return;
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix + "/")
+                .build();
+        try {
+            List<ObjectIdentifier> batch = new ArrayList<>();
+            for (S3Object object : client.listObjectsV2Paginator(request).contents()) {
+                batch.add(ObjectIdentifier.builder().key(object.key()).build());
+                if (batch.size() == DELETE_BATCH) {
+                    this.deleteBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty())
+                this.deleteBatch(batch);
+        } catch (SdkException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        asyncClient.close();
+    }
+
+    private InputStream get(String key, String range) throws IOException {
+        if (!MediaStore.isValidKey(key))
+            throw new NoSuchFileException(key);
+        try {
+            return client.getObject(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .range(range)
+                    .build());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404)
+                throw new NoSuchFileException(key);
+            throw new IOException(e);
+        } catch (SdkException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void deleteBatch(List<ObjectIdentifier> batch) {
+        client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucket)
+                .delete(Delete.builder().objects(batch).quiet(true).build())
+                .build());
+    }
+
+    // MinIO chạy local thường chưa có bucket: tạo luôn
+    private void ensureBucket() {
+        if (bucketReady)
+            return;
+        try {
+            client.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
+        } catch (S3Exception e) {
+            if (e.statusCode() != 404)
+                throw e;
+            try {
+                client.createBucket(CreateBucketRequest.builder().bucket(bucket).build());
+            } catch (BucketAlreadyOwnedByYouException ignored) {
+                // Node khác vừa tạo
+            }
+        }
+        bucketReady = true;
+    }
+}
@@ -1,5 +1,6 @@
 package com.project.codebasespringjpa.controller;
 
+import com.project.codebasespringjpa.configuration.security.rateLimit.QuotaCost;
 import com.project.codebasespringjpa.dto.appointment.request.AppointmentRequest;
 import com.project.codebasespringjpa.dto.appointment.request.AppointmentSearch;
 import com.project.codebasespringjpa.dto.appointment.request.StatusRequest;
@@ -30,6 +31,7 @@ public class AppointmentController {
                 .build();
     }
 
+    @QuotaCost(value = 5, pageSize = 5)
     @GetMapping("/find-all")
     ApiResponse<Page<AppointmentResponse>> findAll(@RequestParam(name = "page", defaultValue = "1") Integer page,
             @RequestParam(name = "limit", defaultValue = "5") Integer limit,
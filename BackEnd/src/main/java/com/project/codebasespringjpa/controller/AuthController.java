@@ -2,12 +2,14 @@ package com.project.codebasespringjpa.controller;
 
 import com.project.codebasespringjpa.dto.authen.request.LoginRequest;
 import com.project.codebasespringjpa.dto.authen.request.PasswordRequest;
+import com.project.codebasespringjpa.dto.authen.request.RefreshTokenRequest;
 import com.project.codebasespringjpa.dto.authen.request.RegisterRequest;
 import com.project.codebasespringjpa.dto.authen.response.LoginResponse;
 import com.project.codebasespringjpa.dto.user.request.UserRequest;
 import com.project.codebasespringjpa.dto.user.response.UserResponse;
 import com.project.codebasespringjpa.exception.ApiResponse;
 import com.project.codebasespringjpa.service.interfaces.IAuthenService;
+import com.project.codebasespringjpa.service.interfaces.ITokenService;
 import com.project.codebasespringjpa.service.interfaces.IUserService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.AccessLevel;
@@ -24,6 +26,8 @@ public class AuthController {
     private IAuthenService authenService;
     @Autowired
     IUserService userService;
+    @Autowired
+    ITokenService tokenService;
 
     @PostMapping("/login")
     ApiResponse<LoginResponse> login(@RequestBody LoginRequest request) {
@@ -32,6 +36,27 @@ public class AuthController {
                 .build();
     }
 
+    @Operation(summary = "Cap lai access token bang refresh token")
+    @PostMapping("/refresh")
+    ApiResponse<LoginResponse> refresh(@RequestBody RefreshTokenRequest request) {
+        return ApiResponse.<LoginResponse>builder()
+                .data(tokenService.refresh(request))
+                .build();
+    }
+
+    @Operation(summary = "Dang xuat, thu hoi access token va refresh token")
+    @PostMapping("/logout")
+    ApiResponse<String> logout(@RequestHeader(name = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        tokenService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ApiResponse.<String>builder()
+                .data("Đăng xuất thành công")
+                .build();
+    }
+
     @Operation(summary = "Tim user theo username")
     @GetMapping("")
     ApiResponse<UserResponse> findByUsername(@RequestParam(name = "username") String username) {
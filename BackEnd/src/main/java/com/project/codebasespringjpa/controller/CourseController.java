@@ -1,10 +1,15 @@
 package com.project.codebasespringjpa.controller;
 
+import com.project.codebasespringjpa.configuration.mediaPool.MediaExecutor;
+import com.project.codebasespringjpa.configuration.security.rateLimit.QuotaCost;
 import com.project.codebasespringjpa.dto.course.request.CourseRequest;
 import com.project.codebasespringjpa.dto.course.request.CourseSearch;
 import com.project.codebasespringjpa.dto.course.response.CourseResponse;
 import com.project.codebasespringjpa.exception.ApiResponse;
+import com.project.codebasespringjpa.service.interfaces.ICourseBundleService;
 import com.project.codebasespringjpa.service.interfaces.ICourseService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +18,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @RestController
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -20,6 +26,10 @@ import org.springframework.web.bind.annotation.*;
 public class CourseController {
     @Autowired
     ICourseService courseService;
+    @Autowired
+    ICourseBundleService courseBundleService;
+    @Autowired
+    MediaExecutor mediaExecutor;
 
     @GetMapping("")
     ApiResponse<CourseResponse> findById(@RequestParam(name = "id") Long id) {
@@ -28,6 +38,7 @@ public class CourseController {
                 .build();
     }
 
+    @QuotaCost(value = 5, pageSize = 5)
     @GetMapping("/find-all")
     ApiResponse<Page<CourseResponse>> findAll(@RequestParam(name = "page", defaultValue = "1") Integer page,
             @RequestParam(name = "limit", defaultValue = "5") Integer limit,
@@ -45,6 +56,13 @@ public class CourseController {
                 .build();
     }
 
+    // ZIP cả khoá học (manifest + ảnh bìa + video), hỗ trợ Range để tải tiếp
+    @QuotaCost(20)
+    @RequestMapping(value = "/{id}/bundle", method = {RequestMethod.GET, RequestMethod.HEAD})
+    WebAsyncTask<Void> bundle(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) {
+        return mediaExecutor.stream(request, () -> courseBundleService.serve(id, request, response));
+    }
+
     @PostMapping("/create")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SPECIALIST')")
     ApiResponse<CourseResponse> create(@RequestBody CourseRequest request) {
@@ -0,0 +1,57 @@
+package com.project.codebasespringjpa.controller;
+
+import com.project.codebasespringjpa.configuration.mediaPool.MediaExecutor;
+import com.project.codebasespringjpa.configuration.security.rateLimit.QuotaCost;
+import com.project.codebasespringjpa.enums.ExportTypeEnum;
+import com.project.codebasespringjpa.exception.ApiResponse;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.service.interfaces.IAnalyticsExportService;
+import com.project.codebasespringjpa.service.interfaces.IExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import java.util.Map;
+
+@RestController
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RequestMapping("/export")
+public class ExportController {
+    @Autowired
+    IExportService exportService;
+    @Autowired
+    IAnalyticsExportService analyticsExportService;
+    @Autowired
+    MediaExecutor mediaExecutor;
+
+    // type = users | appointments | survey-results | registrations; chạy trên pool media vì có thể kéo dài
+    @QuotaCost(50)
+    @GetMapping("/{type}")
+    @PreAuthorize("hasRole('ADMIN')")
+    WebAsyncTask<Void> exportCsv(@PathVariable("type") String type, HttpServletResponse response) {
+        ExportTypeEnum exportType = ExportTypeEnum.fromSlug(type)
+                .orElseThrow(() -> new AppException(ErrorCode.EXPORT_TYPE_INVALID));
+        return mediaExecutor.submit(() -> {
+            exportService.exportCsv(exportType, response);
+            return null;
+        });
+    }
+
+    // Chạy ngay lượt xuất Parquet incremental (bình thường chạy theo export.PARQUET_CRON), trả về số dòng theo bảng
+    @QuotaCost(50)
+    @PostMapping("/parquet")
+    @PreAuthorize("hasRole('ADMIN')")
+    WebAsyncTask<ApiResponse<Map<String, Long>>> exportParquet() {
+        return mediaExecutor.submit(() -> ApiResponse.<Map<String, Long>>builder()
+                .data(analyticsExportService.exportParquet())
+                .build());
+    }
+}
@@ -1,22 +1,95 @@
 package com.project.codebasespringjpa.controller;
 
+import com.project.codebasespringjpa.configuration.mediaPool.MediaExecutor;
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
+import com.project.codebasespringjpa.configuration.security.rateLimit.QuotaCost;
+import com.project.codebasespringjpa.dto.file.request.UploadInitRequest;
+import com.project.codebasespringjpa.dto.file.response.UploadStatusResponse;
 import com.project.codebasespringjpa.exception.ApiResponse;
-import com.project.codebasespringjpa.util.UtilFile;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.multipart.MultipartFile;
+import com.project.codebasespringjpa.service.interfaces.IMediaStoreService;
+import com.project.codebasespringjpa.service.interfaces.IUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
 
 import java.io.IOException;
 
 @RestController
 @RequestMapping("/files")
 public class FileController {
+    @Autowired
+    IUploadService uploadService;
+    @Autowired
+    IMediaStoreService mediaStoreService;
+    @Autowired
+    MediaExecutor mediaExecutor;
+
+    // Multipart được parse lười (resolve-lazily): body chỉ được đọc trên pool media
+    @QuotaCost(10)
     @PostMapping("/upload")
-    public ApiResponse<String> createFile(MultipartFile file) throws IOException {
-        String fileName = UtilFile.saveFileToStaticFolder(file);
+    public WebAsyncTask<ApiResponse<String>> createFile(MultipartHttpServletRequest request) {
+        return mediaExecutor.submit(() -> {
+            String fileName = mediaStoreService.store(request.getFile("file"));
+            return ApiResponse.<String>builder()
+                    .data(fileName)
+                    .build();
+        });
+    }
+
+    // Trả về tên file nếu nội dung đã có trên server, client bỏ qua bước upload
+    @GetMapping("/exists")
+    public ApiResponse<String> exists(@RequestParam(name = "sha256") String sha256) {
+        return ApiResponse.<String>builder()
+                .data(mediaStoreService.findByHash(sha256))
+                .build();
+    }
+
+    // ---upload nhiều phần (resume được)
+    // Phiên upload gắn với user tạo ra nó: user khác không ghi/hoàn tất/huỷ được
+    @PostMapping("/uploads")
+    public ApiResponse<UploadStatusResponse> initiateUpload(@AuthenticationPrincipal UserPrincipal principal,
+            @RequestBody UploadInitRequest request) throws IOException {
+        return ApiResponse.<UploadStatusResponse>builder()
+                .data(uploadService.initiate(principal.getId(), request))
+                .build();
+    }
+
+    @PutMapping("/uploads/{id}")
+    public WebAsyncTask<ApiResponse<UploadStatusResponse>> uploadChunk(@AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable("id") String id, @RequestParam(name = "offset") Long offset, HttpServletRequest request) {
+        Long ownerId = principal.getId();
+        return mediaExecutor.submit(() -> ApiResponse.<UploadStatusResponse>builder()
+                .data(uploadService.writeChunk(ownerId, id, offset, request.getInputStream()))
+                .build());
+    }
+
+    @GetMapping("/uploads/{id}")
+    public ApiResponse<UploadStatusResponse> uploadStatus(@AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable("id") String id) {
+        return ApiResponse.<UploadStatusResponse>builder()
+                .data(uploadService.status(principal.getId(), id))
+                .build();
+    }
+
+    @QuotaCost(10)
+    @PostMapping("/uploads/{id}/complete")
+    public WebAsyncTask<ApiResponse<String>> completeUpload(@AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable("id") String id) {
+        Long ownerId = principal.getId();
+        return mediaExecutor.submit(() -> ApiResponse.<String>builder()
+                .data(uploadService.complete(ownerId, id))
+                .build());
+    }
+
+    @DeleteMapping("/uploads/{id}")
+    public ApiResponse<String> abortUpload(@AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable("id") String id) {
+        uploadService.abort(principal.getId(), id);
         return ApiResponse.<String>builder()
-                .data(fileName)
+                .data("Huỷ upload thành công")
                 .build();
     }
 }
@@ -0,0 +1,46 @@
+package com.project.codebasespringjpa.controller;
+
+import com.project.codebasespringjpa.configuration.mediaPool.MediaExecutor;
+import com.project.codebasespringjpa.service.interfaces.IMediaService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/media")
+public class MediaController {
+    @Autowired
+    IMediaService mediaService;
+    @Autowired
+    MediaExecutor mediaExecutor;
+
+    // sendfile chỉ chạy khi servlet trả về đồng bộ: file local phục vụ luôn trên thread Tomcat (trả null),
+    // còn lại ghi body trên pool media
+    @RequestMapping(value = "/{fileName:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public WebAsyncTask<Void> stream(@PathVariable("fileName") String fileName,
+                                     @RequestParam(name = "size", required = false) String size,
+                                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (mediaService.isSendfile(fileName, size, request)) {
+            mediaService.serve(fileName, size, request, response);
+            return null;
+        }
+        return mediaExecutor.stream(request, () -> mediaService.serve(fileName, size, request, response));
+    }
+
+    @RequestMapping(value = "/hls/{name}/{file:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public WebAsyncTask<Void> hls(@PathVariable("name") String name, @PathVariable("file") String file,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (mediaService.isHlsSendfile(name, file, request)) {
+            mediaService.serveHls(name, file, request, response);
+            return null;
+        }
+        return mediaExecutor.stream(request, () -> mediaService.serveHls(name, file, request, response));
+    }
+}
@@ -1,5 +1,6 @@
 package com.project.codebasespringjpa.controller;
 
+import com.project.codebasespringjpa.configuration.security.rateLimit.QuotaCost;
 import com.project.codebasespringjpa.dto.program.request.ProgramRegisterRequest;
 import com.project.codebasespringjpa.dto.program.request.ProgramRequest;
 import com.project.codebasespringjpa.dto.program.request.ProgramSearch;
@@ -34,6 +35,7 @@ public class ProgramController {
                 .build();
     }
 
+    @QuotaCost(value = 5, pageSize = 5)
     @GetMapping("/find-all")
     ApiResponse<Page<ProgramResponse>> findAll(@RequestParam(name = "page", defaultValue = "1") Integer page,
             @RequestParam(name = "limit", defaultValue = "5") Integer limit,
@@ -108,6 +110,7 @@ public class ProgramController {
                 .build();
     }
 
+    @QuotaCost(5)
     @GetMapping("/list-user-register")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SPECIALIST')")
     ApiResponse<List<UserResponse>> listUserRegister(@RequestParam(name = "idProgram") Long idProgram) {
@@ -1,18 +1,31 @@
 package com.project.codebasespringjpa.controller;
 
+import com.project.codebasespringjpa.configuration.dashboard.DashboardStream;
+import com.project.codebasespringjpa.configuration.security.rateLimit.QuotaCost;
 import com.project.codebasespringjpa.dto.statics.ProgramLocationResponse;
 import com.project.codebasespringjpa.dto.statics.StaticProgramResponse;
 import com.project.codebasespringjpa.dto.statics.DashboardResponse;
+import com.project.codebasespringjpa.dto.statics.SeriesPointResponse;
+import com.project.codebasespringjpa.dto.statics.SeriesSearch;
+import com.project.codebasespringjpa.enums.GranularityEnum;
+import com.project.codebasespringjpa.enums.SeriesMetricEnum;
 import com.project.codebasespringjpa.exception.ApiResponse;
+import com.project.codebasespringjpa.service.interfaces.IProgramStatService;
 import com.project.codebasespringjpa.service.interfaces.IStaticService;
+import com.project.codebasespringjpa.service.interfaces.ITimeSeriesService;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -21,7 +34,14 @@ import java.util.List;
 public class StaticController {
     @Autowired
     IStaticService staticService;
+    @Autowired
+    IProgramStatService programStatService;
+    @Autowired
+    ITimeSeriesService timeSeriesService;
+    @Autowired
+    DashboardStream dashboardStream;
 
+    @QuotaCost(10)
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SPECIALIST')")
     ApiResponse<DashboardResponse> getDashboard() {
@@ -30,6 +50,14 @@ public class StaticController {
                 .build();
     }
 
+    // SSE: event "snapshot" khi kết nối, sau đó "delta" {counter, delta} mỗi khi có thay đổi
+    @GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SPECIALIST')")
+    SseEmitter streamDashboard() {
+        return dashboardStream.subscribe();
+    }
+
+    @QuotaCost(20)
     @GetMapping("/static-year")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SPECIALIST')")
     ApiResponse<List<StaticProgramResponse>> getProgramByYear(@RequestParam(name = "year") Integer year) {
@@ -38,6 +66,7 @@ public class StaticController {
                 .build();
     }
 
+    @QuotaCost(20)
     @GetMapping("/static-location-year")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SPECIALIST')")
     ApiResponse<List<ProgramLocationResponse>> getLocationByYear(@RequestParam(name = "year") Integer year) {
@@ -45,4 +74,41 @@ public class StaticController {
                 .data(staticService.getCountLocation(year))
                 .build();
     }
+
+    // Chuỗi thời gian theo ngày/tuần: metric = APPOINTMENT | SURVEY | REGISTRATION
+    @QuotaCost(20)
+    @GetMapping("/series")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SPECIALIST')")
+    ApiResponse<List<SeriesPointResponse>> getSeries(@RequestParam(name = "metric") SeriesMetricEnum metric,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "granularity", defaultValue = "DAY") GranularityEnum granularity,
+            @RequestParam(name = "group", required = false) String group,
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "specialistId", required = false) Long specialistId,
+            @RequestParam(name = "surveyId", required = false) Long surveyId) {
+        SeriesSearch search = SeriesSearch.builder()
+                .metric(metric)
+                .granularity(granularity)
+                .from(from)
+                .to(to)
+                .group(group)
+                .status(status)
+                .specialistId(specialistId)
+                .surveyId(surveyId)
+                .build();
+        return ApiResponse.<List<SeriesPointResponse>>builder()
+                .data(timeSeriesService.getSeries(search))
+                .build();
+    }
+
+    // Tính lại bảng tổng hợp từ dữ liệu gốc, trả về số ô bị lệch trước khi tính lại
+    @QuotaCost(50)
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    ApiResponse<Integer> rebuild() {
+        return ApiResponse.<Integer>builder()
+                .data(programStatService.rebuild())
+                .build();
+    }
 }
@@ -1,5 +1,6 @@
 package com.project.codebasespringjpa.controller;
 
+import com.project.codebasespringjpa.configuration.security.rateLimit.QuotaCost;
 import com.project.codebasespringjpa.dto.survey.request.SurveyRequest;
 import com.project.codebasespringjpa.dto.survey.request.SurveyResultRequest;
 import com.project.codebasespringjpa.dto.survey.request.SurveySearch;
@@ -31,6 +32,7 @@ public class SurveyController {
                 .build();
     }
 
+    @QuotaCost(value = 5, pageSize = 5)
     @GetMapping("/find-all")
     ApiResponse<Page<SurveyResponse>> findAll(@RequestParam(name = "page", defaultValue = "1") Integer page,
             @RequestParam(name = "limit", defaultValue = "5") Integer limit,
@@ -80,6 +82,7 @@ public class SurveyController {
                 .build();
     }
 
+    @QuotaCost(5)
     @GetMapping("/list-mark")
     ApiResponse<List<SurveyResultResponse>> findAll(@RequestParam(name = "username") String username,
             @RequestParam(name = "idSurvey", required = false) Long idSurvey) {
@@ -1,5 +1,6 @@
 package com.project.codebasespringjpa.controller;
 
+import com.project.codebasespringjpa.configuration.security.rateLimit.QuotaCost;
 import com.project.codebasespringjpa.dto.user.request.UserRequest;
 import com.project.codebasespringjpa.dto.user.request.UserSearch;
 import com.project.codebasespringjpa.dto.user.response.UserResponse;
@@ -29,6 +30,7 @@ public class UserController {
                 .build();
     }
 
+    @QuotaCost(value = 10, pageSize = 5)
     @GetMapping("/find-all")
     @PreAuthorize("hasRole('ADMIN')")
     ApiResponse<Page<UserResponse>> findAll(@RequestParam(name = "page", defaultValue = "1") Integer page,
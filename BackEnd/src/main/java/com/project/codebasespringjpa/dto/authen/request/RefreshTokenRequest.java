@@ -0,0 +1,13 @@
+package com.project.codebasespringjpa.dto.authen.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RefreshTokenRequest {
+    String refreshToken;
+}
@@ -12,6 +12,8 @@ public class CourseDetailResponse {
     Long id;
     String name;
     String video;
+    // Playlist HLS (nếu video đã được đóng gói)
+    String playlist;
     Double duration;
     String objective;
     String content;
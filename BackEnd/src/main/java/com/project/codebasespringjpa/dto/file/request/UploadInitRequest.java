@@ -0,0 +1,15 @@
+package com.project.codebasespringjpa.dto.file.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UploadInitRequest {
+    String fileName;
+    Long size;
+    String sha256;
+}
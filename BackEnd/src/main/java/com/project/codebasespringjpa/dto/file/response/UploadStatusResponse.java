@@ -0,0 +1,19 @@
+package com.project.codebasespringjpa.dto.file.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UploadStatusResponse {
+    String uploadId;
+    Long size;
+    Long chunkSize;
+    Long receivedBytes;
+    // Các đoạn đã nhận [start, end) theo thứ tự tăng dần
+    List<long[]> received;
+}
@@ -0,0 +1,11 @@
+package com.project.codebasespringjpa.dto.statics;
+
+import java.time.LocalDate;
+
+// Projection: số lịch hẹn theo (ngày, trạng thái, chuyên gia)
+public interface AppointmentDayStat {
+    LocalDate getDay();
+    String getStatus();
+    Long getSpecialistId();
+    Long getCnt();
+}
@@ -13,4 +13,8 @@ public class DashboardResponse {
     Long cntSpecialist;
     Long cntCourse;
     Long cntProgram;
+    Long cntAppointment;
+    Long cntSurvey;
+    // Lượt đăng ký chương trình (tbl_user_program)
+    Long cntRegistration;
 }
@@ -0,0 +1,7 @@
+package com.project.codebasespringjpa.dto.statics;
+
+// Projection: số chương trình theo địa điểm
+public interface ProgramLocationStat {
+    String getLocation();
+    Long getCnt();
+}
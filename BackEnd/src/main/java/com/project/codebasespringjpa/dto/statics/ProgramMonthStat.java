@@ -0,0 +1,8 @@
+package com.project.codebasespringjpa.dto.statics;
+
+// Projection: số chương trình + lượt đăng ký theo tháng
+public interface ProgramMonthStat {
+    Integer getMonthValue();
+    Long getCntProgram();
+    Long getCntRegister();
+}
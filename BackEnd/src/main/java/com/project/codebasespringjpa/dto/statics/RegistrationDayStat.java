@@ -0,0 +1,9 @@
+package com.project.codebasespringjpa.dto.statics;
+
+import java.time.LocalDate;
+
+// Projection: số lượt đăng ký chương trình theo ngày diễn ra chương trình
+public interface RegistrationDayStat {
+    LocalDate getDay();
+    Long getCnt();
+}
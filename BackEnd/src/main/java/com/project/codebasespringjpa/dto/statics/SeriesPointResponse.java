@@ -0,0 +1,18 @@
+package com.project.codebasespringjpa.dto.statics;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SeriesPointResponse {
+    // Ngày đầu của bucket (ngày hoặc thứ Hai của tuần)
+    LocalDate bucket;
+    // Giá trị nhóm (trạng thái, id chuyên gia, id khảo sát), null khi không nhóm
+    String group;
+    Long count;
+}
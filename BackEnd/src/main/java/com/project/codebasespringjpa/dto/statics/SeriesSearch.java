@@ -0,0 +1,25 @@
+package com.project.codebasespringjpa.dto.statics;
+
+import com.project.codebasespringjpa.enums.GranularityEnum;
+import com.project.codebasespringjpa.enums.SeriesMetricEnum;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SeriesSearch {
+    SeriesMetricEnum metric;
+    GranularityEnum granularity;
+    // Khoảng [from, to], tính cả hai đầu
+    LocalDate from;
+    LocalDate to;
+    // status | specialist | survey, null = không nhóm
+    String group;
+    String status;
+    Long specialistId;
+    Long surveyId;
+}
@@ -0,0 +1,10 @@
+package com.project.codebasespringjpa.dto.statics;
+
+import java.time.LocalDate;
+
+// Projection: số lượt nộp theo (ngày, khảo sát)
+public interface SurveyDayStat {
+    LocalDate getDay();
+    Long getSurveyId();
+    Long getCnt();
+}
@@ -14,7 +14,9 @@ import java.time.LocalTime;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tbl_appoiment")
+@Table(name = "tbl_appoiment", indexes = {
+        @Index(name = "idx_appointment_date", columnList = "date, is_delete, status, specialist_id"),
+        @Index(name = "idx_appointment_update", columnList = "update_date")})
 public class AppointmentEntity extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
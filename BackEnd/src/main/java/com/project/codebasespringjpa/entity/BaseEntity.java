@@ -1,6 +1,7 @@
 package com.project.codebasespringjpa.entity;
 
 import com.project.codebasespringjpa.configuration.security.UserDetailsImpl;
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
 import jakarta.persistence.Column;
 import jakarta.persistence.MappedSuperclass;
 import jakarta.persistence.PrePersist;
@@ -37,7 +38,10 @@ public class BaseEntity {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            if (userDetails instanceof UserDetailsImpl) {
+            if (userDetails instanceof UserPrincipal) {
+                this.createBy = ((UserPrincipal) userDetails).getEmail();
+                this.updateBy = ((UserPrincipal) userDetails).getEmail();
+            } else if (userDetails instanceof UserDetailsImpl) {
                 this.createBy = ((UserDetailsImpl) userDetails).getUser().getEmail();
                 this.updateBy = ((UserDetailsImpl) userDetails).getUser().getEmail();
             }
@@ -54,7 +58,9 @@ public class BaseEntity {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            if (userDetails instanceof UserDetailsImpl) {
+            if (userDetails instanceof UserPrincipal) {
+                this.updateBy = ((UserPrincipal) userDetails).getEmail();
+            } else if (userDetails instanceof UserDetailsImpl) {
                 this.updateBy = ((UserDetailsImpl) userDetails).getUser().getEmail();
             }
         } catch (Exception e) {
@@ -0,0 +1,45 @@
+package com.project.codebasespringjpa.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_media_blob", indexes = @Index(name = "idx_media_blob_ref", columnList = "ref_count, last_used"))
+public class MediaBlobEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    // SHA-256 (hex) của nội dung file
+    @Column(name = "hash", unique = true, nullable = false, length = 64)
+    String hash;
+
+    @Column(name = "file_name", unique = true, nullable = false)
+    String fileName;
+
+    @Column(name = "size", nullable = false)
+    Long size;
+
+    // Số lượt tham chiếu từ avatar/image/video, được đếm lại bởi reclaimer
+    @Column(name = "ref_count", nullable = false)
+    Integer refCount;
+
+    @Column(name = "last_used", nullable = false)
+    LocalDateTime lastUsed;
+
+    // Thời lượng video (giây) đọc lúc lưu file, để không phải đọc lại file từ store
+    @Column(name = "duration")
+    Double duration;
+
+    // CRC32 của file đã lưu (bản faststart nếu là MP4), dùng cho ZIP tải cả khoá học
+    @Column(name = "crc32")
+    Long crc32;
+}
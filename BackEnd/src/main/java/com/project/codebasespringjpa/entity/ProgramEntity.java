@@ -14,7 +14,8 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tbl_program")
+// (is_delete, date, address): lọc theo khoảng ngày và đếm theo địa điểm chỉ cần đọc index
+@Table(name = "tbl_program", indexes = @Index(name = "idx_program_date", columnList = "is_delete, date, address"))
 public class ProgramEntity extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
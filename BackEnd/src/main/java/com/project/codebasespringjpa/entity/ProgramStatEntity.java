@@ -0,0 +1,37 @@
+package com.project.codebasespringjpa.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Bảng tổng hợp thống kê chương trình theo (năm, tháng, địa điểm), cập nhật cùng transaction với ProgramService
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_program_stat", uniqueConstraints = @UniqueConstraint(name = "uk_program_stat_key",
+        columnNames = {"stat_year", "stat_month", "location"}))
+public class ProgramStatEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "stat_year", nullable = false)
+    Integer statYear;
+
+    @Column(name = "stat_month", nullable = false)
+    Integer statMonth;
+
+    // Chương trình không có địa chỉ lưu "" để unique key vẫn áp dụng
+    @Column(name = "location", nullable = false)
+    String location;
+
+    @Column(name = "cnt_program", nullable = false)
+    Long cntProgram;
+
+    @Column(name = "cnt_register", nullable = false)
+    Long cntRegister;
+}
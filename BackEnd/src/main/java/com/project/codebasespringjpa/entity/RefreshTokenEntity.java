@@ -0,0 +1,30 @@
+package com.project.codebasespringjpa.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_refresh_token")
+public class RefreshTokenEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    // Chỉ lưu SHA-256 của refresh token
+    @Column(name = "token_hash", unique = true, nullable = false, length = 64)
+    String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    Long userId;
+
+    @Column(name = "expiry_date", nullable = false)
+    LocalDateTime expiryDate;
+}
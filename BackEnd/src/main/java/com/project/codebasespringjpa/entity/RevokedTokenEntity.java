@@ -0,0 +1,32 @@
+package com.project.codebasespringjpa.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_revoked_token", indexes = {
+        @Index(name = "idx_revoked_token_key", columnList = "token_key"),
+        @Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at")})
+public class RevokedTokenEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    // jti của access token, hoặc "user:<id>" khi thu hồi toàn bộ token của user
+    @Column(name = "token_key", nullable = false)
+    String tokenKey;
+
+    @Column(name = "revoked_at", nullable = false)
+    LocalDateTime revokedAt;
+
+    @Column(name = "expiry_date", nullable = false)
+    LocalDateTime expiryDate;
+}
@@ -9,7 +9,9 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tbl_survey_result")
+@Table(name = "tbl_survey_result", indexes = {
+        @Index(name = "idx_survey_result_create", columnList = "create_date, survey_id"),
+        @Index(name = "idx_survey_result_update", columnList = "update_date")})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class SurveyResultEntity extends BaseEntity {
     @Id
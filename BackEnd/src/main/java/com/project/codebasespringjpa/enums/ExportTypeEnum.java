@@ -0,0 +1,25 @@
+package com.project.codebasespringjpa.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum ExportTypeEnum {
+    USER("users"),
+    APPOINTMENT("appointments"),
+    SURVEY_RESULT("survey-results"),
+    REGISTRATION("registrations");
+
+    final String slug;
+
+    ExportTypeEnum(String slug) {
+        this.slug = slug;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public static Optional<ExportTypeEnum> fromSlug(String slug) {
+        return Arrays.stream(values()).filter(it -> it.slug.equals(slug)).findFirst();
+    }
+}
@@ -0,0 +1,7 @@
+package com.project.codebasespringjpa.enums;
+
+public enum GranularityEnum {
+    DAY,
+    // Tuần ISO, bắt đầu từ thứ Hai
+    WEEK
+}
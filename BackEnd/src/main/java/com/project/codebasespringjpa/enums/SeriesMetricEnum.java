@@ -0,0 +1,11 @@
+package com.project.codebasespringjpa.enums;
+
+public enum SeriesMetricEnum {
+    // Lịch hẹn theo ngày hẹn (date)
+    APPOINTMENT,
+    // Lượt nộp khảo sát theo create_date
+    SURVEY,
+    // Lượt đăng ký chương trình (tbl_user_program) theo ngày diễn ra chương trình:
+    // bảng nối không lưu thời điểm đăng ký nên không có chuỗi theo ngày bấm đăng ký
+    REGISTRATION
+}
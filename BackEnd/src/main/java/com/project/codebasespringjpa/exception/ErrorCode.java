@@ -11,10 +11,14 @@ public enum ErrorCode {
     UNCATEGORIZED_EXCEPTION(-1, "Lỗi không xác định"),
     UNAUTHEN(401, "Chưa đăng nhập"),
     FORBIDDEN(403, "Không có quyền truy cập"),
+    SERVER_BUSY(503, "Hệ thống đang bận, vui lòng thử lại sau"),
+    TOO_MANY_REQUESTS(429, "Quá nhiều yêu cầu, vui lòng thử lại sau"),
+    PAGE_SIZE_INVALID(400, "Số bản ghi mỗi trang không hợp lệ"),
 
     // ---user exception
     USER_NOT_FOUND(404, "Không tìm thấy user"),
     PASSWORD_NOT_MATCH(400, "Password không đúng"),
+    REFRESH_TOKEN_INVALID(401, "Phiên đăng nhập đã hết hạn"),
 
     ROLE_NOT_FOUND(404, "Không tồn tại role này"),
 
@@ -32,7 +36,16 @@ public enum ErrorCode {
 
     ANSWER_NOT_FOUND(404, "Không tìm thấy câu hỏi này"),
 
-    CAPACITY_FULL(404, "Chương trình đã được đặt đầy");
+    CAPACITY_FULL(404, "Chương trình đã được đặt đầy"),
+
+    STATS_RANGE_INVALID(400, "Khoảng thời gian thống kê không hợp lệ"),
+    EXPORT_TYPE_INVALID(404, "Không hỗ trợ xuất dữ liệu này"),
+
+    UPLOAD_NOT_FOUND(404, "Phiên upload không tồn tại hoặc đã hết hạn"),
+    UPLOAD_RANGE_INVALID(400, "Đoạn dữ liệu upload không hợp lệ"),
+    UPLOAD_INCOMPLETE(400, "File upload chưa nhận đủ dữ liệu"),
+    UPLOAD_CHECKSUM_MISMATCH(400, "Checksum của file upload không khớp"),
+    UPLOAD_TOO_MANY_SESSIONS(429, "Đang có quá nhiều phiên upload chưa hoàn tất");
 
     private int code;
     private String message;
@@ -1,8 +1,12 @@
 package com.project.codebasespringjpa.exception;
 
+import com.project.codebasespringjpa.configuration.mediaPool.MediaExecutor;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -67,6 +71,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.OK).body(apiResponse);
     }
 
+    // ----pool media đầy (upload/tải file chạy async); endpoint trả file thì 503 không body cho trình phát
+    @ExceptionHandler(value = TaskRejectedException.class)
+    ResponseEntity<ApiResponse> handleException(TaskRejectedException e, HttpServletRequest request) {
+        if (Boolean.TRUE.equals(request.getAttribute(MediaExecutor.STREAM)))
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        return ResponseEntity.status(HttpStatus.OK).body(
+                ApiResponse.builder()
+                        .code(ErrorCode.SERVER_BUSY.getCode())
+                        .message(ErrorCode.SERVER_BUSY.getMessage())
+                        .build());
+    }
+
     // ---403 access dined
     @ExceptionHandler(value = AccessDeniedException.class)
     ResponseEntity<ApiResponse> handleException(AccessDeniedException e) {
@@ -3,15 +3,19 @@ package com.project.codebasespringjpa.mapper;
 import com.project.codebasespringjpa.dto.course.request.CourseDetailRequest;
 import com.project.codebasespringjpa.dto.course.response.CourseDetailResponse;
 import com.project.codebasespringjpa.entity.CourseDetailEntity;
+import com.project.codebasespringjpa.service.interfaces.IHlsService;
 import com.project.codebasespringjpa.util.UtilConst;
 import com.project.codebasespringjpa.util.UtilFile;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class CourseDetailMapper {
+    @Autowired
+    IHlsService hlsService;
 
     public CourseDetailEntity toEntity(CourseDetailRequest request) {
         return CourseDetailEntity.builder()
@@ -31,6 +35,7 @@ public class CourseDetailMapper {
                 .id(entity.getId())
                 .name(entity.getName())
                 .video(videoTmp)
+                .playlist(hlsService.playlistOf(entity.getVideo()))
                 .duration(entity.getDuration())
                 .objective(entity.getObjective())
                 .content(entity.getContent())
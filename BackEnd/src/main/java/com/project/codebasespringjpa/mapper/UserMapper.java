@@ -2,6 +2,7 @@ package com.project.codebasespringjpa.mapper;
 
 import com.project.codebasespringjpa.dto.user.request.UserRequest;
 import com.project.codebasespringjpa.dto.user.response.UserResponse;
+import com.project.codebasespringjpa.configuration.security.PasswordHasher;
 import com.project.codebasespringjpa.entity.MajorEntity;
 import com.project.codebasespringjpa.entity.RoleEntity;
 import com.project.codebasespringjpa.entity.UserEntity;
@@ -12,7 +13,6 @@ import com.project.codebasespringjpa.repository.IRoleRepository;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.List;
@@ -21,7 +21,7 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class UserMapper {
     @Autowired
-    PasswordEncoder passwordEncoder;
+    PasswordHasher passwordHasher;
 
     @Autowired
     IMajorRepository majorRepository;
@@ -43,7 +43,7 @@ public class UserMapper {
         return UserEntity.builder()
                 .username(request.getUsername())
                 .fullname(request.getFullname())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHasher.encode(request.getPassword()))
                 .email(request.getEmail())
                 .avatar(request.getAvatar())
                 .position(request.getPosition())
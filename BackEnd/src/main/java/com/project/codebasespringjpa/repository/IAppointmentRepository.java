@@ -1,5 +1,6 @@
 package com.project.codebasespringjpa.repository;
 
+import com.project.codebasespringjpa.dto.statics.AppointmentDayStat;
 import com.project.codebasespringjpa.entity.AppointmentEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.List;
 
 @Repository
 public interface IAppointmentRepository extends JpaRepository<AppointmentEntity, Long> {
@@ -31,4 +33,16 @@ public interface IAppointmentRepository extends JpaRepository<AppointmentEntity,
             @Param("status") String status,
             @Param("date") LocalDate date,
             Pageable pageable);
+
+    // Khoảng [from, to) trên cột date: quét idx_appointment_date, không cần đọc bảng
+    @Query("""
+            select ap.date as day, ap.status as status, ap.specialistId as specialistId, count (ap) as cnt
+            from AppointmentEntity ap
+            where ap.isDelete = false and ap.date >= :from and ap.date < :to
+            group by ap.date, ap.status, ap.specialistId
+            """)
+    List<AppointmentDayStat> countDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select count (ap) from AppointmentEntity ap where ap.isDelete = false")
+    Long countAppointmentActive();
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package com.project.codebasespringjpa.repository;
 import com.project.codebasespringjpa.entity.CourseDetailEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 
 @Repository
-public interface ICourseDetailRepository extends JpaRepository<CourseDetailEntity, Long> {}
\ No newline at end of file
+public interface ICourseDetailRepository extends JpaRepository<CourseDetailEntity, Long> {
+    List<CourseDetailEntity> findByCourse_IdAndIsDeleteFalseOrderByIdAsc(Long courseId);
+}
\ No newline at end of file
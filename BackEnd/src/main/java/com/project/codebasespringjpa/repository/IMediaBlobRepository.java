@@ -0,0 +1,57 @@
+package com.project.codebasespringjpa.repository;
+
+import com.project.codebasespringjpa.entity.MediaBlobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface IMediaBlobRepository extends JpaRepository<MediaBlobEntity, Long> {
+    Optional<MediaBlobEntity> findByHash(String hash);
+
+    Optional<MediaBlobEntity> findByFileName(String fileName);
+
+    @Modifying
+    @Transactional
+    @Query("update MediaBlobEntity b set b.lastUsed = :now where b.id = :id")
+    int touch(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Đếm lại tham chiếu từ các cột lưu tên file trong một câu lệnh
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update tbl_media_blob b
+            left join (
+                select r.ref, count(*) as cnt
+                from (
+                    select u.avatar as ref from tbl_user u
+                    union all select c.image from tbl_course c
+                    union all select p.image from tbl_program p
+                    union all select cd.video from tbl_course_detail cd
+                ) r
+                where r.ref is not null
+                group by r.ref
+            ) refs on refs.ref = b.file_name
+            set b.ref_count = coalesce(refs.cnt, 0)
+            """, nativeQuery = true)
+    int recountReferences();
+
+    @Modifying
+    @Transactional
+    @Query("update MediaBlobEntity b set b.crc32 = :crc32 where b.fileName = :fileName")
+    int updateCrc32(@Param("fileName") String fileName, @Param("crc32") Long crc32);
+
+    @Query("select b from MediaBlobEntity b where b.refCount = 0 and b.lastUsed < :before")
+    List<MediaBlobEntity> findUnreferenced(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Transactional
+    @Query("delete from MediaBlobEntity b where b.id = :id and b.refCount = 0 and b.lastUsed < :before")
+    int deleteIfUnreferenced(@Param("id") Long id, @Param("before") LocalDateTime before);
+}
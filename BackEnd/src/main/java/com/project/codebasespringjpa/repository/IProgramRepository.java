@@ -1,5 +1,6 @@
 package com.project.codebasespringjpa.repository;
 
+import com.project.codebasespringjpa.dto.statics.RegistrationDayStat;
 import com.project.codebasespringjpa.entity.ProgramEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,16 +28,15 @@ public interface IProgramRepository extends JpaRepository<ProgramEntity, Long> {
     @Query("select count (pq) from ProgramEntity pq where pq.isDelete = false ")
     Long countProgramActive();
 
-    @Query("""
-            select pq from ProgramEntity pq where pq.isDelete = false
-            and year (pq.date) = :year and month (pq.date) = :month
-            """)
-    List<ProgramEntity> findByMonthAndYear(@Param("month") Integer month,
-            @Param("year") Integer year);
+    @Query("select count (us) from ProgramEntity pq join pq.users us where pq.isDelete = false and us.isDelete = false")
+    Long countRegisterActive();
 
+    // Lượt đăng ký (tbl_user_program) theo ngày diễn ra chương trình: khoảng [from, to) trên idx_program_date
     @Query("""
-            select pq from ProgramEntity pq where pq.isDelete = false
-            and year (pq.date) = :year
+            select pq.date as day, count (us) as cnt
+            from ProgramEntity pq join pq.users us
+            where pq.isDelete = false and us.isDelete = false and pq.date >= :from and pq.date < :to
+            group by pq.date
             """)
-    List<ProgramEntity> findByYear(@Param("year") Integer year);
+    List<RegistrationDayStat> countRegisteredDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.project.codebasespringjpa.repository;
+
+import com.project.codebasespringjpa.dto.statics.ProgramLocationStat;
+import com.project.codebasespringjpa.dto.statics.ProgramMonthStat;
+import com.project.codebasespringjpa.entity.ProgramStatEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface IProgramStatRepository extends JpaRepository<ProgramStatEntity, Long> {
+    // Cộng dồn nguyên tử: hai transaction cùng tăng một ô không ghi đè lên nhau
+    @Modifying
+    @Query(value = """
+            insert into tbl_program_stat (stat_year, stat_month, location, cnt_program, cnt_register)
+            values (:year, :month, :location, :programs, :registers)
+            on duplicate key update cnt_program = cnt_program + values(cnt_program),
+                cnt_register = cnt_register + values(cnt_register)
+            """, nativeQuery = true)
+    int increment(@Param("year") Integer year, @Param("month") Integer month, @Param("location") String location,
+            @Param("programs") Long programs, @Param("registers") Long registers);
+
+    @Query("""
+            select ps.statMonth as monthValue, sum (ps.cntProgram) as cntProgram, sum (ps.cntRegister) as cntRegister
+            from ProgramStatEntity ps where ps.statYear = :year
+            group by ps.statMonth
+            """)
+    List<ProgramMonthStat> countByMonth(@Param("year") Integer year);
+
+    @Query("""
+            select ps.location as location, sum (ps.cntProgram) as cnt
+            from ProgramStatEntity ps where ps.statYear = :year and ps.location <> ''
+            group by ps.location having sum (ps.cntProgram) > 0
+            """)
+    List<ProgramLocationStat> countByLocation(@Param("year") Integer year);
+
+    @Modifying
+    @Query(value = "delete from tbl_program_stat", nativeQuery = true)
+    int deleteAllRows();
+
+    // Tính lại toàn bộ từ dữ liệu gốc, dùng idx_program_date và index khoá ngoại của tbl_user_program
+    @Modifying
+    @Query(value = """
+            insert into tbl_program_stat (stat_year, stat_month, location, cnt_program, cnt_register)
+            select year(p.date), month(p.date), coalesce(p.address, ''), count(distinct p.id), count(up.user_id)
+            from tbl_program p
+            left join tbl_user_program up on up.program_id = p.id
+            where p.is_delete = false and p.date is not null
+            group by year(p.date), month(p.date), coalesce(p.address, '')
+            """, nativeQuery = true)
+    int rebuildAll();
+}
@@ -0,0 +1,31 @@
+package com.project.codebasespringjpa.repository;
+
+import com.project.codebasespringjpa.entity.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IRefreshTokenRepository extends JpaRepository<RefreshTokenEntity, Long> {
+    Optional<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshTokenEntity rt where rt.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshTokenEntity rt where rt.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshTokenEntity rt where rt.expiryDate < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
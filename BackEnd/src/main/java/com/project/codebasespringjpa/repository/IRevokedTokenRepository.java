@@ -0,0 +1,30 @@
+package com.project.codebasespringjpa.repository;
+
+import com.project.codebasespringjpa.entity.RevokedTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IRevokedTokenRepository extends JpaRepository<RevokedTokenEntity, Long> {
+    boolean existsByTokenKey(String tokenKey);
+
+    @Query("select max(rt.revokedAt) from RevokedTokenEntity rt where rt.tokenKey = :tokenKey")
+    LocalDateTime findLastRevokedAt(@Param("tokenKey") String tokenKey);
+
+    @Query("select rt.tokenKey from RevokedTokenEntity rt where rt.expiryDate >= :now")
+    List<String> findActiveKeys(@Param("now") LocalDateTime now);
+
+    @Query("select rt.tokenKey from RevokedTokenEntity rt where rt.revokedAt >= :since")
+    List<String> findKeysRevokedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedTokenEntity rt where rt.expiryDate < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,10 +1,12 @@
 package com.project.codebasespringjpa.repository;
 
+import com.project.codebasespringjpa.dto.statics.SurveyDayStat;
 import com.project.codebasespringjpa.entity.SurveyResultEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -15,4 +17,15 @@ public interface ISurveyResultRepository extends JpaRepository<SurveyResultEntit
             """)
     List<SurveyResultEntity> findAll(@Param("username") String username,
             @Param("surveyId") Long surveyId);
+
+    @Query("""
+            select cast (sr.createDate as LocalDate) as day, sr.survey.id as surveyId, count (sr) as cnt
+            from SurveyResultEntity sr
+            where sr.createDate >= :from and sr.createDate < :to
+            group by cast (sr.createDate as LocalDate), sr.survey.id
+            """)
+    List<SurveyDayStat> countDaily(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select count (sr) from SurveyResultEntity sr")
+    Long countResult();
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.project.codebasespringjpa.repository;
 
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
 import com.project.codebasespringjpa.entity.UserEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +15,12 @@ import java.util.List;
 public interface IUserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByUsername(String username);
 
+    @Query("""
+            select new com.project.codebasespringjpa.configuration.security.UserPrincipal(us.id, us.username, us.role.name, us.email)
+            from UserEntity us where us.id = :id and us.isDelete = false
+            """)
+    Optional<UserPrincipal> findPrincipalById(@Param("id") Long id);
+
     @Query("""
             select us from UserEntity us where us.isDelete = false
                 and (:keyword is null or us.username like concat('%', :keyword, '%') or us.fullname like concat('%', :keyword, '%'))
@@ -43,4 +50,5 @@ public interface IUserRepository extends JpaRepository<UserEntity, Long> {
 
     @Query("select count (us) from UserEntity us where us.isDelete = false and us.role.name = 'SPECIALIST'")
     Long cntSpecialistActive();
+
 }
\ No newline at end of file
@@ -0,0 +1,412 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.service.interfaces.IAnalyticsExportService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Xuất snapshot Parquet (nén Snappy) cho phân tích offline, để truy vấn nặng không chạy trên MySQL chính
+// Bảng có update_date: mỗi lần chạy chỉ lấy dòng đổi trong (watermark trước, now - LAG], ghi vào <bảng>/month=YYYY-MM/
+// Một dòng có thể nằm ở nhiều file (mỗi lần sửa một bản): khi phân tích lấy bản có update_date mới nhất theo id
+// Bảng không có update_date (tbl_user_program, tbl_role) được ghi lại toàn bộ vào <bảng>/snapshot.parquet
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AnalyticsExportService implements IAnalyticsExportService {
+    enum Type {
+        LONG, DOUBLE, STRING, BOOLEAN, DATE, TIMESTAMP
+    }
+
+    record Column(String name, Type type) {
+    }
+
+    // partitionColumn = null: bảng snapshot, không phân vùng và không incremental
+    record Table(String name, String partitionColumn, List<Column> columns) {
+        boolean incremental() {
+            return partitionColumn != null;
+        }
+    }
+
+    static final String WATERMARK_FILE = "_watermark.properties";
+    static final String UNKNOWN_PARTITION = "month=unknown";
+    static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    static final long ROW_GROUP_BYTES = 8L * 1024 * 1024;
+    static final int PAGE_BYTES = 1024 * 1024;
+
+    static final List<Table> TABLES = List.of(
+            new Table("tbl_survey_result", "create_date", List.of(
+                    col("id", Type.LONG), col("user_id", Type.LONG), col("survey_id", Type.LONG),
+                    col("mark", Type.DOUBLE), col("create_date", Type.TIMESTAMP),
+                    col("update_date", Type.TIMESTAMP), col("is_delete", Type.BOOLEAN))),
+            new Table("tbl_appoiment", "date", List.of(
+                    col("id", Type.LONG), col("user_id", Type.LONG), col("username", Type.STRING),
+                    col("specialist_id", Type.LONG), col("specialist_name", Type.STRING), col("date", Type.DATE),
+                    col("hours", Type.STRING), col("duration", Type.DOUBLE), col("status", Type.STRING),
+                    col("create_date", Type.TIMESTAMP), col("update_date", Type.TIMESTAMP),
+                    col("is_delete", Type.BOOLEAN))),
+            // Chiều: không xuất password/avatar
+            new Table("tbl_user", "create_date", List.of(
+                    col("id", Type.LONG), col("username", Type.STRING), col("fullname", Type.STRING),
+                    col("email", Type.STRING), col("phone", Type.STRING), col("position", Type.STRING),
+                    col("role_id", Type.STRING), col("create_date", Type.TIMESTAMP),
+                    col("update_date", Type.TIMESTAMP), col("is_delete", Type.BOOLEAN))),
+            new Table("tbl_survey", "create_date", List.of(
+                    col("id", Type.LONG), col("name", Type.STRING), col("type", Type.STRING),
+                    col("create_date", Type.TIMESTAMP), col("update_date", Type.TIMESTAMP),
+                    col("is_delete", Type.BOOLEAN))),
+            new Table("tbl_program", "create_date", List.of(
+                    col("id", Type.LONG), col("title", Type.STRING), col("address", Type.STRING),
+                    col("date", Type.DATE), col("time", Type.STRING), col("status", Type.STRING),
+                    col("capacity", Type.LONG), col("create_date", Type.TIMESTAMP),
+                    col("update_date", Type.TIMESTAMP), col("is_delete", Type.BOOLEAN))),
+            new Table("tbl_user_program", null, List.of(
+                    col("user_id", Type.LONG), col("program_id", Type.LONG))),
+            new Table("tbl_role", null, List.of(
+                    col("name", Type.STRING), col("description", Type.STRING))));
+
+    @Autowired
+    DataSource dataSource;
+    @Value("${export.PARQUET_DIR}")
+    String outputDir;
+    @Value("${export.PARQUET_ENABLED}")
+    boolean enabled;
+    @Value("${export.PARQUET_LAG_MS}")
+    long lagMillis;
+
+    JdbcTemplate jdbcTemplate;
+    Path root;
+    final AtomicBoolean running = new AtomicBoolean();
+    ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() throws IOException {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(ExportService.STREAMING_FETCH_SIZE);
+        root = Paths.get(outputDir);
+        Files.createDirectories(root);
+        // Lượt xuất chạy hàng chục phút: không giữ thread duy nhất của scheduler (heartbeat SSE, dọn upload...)
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "parquet-export");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Scheduled(cron = "${export.PARQUET_CRON}")
+    void scheduled() {
+        if (!enabled)
+            return;
+        try {
+            executor.execute(this::runScheduled);
+        } catch (RejectedExecutionException e) {
+            log.warn("Parquet export still running, skipping scheduled run");
+        }
+    }
+
+    private void runScheduled() {
+        try {
+            this.exportParquet();
+        } catch (Exception e) {
+            log.error("Parquet export failed", e);
+        }
+    }
+
+    // Trả về số dòng đã ghi theo bảng; mỗi bảng xong mới lưu watermark nên lần chạy lỗi sẽ được làm lại
+    @Override
+    public Map<String, Long> exportParquet() throws IOException {
+        if (!running.compareAndSet(false, true))
+            throw new AppException(ErrorCode.SERVER_BUSY);
+        try {
+            // Lùi LAG để transaction đã set update_date nhưng chưa commit không bị bỏ sót
+            LocalDateTime upper = LocalDateTime.now().minusNanos(lagMillis * 1_000_000).withNano(0);
+            String runId = upper.format(RUN_ID);
+            Properties watermarks = this.readWatermarks();
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (Table table : TABLES) {
+                String last = watermarks.getProperty(table.name());
+                LocalDateTime lower = last == null ? null : LocalDateTime.parse(last);
+                if (lower != null && !lower.isBefore(upper)) {
+                    result.put(table.name(), 0L);
+                    continue;
+                }
+                long start = System.nanoTime();
+                long rows = this.exportTable(table, lower, upper, runId);
+                if (table.incremental()) {
+                    watermarks.setProperty(table.name(), upper.toString());
+                    this.writeWatermarks(watermarks);
+                }
+                result.put(table.name(), rows);
+                log.info("Parquet export {}: {} rows in {} ms", table.name(), rows,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long exportTable(Table table, LocalDateTime lower, LocalDateTime upper, String runId) throws IOException {
+        Object[] args = !table.incremental() ? new Object[0]
+                : lower == null ? new Object[]{upper} : new Object[]{lower, upper};
+        long[] rows = new long[1];
+        try (PartitionWriters writers = new PartitionWriters(table, runId)) {
+            // Bảng snapshot luôn có file, kể cả khi rỗng, để thay bản cũ
+            if (!table.incremental())
+                writers.writerOf("");
+            jdbcTemplate.query(sqlOf(table, lower == null), rs -> {
+                String partition = table.incremental() ? partitionOf(rs.getObject(table.partitionColumn())) : "";
+                try {
+                    writers.writerOf(partition).write(toGroup(writers.factory, table, rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, args);
+            writers.commit();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    private static String sqlOf(Table table, boolean initial) {
+        StringBuilder sql = new StringBuilder("select ");
+        for (int i = 0; i < table.columns().size(); i++) {
+            if (i > 0)
+                sql.append(", ");
+            sql.append('`').append(table.columns().get(i).name()).append('`');
+        }
+        sql.append(" from ").append(table.name());
+        if (table.incremental()) {
+            // Lần đầu lấy cả dòng cũ chưa có update_date
+            sql.append(initial
+                    ? " where (update_date is null or update_date <= ?)"
+                    : " where update_date > ? and update_date <= ?");
+            // Theo thứ tự tháng để mỗi lúc chỉ mở một writer (mỗi writer giữ cả row group trong heap)
+            sql.append(" order by `").append(table.partitionColumn()).append('`');
+        }
+        return sql.toString();
+    }
+
+    private static MessageType schemaOf(Table table) {
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (Column column : table.columns()) {
+            switch (column.type()) {
+                case LONG -> builder.optional(PrimitiveTypeName.INT64).named(column.name());
+                case DOUBLE -> builder.optional(PrimitiveTypeName.DOUBLE).named(column.name());
+                case BOOLEAN -> builder.optional(PrimitiveTypeName.BOOLEAN).named(column.name());
+                case STRING -> builder.optional(PrimitiveTypeName.BINARY)
+                        .as(LogicalTypeAnnotation.stringType()).named(column.name());
+                case DATE -> builder.optional(PrimitiveTypeName.INT32)
+                        .as(LogicalTypeAnnotation.dateType()).named(column.name());
+                case TIMESTAMP -> builder.optional(PrimitiveTypeName.INT64)
+                        .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MILLIS))
+                        .named(column.name());
+            }
+        }
+        return builder.named(table.name());
+    }
+
+    // Cột null thì bỏ qua (optional field)
+    private static Group toGroup(SimpleGroupFactory factory, Table table, ResultSet rs) throws SQLException {
+        Group group = factory.newGroup();
+        for (int i = 0; i < table.columns().size(); i++) {
+            Column column = table.columns().get(i);
+            int index = i + 1;
+            switch (column.type()) {
+                case LONG -> {
+                    long value = rs.getLong(index);
+                    if (!rs.wasNull())
+                        group.append(column.name(), value);
+                }
+                case DOUBLE -> {
+                    double value = rs.getDouble(index);
+                    if (!rs.wasNull())
+                        group.append(column.name(), value);
+                }
+                case BOOLEAN -> {
+                    boolean value = rs.getBoolean(index);
+                    if (!rs.wasNull())
+                        group.append(column.name(), value);
+                }
+                case STRING -> {
+                    String value = rs.getString(index);
+                    if (value != null)
+                        group.append(column.name(), value);
+                }
+                case DATE -> {
+                    LocalDate value = rs.getObject(index, LocalDate.class);
+                    if (value != null)
+                        group.append(column.name(), (int) value.toEpochDay());
+                }
+                case TIMESTAMP -> {
+                    // Timestamp không gắn múi giờ (isAdjustedToUTC = false): giữ nguyên giờ local như trong MySQL
+                    LocalDateTime value = rs.getObject(index, LocalDateTime.class);
+                    if (value != null)
+                        group.append(column.name(), value.toInstant(ZoneOffset.UTC).toEpochMilli());
+                }
+            }
+        }
+        return group;
+    }
+
+    private static String partitionOf(Object value) {
+        if (value instanceof LocalDateTime time)
+            return "month=" + YearMonth.from(time);
+        if (value instanceof LocalDate date)
+            return "month=" + YearMonth.from(date);
+        if (value instanceof java.sql.Timestamp time)
+            return "month=" + YearMonth.from(time.toLocalDateTime());
+        if (value instanceof java.sql.Date date)
+            return "month=" + YearMonth.from(date.toLocalDate());
+        return UNKNOWN_PARTITION;
+    }
+
+    private Properties readWatermarks() throws IOException {
+        Properties properties = new Properties();
+        Path file = root.resolve(WATERMARK_FILE);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+
+    // Ghi file tạm rồi move: dừng giữa chừng không làm hỏng watermark
+    private void writeWatermarks(Properties properties) throws IOException {
+        Path temp = root.resolve(WATERMARK_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "Parquet export watermark (update_date) per table");
+        }
+        Files.move(temp, root.resolve(WATERMARK_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Một file cho mỗi tháng, dòng đến theo thứ tự tháng nên sang tháng mới thì đóng file tháng trước
+    // File tạm bắt đầu bằng "_" để Spark/DuckDB bỏ qua khi đang ghi
+    // commit(): đổi tên tất cả; close() mà chưa commit thì xoá file tạm
+    final class PartitionWriters implements AutoCloseable {
+        final Table table;
+        final String runId;
+        final MessageType schema;
+        final SimpleGroupFactory factory;
+        final Path tableDir;
+        final Map<String, Path> temps = new LinkedHashMap<>();
+        String current;
+        ParquetWriter<Group> writer;
+        boolean committed;
+
+        PartitionWriters(Table table, String runId) {
+            this.table = table;
+            this.runId = runId;
+            this.schema = schemaOf(table);
+            this.factory = new SimpleGroupFactory(schema);
+            this.tableDir = root.resolve(table.name());
+        }
+
+        ParquetWriter<Group> writerOf(String partition) throws IOException {
+            if (writer != null && partition.equals(current))
+                return writer;
+            this.closeCurrent();
+            // Tháng đã đóng xuất hiện lại: dữ liệu không theo thứ tự cột phân vùng
+            if (temps.containsKey(partition))
+                throw new IllegalStateException(table.name() + " is not ordered by " + table.partitionColumn());
+            Path dir = partition.isEmpty() ? tableDir : tableDir.resolve(partition);
+            Files.createDirectories(dir);
+            Path temp = dir.resolve("_" + runId + ".parquet.tmp");
+            writer = ExampleParquetWriter.builder(new LocalOutputFile(temp))
+                    .withType(schema)
+                    .withCompressionCodec(CompressionCodecName.SNAPPY)
+                    .withRowGroupSize(ROW_GROUP_BYTES)
+                    .withPageSize(PAGE_BYTES)
+                    .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                    .build();
+            temps.put(partition, temp);
+            current = partition;
+            return writer;
+        }
+
+        private void closeCurrent() throws IOException {
+            if (writer == null)
+                return;
+            ParquetWriter<Group> closing = writer;
+            writer = null;
+            current = null;
+            closing.close();
+        }
+
+        void commit() throws IOException {
+            this.closeCurrent();
+            String name = table.incremental() ? "part-" + runId + ".parquet" : "snapshot.parquet";
+            for (Path temp : temps.values())
+                Files.move(temp, temp.resolveSibling(name), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (committed)
+                return;
+            try {
+                this.closeCurrent();
+            } catch (IOException ignored) {
+                // file tạm bị xoá ngay sau đây
+            }
+            for (Path temp : temps.values())
+                Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Column col(String name, Type type) {
+        return new Column(name, type);
+    }
+}
@@ -1,11 +1,14 @@
 package com.project.codebasespringjpa.service.imp;
 
+import com.project.codebasespringjpa.configuration.dashboard.DashboardEvent;
+import com.project.codebasespringjpa.configuration.dashboard.SeriesEvent;
 import com.project.codebasespringjpa.dto.appointment.request.AppointmentRequest;
 import com.project.codebasespringjpa.dto.appointment.request.AppointmentSearch;
 import com.project.codebasespringjpa.dto.appointment.request.StatusRequest;
 import com.project.codebasespringjpa.dto.appointment.response.AppointmentResponse;
 import com.project.codebasespringjpa.dto.user.response.UserResponse;
 import com.project.codebasespringjpa.entity.AppointmentEntity;
+import com.project.codebasespringjpa.enums.SeriesMetricEnum;
 import com.project.codebasespringjpa.exception.AppException;
 import com.project.codebasespringjpa.exception.ErrorCode;
 import com.project.codebasespringjpa.mapper.AppointmentMapper;
@@ -16,6 +19,7 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -31,6 +35,8 @@ public class AppointmentService implements IAppointmentService {
     AppointmentMapper appointmentMapper;
     @Autowired
     private UserService userService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public AppointmentEntity findEntityById(Long id) {
@@ -40,6 +46,8 @@ public class AppointmentService implements IAppointmentService {
     @Override
     public AppointmentResponse create(AppointmentRequest request) {
         AppointmentEntity save = appointmentRepository.save(appointmentMapper.toEntity(request));
+        this.changed(save);
+        eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.APPOINTMENT, 1));
         return appointmentMapper.toResponse(save);
     }
 
@@ -48,12 +56,14 @@ public class AppointmentService implements IAppointmentService {
         UserResponse user = userService.findByUsername(request.getUsername());
         UserResponse special = userService.findByUsername(request.getSpecialistName());
         AppointmentEntity appUpdate = this.findEntityById(id);
+        this.changed(appUpdate);
         appUpdate.setUserId(user.getId());
         appUpdate.setSpecialistId(special.getId());
         appUpdate.setDate(request.getDate());
         appUpdate.setHours(request.getHours());
         appUpdate.setDuration(request.getDuration());
         appUpdate.setStatus(appUpdate.getStatus());
+        this.changed(appUpdate);
         return appointmentMapper.toResponse(appointmentRepository.save(appUpdate));
     }
 
@@ -73,7 +83,10 @@ public class AppointmentService implements IAppointmentService {
     @Override
     public void delete(Long id) {
         AppointmentEntity appointmentFind = this.findEntityById(id);
+        if (!Boolean.TRUE.equals(appointmentFind.getIsDelete()))
+            eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.APPOINTMENT, -1));
         appointmentFind.setIsDelete(true);
+        this.changed(appointmentFind);
         appointmentRepository.save(appointmentFind);
     }
 
@@ -81,6 +94,12 @@ public class AppointmentService implements IAppointmentService {
     public AppointmentResponse changeStatus(Long id, StatusRequest request) {
         AppointmentEntity appUpdate = this.findEntityById(id);
         appUpdate.setStatus(request.getStatus());
+        this.changed(appUpdate);
         return appointmentMapper.toResponse(appointmentRepository.save(appUpdate));
     }
+
+    // Ngày hẹn của lịch này có số liệu mới: bỏ ngày đó khỏi cache thống kê
+    private void changed(AppointmentEntity appointment) {
+        eventPublisher.publishEvent(new SeriesEvent(SeriesMetricEnum.APPOINTMENT, appointment.getDate()));
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.project.codebasespringjpa.service.imp;
 
-import com.project.codebasespringjpa.configuration.security.UserDetailsImpl;
+import com.project.codebasespringjpa.configuration.dashboard.DashboardEvent;
+import com.project.codebasespringjpa.configuration.security.PasswordHasher;
 import com.project.codebasespringjpa.configuration.security.jwtConfig.JwtProvider;
 import com.project.codebasespringjpa.dto.authen.request.LoginRequest;
 import com.project.codebasespringjpa.dto.authen.request.RegisterRequest;
@@ -10,49 +11,52 @@ import com.project.codebasespringjpa.entity.UserEntity;
 import com.project.codebasespringjpa.enums.RoleEnum;
 import com.project.codebasespringjpa.repository.IUserRepository;
 import com.project.codebasespringjpa.service.interfaces.IAuthenService;
+import com.project.codebasespringjpa.service.interfaces.ITokenService;
 import com.project.codebasespringjpa.util.UtilConst;
-import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
+// Không có transaction bao ngoài: BCrypt chạy khi chưa giữ connection nào, mỗi lần đọc/ghi DB tự mở transaction ngắn
 @Slf4j
 @Service
-@Transactional
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class AuthenService implements IAuthenService {
     @Autowired
     IUserRepository userRepository;
 
     @Autowired
-    AuthenticationManager authenticationManager;
+    JwtProvider jwtProvider;
 
     @Autowired
-    JwtProvider jwtProvider;
+    private PasswordHasher passwordHasher;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    ITokenService tokenService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public boolean register(RegisterRequest request) {
+        // Hash ngoài try để lỗi quá tải (503) không bị nuốt thành "đăng ký thất bại"
+        String encodedPassword = passwordHasher.encode(request.getPassword());
         try {
             UserEntity user = new UserEntity();
             user.setUsername(request.getUsername());
             user.setFullname(request.getFullname());
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(encodedPassword);
             user.setPhone(request.getPhone());
             user.setEmail(request.getEmail());
             RoleEntity role = new RoleEntity(RoleEnum.USER.name());
             user.setRole(role);
             user.setAvatar(UtilConst.IMAGE_USER_DEFAULT);
+            // save() tự có transaction riêng, connection chỉ bị giữ trong lúc insert
             userRepository.save(user);
+            eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.USER, 1));
             return true;
         } catch (Exception e) {
             log.error(">>>Co loi trong qua trinh dang ky: " + e.getMessage());
@@ -62,16 +66,20 @@ public class AuthenService implements IAuthenService {
 
     @Override
     public LoginResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager
-                .authenticate(new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        String jwt = jwtProvider.generateTokenByUsername(request.getUsername());
+        // Đọc user trong transaction của repository, connection trả về pool trước khi BCrypt chạy
+        UserEntity user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        // Username không tồn tại vẫn phải tốn một lần BCrypt, tránh lộ tài khoản qua thời gian phản hồi
+        String encodedPassword = user != null ? user.getPassword() : passwordHasher.getDummyHash();
+        boolean matched = passwordHasher.matches(request.getPassword(), encodedPassword);
+        if (user == null || !matched)
+            throw new BadCredentialsException("Bad credentials");
+        // Dùng lại user vừa load để sinh token, không query lại DB; refresh token ghi trong transaction của TokenService
         return LoginResponse.builder()
-                .token(jwt)
-                .role(userDetails.getRoleName())
-                .email(userDetails.getUserEntity().getEmail())
-                .fullName(userDetails.getFullName())
+                .token(jwtProvider.generateToken(user))
+                .refreshToken(tokenService.createRefreshToken(user.getId()))
+                .role(user.getRole().getName())
+                .email(user.getEmail())
+                .fullName(user.getFullname())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,229 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.codebasespringjpa.configuration.mediaPool.MediaExecutor;
+import com.project.codebasespringjpa.configuration.storage.MediaStore;
+import com.project.codebasespringjpa.entity.BaseEntity;
+import com.project.codebasespringjpa.entity.CourseDetailEntity;
+import com.project.codebasespringjpa.entity.CourseEntity;
+import com.project.codebasespringjpa.entity.MediaBlobEntity;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.repository.ICourseDetailRepository;
+import com.project.codebasespringjpa.repository.ICourseRepository;
+import com.project.codebasespringjpa.repository.IMediaBlobRepository;
+import com.project.codebasespringjpa.service.interfaces.ICourseBundleService;
+import com.project.codebasespringjpa.service.interfaces.IMediaService;
+import com.project.codebasespringjpa.util.UtilFile;
+import com.project.codebasespringjpa.util.ZipBundle;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+// Tải cả khoá học thành một file ZIP: manifest + ảnh bìa + video từng bài, ghép trực tiếp từ MediaStore
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CourseBundleService implements ICourseBundleService {
+    static final ObjectMapper MAPPER = new ObjectMapper();
+    static final int MAX_NAME_LENGTH = 80;
+    static final long CRC_RETRY_AFTER_SECONDS = 5;
+
+    @Autowired
+    ICourseRepository courseRepository;
+    @Autowired
+    ICourseDetailRepository courseDetailRepository;
+    @Autowired
+    IMediaBlobRepository mediaBlobRepository;
+    @Autowired
+    IMediaService mediaService;
+    @Autowired
+    MediaStore mediaStore;
+    @Autowired
+    MediaExecutor mediaExecutor;
+
+    // CRC của file cũ (chưa có trong tbl_media_blob) chỉ tính một lần: khoá = tên|size|lastModified
+    final Cache<String, Long> crcCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+    // File cũ đang được tính CRC trên pool media (cùng khoá với crcCache)
+    final Set<String> backfilling = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void serve(Long courseId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CourseEntity course = courseRepository.findById(courseId)
+                .filter(it -> !Boolean.TRUE.equals(it.getIsDelete()))
+                .orElseThrow(() -> new AppException(ErrorCode.COURSE_NOT_FOUND));
+        List<CourseDetailEntity> lessons = courseDetailRepository.findByCourse_IdAndIsDeleteFalseOrderByIdAsc(courseId);
+        String folder = sanitize(course.getName(), "course-" + courseId);
+        ZipBundle bundle = this.bundleOf(course, lessons);
+        if (bundle == null) {
+            // Còn file cũ chưa có CRC (cả với HEAD): đang tính nền, client thử lại sau
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(CRC_RETRY_AFTER_SECONDS));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        mediaService.serveBundle(bundle, folder + ".zip", request, response);
+    }
+
+    // null nếu còn file chưa biết CRC
+    private ZipBundle bundleOf(CourseEntity course, List<CourseDetailEntity> lessons) throws IOException {
+        long updated = millis(course);
+        for (CourseDetailEntity lesson : lessons)
+            updated = Math.max(updated, millis(lesson));
+
+        List<ZipBundle.Entry> files = new ArrayList<>();
+        boolean pending = false;
+        List<Map<String, Object>> lessonInfo = new ArrayList<>();
+        String cover = null;
+        if (course.getImage() != null) {
+            MediaStore.ObjectInfo info = mediaStore.stat(course.getImage());
+            if (info != null) {
+                cover = "cover" + extensionOf(course.getImage());
+                ZipBundle.Entry entry = this.entryOf(cover, course.getImage(), info);
+                pending |= entry == null;
+                files.add(entry);
+            }
+        }
+        int index = 0;
+        for (CourseDetailEntity lesson : lessons) {
+            index++;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("index", index);
+            item.put("name", lesson.getName());
+            item.put("duration", lesson.getDuration());
+            item.put("objective", lesson.getObjective());
+            item.put("content", lesson.getContent());
+            // Bài chưa có video / video đã mất trên store: vẫn ghi vào manifest nhưng không có file
+            MediaStore.ObjectInfo info = lesson.getVideo() == null ? null : mediaStore.stat(lesson.getVideo());
+            if (info != null) {
+                String name = String.format("lessons/%02d-%s%s", index, sanitize(lesson.getName(), "lesson"),
+                        extensionOf(lesson.getVideo()));
+                ZipBundle.Entry entry = this.entryOf(name, lesson.getVideo(), info);
+                pending |= entry == null;
+                files.add(entry);
+                item.put("file", name);
+            }
+            lessonInfo.add(item);
+        }
+        // Duyệt hết danh sách trước để mọi file thiếu CRC được xếp hàng tính cùng lúc
+        if (pending)
+            return null;
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("id", course.getId());
+        manifest.put("name", course.getName());
+        manifest.put("description", course.getDescription());
+        manifest.put("cover", cover);
+        manifest.put("lessons", lessonInfo);
+
+        // Manifest đứng đầu: client đọc được mục lục ngay khi tải vài KB đầu tiên
+        List<ZipBundle.Entry> entries = new ArrayList<>();
+        entries.add(ZipBundle.Entry.bytes("manifest.json", json(manifest), updated));
+        entries.addAll(files);
+        return new ZipBundle(entries, mediaStore::transferTo);
+    }
+
+    private ZipBundle.Entry entryOf(String name, String key, MediaStore.ObjectInfo info) {
+        Long crc32 = this.crc32Of(key, info);
+        return crc32 == null ? null : ZipBundle.Entry.file(name, key, info.size(), crc32, info.lastModified());
+    }
+
+    private Long crc32Of(String key, MediaStore.ObjectInfo info) {
+        String cacheKey = key + "|" + info.size() + "|" + info.lastModified();
+        Long cached = crcCache.getIfPresent(cacheKey);
+        if (cached != null)
+            return cached;
+        MediaBlobEntity blob = mediaBlobRepository.findByFileName(key).orElse(null);
+        if (blob != null && blob.getCrc32() != null && Objects.equals(blob.getSize(), info.size())) {
+            crcCache.put(cacheKey, blob.getCrc32());
+            return blob.getCrc32();
+        }
+        // File upload trước khi có cột crc32: tính nền trên pool media, request không đọc cả video
+        this.backfill(key, info, cacheKey, blob != null);
+        return null;
+    }
+
+    private void backfill(String key, MediaStore.ObjectInfo info, String cacheKey, boolean stored) {
+        if (!backfilling.add(cacheKey))
+            return;
+        try {
+            mediaExecutor.execute(() -> {
+                try {
+                    long crc32;
+                    try (InputStream in = mediaStore.open(key)) {
+                        crc32 = UtilFile.crc32(in);
+                    }
+                    // File bị thay trong lúc đọc: bỏ kết quả, lượt tải sau tính lại
+                    MediaStore.ObjectInfo after = mediaStore.stat(key);
+                    if (after == null || after.size() != info.size() || after.lastModified() != info.lastModified())
+                        return;
+                    if (stored)
+                        mediaBlobRepository.updateCrc32(key, crc32);
+                    crcCache.put(cacheKey, crc32);
+                    log.info("Computed CRC32 for {}", key);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Khong the tinh CRC32 {}: {}", key, e.getMessage());
+                } finally {
+                    backfilling.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool đầy: lượt tải sau xếp hàng lại
+            backfilling.remove(cacheKey);
+        }
+    }
+
+    private static byte[] json(Object value) {
+        try {
+            return MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long millis(BaseEntity entity) {
+        LocalDateTime time = entity.getUpdateDate() != null ? entity.getUpdateDate() : entity.getCreateDate();
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot).toLowerCase(Locale.ROOT);
+    }
+
+    // Bỏ dấu tiếng Việt và ký tự lạ để tên entry mở được trên mọi hệ điều hành
+    static String sanitize(String name, String fallback) {
+        if (name == null)
+            return fallback;
+        String ascii = Normalizer.normalize(name.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .replaceAll("[^A-Za-z0-9._-]+", "-")
+                .replaceAll("^[-.]+|-+$", "");
+        if (ascii.length() > MAX_NAME_LENGTH)
+            ascii = ascii.substring(0, MAX_NAME_LENGTH);
+        return ascii.isEmpty() ? fallback : ascii;
+    }
+}
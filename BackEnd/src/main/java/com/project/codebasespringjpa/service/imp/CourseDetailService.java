@@ -1,14 +1,18 @@
 package com.project.codebasespringjpa.service.imp;
 
+import com.project.codebasespringjpa.configuration.storage.MediaStore;
 import com.project.codebasespringjpa.dto.course.request.CourseDetailRequest;
 import com.project.codebasespringjpa.dto.course.response.CourseDetailResponse;
 import com.project.codebasespringjpa.entity.CourseDetailEntity;
 import com.project.codebasespringjpa.entity.CourseEntity;
+import com.project.codebasespringjpa.entity.MediaBlobEntity;
 import com.project.codebasespringjpa.exception.AppException;
 import com.project.codebasespringjpa.exception.ErrorCode;
 import com.project.codebasespringjpa.mapper.CourseDetailMapper;
 import com.project.codebasespringjpa.repository.ICourseDetailRepository;
+import com.project.codebasespringjpa.repository.IMediaBlobRepository;
 import com.project.codebasespringjpa.service.interfaces.ICourseDetailService;
+import com.project.codebasespringjpa.util.Mp4Faststart;
 import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
@@ -23,6 +27,10 @@ public class CourseDetailService implements ICourseDetailService {
     ICourseDetailRepository courseDetailRepository;
     @Autowired
     CourseDetailMapper courseDetailMapper;
+    @Autowired
+    IMediaBlobRepository mediaBlobRepository;
+    @Autowired
+    MediaStore mediaStore;
 
     @Override
     public CourseDetailEntity findEntityById(Long id) {
@@ -37,6 +45,7 @@ public class CourseDetailService implements ICourseDetailService {
                 .id(idCourse)
                 .build();
         courseDetail.setCourse(course);
+        courseDetail.setDuration(this.durationOf(request));
         return courseDetailMapper.toResponse(courseDetailRepository.save(courseDetail));
     }
 
@@ -44,12 +53,26 @@ public class CourseDetailService implements ICourseDetailService {
     public CourseDetailResponse update(Long id, CourseDetailRequest request) {
         CourseDetailEntity courseDetail = this.findEntityById(id);
         courseDetail.setVideo(request.getVideo());
-        courseDetail.setDuration(request.getDuration());
+        courseDetail.setDuration(this.durationOf(request));
         courseDetail.setObjective(request.getObjective());
         courseDetail.setContent(request.getContent());
         return courseDetailMapper.toResponse(courseDetailRepository.save(courseDetail));
     }
 
+    // Thời lượng (giờ) đọc từ header MP4 lúc upload; không có thì giữ giá trị client gửi lên
+    private Double durationOf(CourseDetailRequest request) {
+        String video = request.getVideo();
+        if (!Mp4Faststart.isMp4(video))
+            return request.getDuration();
+        // File cũ chưa có trong tbl_media_blob: đọc trực tiếp nếu nằm trên đĩa local
+        Double seconds = mediaBlobRepository.findByFileName(video)
+                .map(MediaBlobEntity::getDuration)
+                .orElseGet(() -> Mp4Faststart.readDurationSeconds(mediaStore.localPath(video)));
+        if (seconds == null)
+            return request.getDuration();
+        return Math.max(0.01, Math.round(seconds / 36.0) / 100.0);
+    }
+
     @Override
     public void delete(Long id) {
         CourseDetailEntity courseDetail = this.findEntityById(id);
@@ -1,5 +1,6 @@
 package com.project.codebasespringjpa.service.imp;
 
+import com.project.codebasespringjpa.configuration.dashboard.DashboardEvent;
 import com.project.codebasespringjpa.dto.course.request.CourseDetailRequest;
 import com.project.codebasespringjpa.dto.course.request.CourseRequest;
 import com.project.codebasespringjpa.dto.course.request.CourseSearch;
@@ -20,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -37,6 +39,8 @@ public class CourseService implements ICourseService {
     IObjectRepository objectRepository;
     @Autowired
     ICourseDetailService courseDetailService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public CourseEntity findEntityById(Long id) {
@@ -46,6 +50,7 @@ public class CourseService implements ICourseService {
     @Override
     public CourseResponse create(CourseRequest request) {
         CourseEntity save = courseRepository.save(courseMapper.toEntity(request));
+        eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.COURSE, 1));
         if (request != null && request.getCourseDetail() != null) {
             for (CourseDetailRequest courseDetailRequest : request.getCourseDetail()) {
                 courseDetailService.create(save.getId(), courseDetailRequest);
@@ -99,6 +104,8 @@ public class CourseService implements ICourseService {
     @Override
     public void delete(Long id) {
         CourseEntity courseFind = this.findEntityById(id);
+        if (!Boolean.TRUE.equals(courseFind.getIsDelete()))
+            eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.COURSE, -1));
         courseFind.setIsDelete(true);
         courseRepository.save(courseFind);
     }
@@ -0,0 +1,142 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.enums.ExportTypeEnum;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.service.interfaces.IExportService;
+import com.project.codebasespringjpa.util.CsvWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.concurrent.Semaphore;
+
+// Xuất CSV bằng result set streaming của MySQL: driver trả từng dòng từ socket, ghi ra response ngay,
+// không qua entity/mapper và không có câu count
+// Result set streaming giữ một connection của pool tới khi client tải xong: giới hạn số lượt export cùng lúc
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExportService implements IExportService {
+    // Connector/J chỉ stream khi fetch size = Integer.MIN_VALUE; chỉ áp cho JdbcTemplate của export,
+    // truy vấn JPA vẫn đọc hết kết quả như cũ (useCursorFetch trong URL sẽ đổi cả pool sang server-side cursor)
+    static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @Autowired
+    DataSource dataSource;
+    @Value("${export.QUERY_TIMEOUT_S}")
+    int queryTimeout;
+    @Value("${export.MAX_CONCURRENT}")
+    int maxConcurrent;
+
+    JdbcTemplate jdbcTemplate;
+    Semaphore slots;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(STREAMING_FETCH_SIZE);
+        jdbcTemplate.setQueryTimeout(queryTimeout);
+        slots = new Semaphore(maxConcurrent);
+    }
+
+    @Override
+    public void exportCsv(ExportTypeEnum type, HttpServletResponse response) throws IOException {
+        // Hết lượt thì từ chối ngay, trước khi ghi header của file
+        if (!slots.tryAcquire())
+            throw new AppException(ErrorCode.SERVER_BUSY);
+        try {
+            this.writeCsv(type, response);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void writeCsv(ExportTypeEnum type, HttpServletResponse response) throws IOException {
+        String[] header = headerOf(type);
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(type.getSlug() + "-" + LocalDate.now() + ".csv")
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        CsvWriter csv = new CsvWriter(response.getOutputStream());
+        csv.writeRow(header);
+        try {
+            jdbcTemplate.query(sqlOf(type), rs -> {
+                try {
+                    csv.writeRow(rs, header.length);
+                } catch (IOException e) {
+                    // Client ngắt kết nối: dừng đọc cursor ngay
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.flush();
+        log.info("Exported {} {} rows in {} ms", rows[0], type, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static String[] headerOf(ExportTypeEnum type) {
+        return switch (type) {
+            case USER -> new String[]{"id", "username", "fullname", "email", "phone", "role", "position",
+                    "create_date"};
+            case APPOINTMENT -> new String[]{"id", "username", "specialist_name", "date", "hours", "duration",
+                    "status", "create_date"};
+            case SURVEY_RESULT -> new String[]{"id", "username", "fullname", "survey", "mark", "create_date"};
+            case REGISTRATION -> new String[]{"program_id", "program", "program_date", "address", "username",
+                    "fullname", "email", "phone"};
+        };
+    }
+
+    // Thứ tự cột phải khớp headerOf; sắp theo khoá chính/khoá ngoại có index để không cần filesort
+    private static String sqlOf(ExportTypeEnum type) {
+        return switch (type) {
+            case USER -> """
+                    select u.id, u.username, u.fullname, u.email, u.phone, r.name, u.position, u.create_date
+                    from tbl_user u
+                    left join tbl_role r on r.name = u.role_id
+                    where u.is_delete = false
+                    order by u.id
+                    """;
+            case APPOINTMENT -> """
+                    select a.id, a.username, a.specialist_name, a.date, a.hours, a.duration, a.status, a.create_date
+                    from tbl_appoiment a
+                    where a.is_delete = false
+                    order by a.id
+                    """;
+            case SURVEY_RESULT -> """
+                    select sr.id, u.username, u.fullname, s.name, sr.mark, sr.create_date
+                    from tbl_survey_result sr
+                    join tbl_user u on u.id = sr.user_id
+                    join tbl_survey s on s.id = sr.survey_id
+                    where s.is_delete = false
+                    order by sr.id
+                    """;
+            case REGISTRATION -> """
+                    select p.id, p.title, p.date, p.address, u.username, u.fullname, u.email, u.phone
+                    from tbl_user_program up
+                    join tbl_program p on p.id = up.program_id
+                    join tbl_user u on u.id = up.user_id
+                    where p.is_delete = false and u.is_delete = false
+                    order by up.program_id
+                    """;
+        };
+    }
+}
@@ -0,0 +1,177 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.storage.MediaStore;
+import com.project.codebasespringjpa.service.interfaces.IHlsService;
+import com.project.codebasespringjpa.util.HlsPackager;
+import com.project.codebasespringjpa.util.Mp4Faststart;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Đóng gói video bài học thành HLS (fMP4) chạy nền; playlist được đưa lên store sau cùng nên chỉ xuất hiện khi đủ segment
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HlsService implements IHlsService {
+    public static final String HLS_DIR = "hls";
+
+    @Autowired
+    MediaStore mediaStore;
+    @Value("${media.HLS_SEGMENT_SECONDS}")
+    double segmentSeconds;
+    @Value("${media.HLS_THREADS}")
+    int threads;
+    @Value("${media.HLS_QUEUE}")
+    int queueSize;
+    @Value("${upload.TEMP_DIR}")
+    String tempDir;
+
+    ThreadPoolExecutor executor;
+    final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Playlist đã thấy trên store: không hỏi lại store mỗi lần map response
+    final Set<String> ready = ConcurrentHashMap.newKeySet();
+    // File không đóng gói được (codec khác H.264/AAC...): không thử lại
+    final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "hls-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void schedule(String fileName) {
+        String name = baseName(fileName);
+        if (name == null || unsupported.contains(name) || pending.contains(name) || this.hasPlaylist(name)
+                || !pending.add(name))
+            return;
+        try {
+            executor.execute(() -> {
+                try {
+                    this.pack(fileName, name);
+                } finally {
+                    pending.remove(name);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(name);
+        }
+    }
+
+    // Đường dẫn playlist (tương đối so với API) nếu đã đóng gói xong; chỉ đọc, việc đóng gói
+    // được xếp hàng lúc upload hoặc lần phát đầu tiên
+    @Override
+    public String playlistOf(String fileName) {
+        String name = baseName(fileName);
+        if (name == null || !this.hasPlaylist(name))
+            return null;
+        return "media/" + HLS_DIR + "/" + name + "/" + HlsPackager.PLAYLIST;
+    }
+
+    @Override
+    public void delete(String fileName) {
+        String name = baseName(fileName);
+        if (name == null)
+            return;
+        ready.remove(name);
+        try {
+            mediaStore.deletePrefix(HLS_DIR + "/" + name);
+        } catch (IOException e) {
+            log.warn("Khong the xoa HLS {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void pack(String fileName, String name) {
+        Path temp = Paths.get(tempDir).resolve("hls-" + name + "-" + UUID.randomUUID());
+        try {
+            long start = System.nanoTime();
+            // Store từ xa: tải video về file tạm để đọc ngẫu nhiên
+            Path source = mediaStore.localPath(fileName);
+            if (source == null) {
+                if (!mediaStore.exists(fileName))
+                    return;
+                Files.createDirectories(temp);
+                source = temp.resolve(fileName);
+                mediaStore.download(fileName, source);
+            }
+            Path output = temp.resolve(HLS_DIR);
+            if (!HlsPackager.pack(source, output, segmentSeconds)) {
+                unsupported.add(name);
+                return;
+            }
+            this.upload(output, name);
+            ready.add(name);
+            log.info("Packaged HLS {} in {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            log.warn("Khong the dong goi HLS {}: {}", name, e.getMessage());
+        } finally {
+            try {
+                FileSystemUtils.deleteRecursively(temp);
+            } catch (IOException ignored) {
+                // Chỉ là thư mục tạm trong TEMP_DIR
+            }
+        }
+    }
+
+    // Segment và init trước, playlist sau cùng
+    private void upload(Path output, String name) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(output)) {
+            files = stream.filter(file -> !file.getFileName().toString().equals(HlsPackager.PLAYLIST)).toList();
+        }
+        for (Path file : files)
+            mediaStore.put(HLS_DIR + "/" + name + "/" + file.getFileName(), file);
+        mediaStore.put(HLS_DIR + "/" + name + "/" + HlsPackager.PLAYLIST, output.resolve(HlsPackager.PLAYLIST));
+    }
+
+    private boolean hasPlaylist(String name) {
+        if (ready.contains(name))
+            return true;
+        try {
+            if (!mediaStore.exists(HLS_DIR + "/" + name + "/" + HlsPackager.PLAYLIST))
+                return false;
+        } catch (IOException e) {
+            return false;
+        }
+        ready.add(name);
+        return true;
+    }
+
+    private static String baseName(String fileName) {
+        if (!Mp4Faststart.isMp4(fileName) || fileName.indexOf('/') >= 0 || fileName.indexOf('\\') >= 0)
+            return null;
+        return fileName.substring(0, fileName.lastIndexOf('.'));
+    }
+}
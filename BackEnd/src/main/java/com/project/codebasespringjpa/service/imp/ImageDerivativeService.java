@@ -0,0 +1,270 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.codebasespringjpa.configuration.storage.MediaStore;
+import com.project.codebasespringjpa.service.interfaces.IImageDerivativeService;
+import com.project.codebasespringjpa.util.DiskLruCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sinh ảnh thu nhỏ (thumb/small/medium) trên pool riêng, lưu trong cache đĩa LRU
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImageDerivativeService implements IImageDerivativeService {
+    static final Map<String, Integer> SIZES = Map.of("thumb", 160, "small", 320, "medium", 640);
+    static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+    static final long MAX_PIXELS = 40_000_000L;
+    static final float JPEG_QUALITY = 0.8f;
+
+    @Autowired
+    MediaStore mediaStore;
+    @Value("${media.DERIVATIVE_DIR}")
+    String derivativeDir;
+    @Value("${media.DERIVATIVE_MAX_BYTES}")
+    long maxBytes;
+    @Value("${media.IMAGE_THREADS}")
+    int threads;
+    @Value("${media.IMAGE_QUEUE}")
+    int queueSize;
+    @Value("${media.DERIVATIVE_WAIT_MS}")
+    long waitMillis;
+    @Value("${media.DERIVATIVE_FAILURE_TTL_MS}")
+    long failureTtl;
+
+    DiskLruCache cache;
+    // Ảnh hỏng/quá lớn: nhớ lỗi một lúc để không giải mã lại ở mỗi request
+    Cache<String, Boolean> failures;
+    ThreadPoolExecutor executor;
+    final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        cache = new DiskLruCache(Paths.get(derivativeDir), maxBytes);
+        failures = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(failureTtl))
+                .maximumSize(10_000)
+                .build();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "image-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void scheduleDerivatives(String fileName) {
+        if (!isImage(fileName))
+            return;
+        for (String size : SIZES.keySet()) {
+            String key = keyOf(fileName, size);
+            if (cache.get(key) == null && failures.getIfPresent(key) == null)
+                this.request(fileName, size);
+        }
+    }
+
+    // Trả về null nếu không có ảnh thu nhỏ (không phải ảnh, size lạ, pool bận, vừa lỗi): khi đó dùng file gốc
+    // Nơi gọi đã kiểm tra file gốc tồn tại trên store, và phải đóng handle khi gửi xong
+    @Override
+    public DiskLruCache.Handle resolve(String fileName, String size) {
+        if (size == null || !SIZES.containsKey(size) || !isImage(fileName))
+            return null;
+        String key = keyOf(fileName, size);
+        DiskLruCache.Handle cached = cache.acquire(key);
+        if (cached != null || failures.getIfPresent(key) != null)
+            return cached;
+        CompletableFuture<Path> future = this.request(fileName, size);
+        if (future == null)
+            return null;
+        try {
+            return future.get(waitMillis, TimeUnit.MILLISECONDS) != null ? cache.acquire(key) : null;
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // Blob bị reclaim: bỏ luôn ảnh thu nhỏ, handle đang gửi vẫn đọc được tới khi đóng
+    @Override
+    public void delete(String fileName) {
+        if (!isImage(fileName))
+            return;
+        for (String size : SIZES.keySet()) {
+            String key = keyOf(fileName, size);
+            cache.remove(key);
+            failures.invalidate(key);
+        }
+    }
+
+    // Cùng một ảnh/size chỉ sinh một lần dù nhiều request cùng hỏi
+    private CompletableFuture<Path> request(String fileName, String size) {
+        String key = keyOf(fileName, size);
+        try {
+            CompletableFuture<Path> future = inFlight.computeIfAbsent(key, k ->
+                    CompletableFuture.supplyAsync(() -> this.generate(fileName, key, SIZES.get(size)), executor));
+            future.whenComplete((path, error) -> inFlight.remove(key, future));
+            return future;
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private Path generate(String fileName, String key, int target) {
+        try {
+            BufferedImage source = this.read(fileName);
+            if (source == null) {
+                failures.put(key, Boolean.TRUE);
+                return null;
+            }
+            boolean png = key.endsWith(".png");
+            BufferedImage scaled = scale(source, target, png);
+            Path temp = cache.newTempFile(key);
+            try {
+                if (png)
+                    ImageIO.write(scaled, "png", temp.toFile());
+                else
+                    writeJpeg(scaled, temp);
+                return cache.commit(key, temp);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Khong the tao anh thu nho {}: {}", key, e.getMessage());
+            failures.put(key, Boolean.TRUE);
+            return null;
+        }
+    }
+
+    // Store từ xa thì đọc qua stream (ImageIO tự đệm phần cần đọc lại)
+    private BufferedImage read(String fileName) throws IOException {
+        Path local = mediaStore.localPath(fileName);
+        if (local != null)
+            return readBounded(ImageIO.createImageInputStream(local.toFile()));
+        try (InputStream in = mediaStore.open(fileName)) {
+            return readBounded(ImageIO.createImageInputStream(in));
+        }
+    }
+
+    // Đọc kích thước trước, bỏ qua ảnh quá lớn để không giải nén hàng trăm MB vào heap
+    private static BufferedImage readBounded(ImageInputStream stream) throws IOException {
+        try (ImageInputStream input = stream) {
+            if (input == null)
+                return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext())
+                return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS)
+                    return null;
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Thu nhỏ từng bước một nửa rồi mới về đúng kích thước: nét hơn scale một lần
+    private static BufferedImage scale(BufferedImage source, int target, boolean keepAlpha) {
+        int type = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        double ratio = Math.min(1.0, (double) target / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (!keepAlpha) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, w, h);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static boolean isImage(String fileName) {
+        return fileName != null && fileName.indexOf('/') < 0 && fileName.indexOf('\\') < 0
+                && IMAGE_EXTENSIONS.contains(extensionOf(fileName));
+    }
+
+    // Ảnh có thể trong suốt giữ PNG, còn lại nén lại thành JPEG
+    private static String keyOf(String fileName, String size) {
+        String extension = extensionOf(fileName);
+        String base = fileName.substring(0, fileName.length() - extension.length() - 1);
+        boolean png = extension.equals("png") || extension.equals("gif");
+        return base + "_" + size + (png ? ".png" : ".jpg");
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
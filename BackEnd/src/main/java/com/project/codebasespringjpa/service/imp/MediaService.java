@@ -0,0 +1,387 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.storage.MediaStore;
+import com.project.codebasespringjpa.service.interfaces.IHlsService;
+import com.project.codebasespringjpa.service.interfaces.IImageDerivativeService;
+import com.project.codebasespringjpa.service.interfaces.IMediaService;
+import com.project.codebasespringjpa.util.DiskLruCache;
+import com.project.codebasespringjpa.util.Mp4Faststart;
+import com.project.codebasespringjpa.util.ResponseChannel;
+import com.project.codebasespringjpa.util.ZipBundle;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// Phục vụ file media có hỗ trợ Range/If-Range; store local thì byte đi thẳng từ page cache ra socket
+@Slf4j
+@Service
+public class MediaService implements IMediaService {
+    // Tomcat NIO tự gửi file bằng sendfile trên poller thread sau khi servlet trả về
+    public static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // BandwidthFilter đặt khi đang giới hạn băng thông tải xuống
+    public static final String SENDFILE_ADMISSION = MediaService.class.getName() + ".sendfileAdmission";
+    // BandwidthFilter đặt: số byte tối đa mỗi lượt sendfile (Long). Tomcat không báo lúc gửi xong nên lượt sendfile
+    // không giữ được slot tải xuống và chỉ được ghi nợ token một lần: đoạn dài hơn phải đi đường stream
+    public static final String SENDFILE_MAX_BYTES = MediaService.class.getName() + ".sendfileMaxBytes";
+    static final int MAX_RANGES = 16;
+    static final long COALESCE_GAP = 128;
+    static final Pattern HLS_NAME = Pattern.compile("^[A-Za-z0-9_-]+(\\.[A-Za-z0-9]+)?$");
+
+    // Xin token cho `bytes` byte sắp gửi bằng sendfile
+    public interface SendfileAdmission {
+        void admit(long bytes) throws IOException;
+    }
+
+    record Range(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    // Nguồn byte: file local (path != null), ZIP ghép (bundle) hoặc object trên store
+    // sendfile = false khi file chỉ được giữ trong lúc servlet chạy (ảnh thu nhỏ trong cache LRU)
+    record Source(String key, Path path, ZipBundle bundle, long length, long lastModified, String etag,
+                  boolean sendfile) {
+        static Source of(String key, Path path, long length, long lastModified) {
+            return new Source(key, path, null, length, lastModified, MediaService.etag(length, lastModified),
+                    path != null);
+        }
+
+        static Source pinned(Path path, long length, long lastModified) {
+            return new Source(null, path, null, length, lastModified, MediaService.etag(length, lastModified), false);
+        }
+    }
+
+    @Autowired
+    IImageDerivativeService imageDerivativeService;
+    @Autowired
+    MediaStore mediaStore;
+    @Autowired
+    IHlsService hlsService;
+
+    // Store local + một range (hoặc không Range): servlet chỉ đặt attribute rồi trả về, poller của Tomcat gửi file.
+    // Ảnh thu nhỏ, nhiều range, store từ xa phải tự ghi body nên vẫn chạy trên pool media
+    @Override
+    public boolean isSendfile(String fileName, String size, HttpServletRequest request) {
+        return size == null && this.canSendfile(fileName, request);
+    }
+
+    @Override
+    public boolean isHlsSendfile(String name, String file, HttpServletRequest request) {
+        return HLS_NAME.matcher(name).matches() && HLS_NAME.matcher(file).matches()
+                && this.canSendfile(HlsService.HLS_DIR + "/" + name + "/" + file, request);
+    }
+
+    @Override
+    public void serve(String fileName, String size, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        MediaStore.ObjectInfo info = mediaStore.stat(fileName);
+        if (info == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Lần phát đầu của video cũ (upload trước khi có HLS): xếp hàng đóng gói cho các lần sau
+        if (isFirstPlay(request) && Mp4Faststart.isMp4(fileName))
+            hlsService.schedule(fileName);
+        // Có size thì ưu tiên ảnh thu nhỏ, chưa có thì trả ảnh gốc
+        // Giữ ảnh thu nhỏ tới khi gửi xong để cache không xoá nó giữa chừng
+        try (DiskLruCache.Handle derivative = size != null ? imageDerivativeService.resolve(fileName, size) : null) {
+            Source source;
+            if (derivative != null) {
+                Path path = derivative.path();
+                fileName = path.getFileName().toString();
+                source = Source.pinned(path, Files.size(path), Files.getLastModifiedTime(path).toMillis());
+            } else {
+                source = Source.of(fileName, mediaStore.sendfilePath(fileName), info.size(), info.lastModified());
+            }
+            this.serveSource(source, MediaTypeFactory.getMediaType(fileName)
+                    .map(MediaType::toString)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE), request, response);
+        }
+    }
+
+    // Playlist/segment HLS: tên theo hash nội dung nên cache vĩnh viễn được
+    @Override
+    public void serveHls(String name, String file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String key = HlsService.HLS_DIR + "/" + name + "/" + file;
+        MediaStore.ObjectInfo info = HLS_NAME.matcher(name).matches() && HLS_NAME.matcher(file).matches()
+                ? mediaStore.stat(key) : null;
+        if (info == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String contentType = file.endsWith(".m3u8") ? "application/vnd.apple.mpegurl"
+                : file.endsWith(".m4s") ? "video/iso.segment" : "video/mp4";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        this.serveSource(Source.of(key, mediaStore.sendfilePath(key), info.size(), info.lastModified()),
+                contentType, request, response);
+    }
+
+    // ETag lấy từ central directory nên đổi bài học là đổi ETag, If-Range không ghép nhầm hai phiên bản
+    @Override
+    public void serveBundle(ZipBundle bundle, String downloadName, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(downloadName, StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        this.serveSource(new Source(null, null, bundle, bundle.length(), bundle.lastModified(), bundle.etag(), false),
+                "application/zip", request, response);
+    }
+
+    private void serveSource(Source source, String contentType, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        long length = source.length();
+        long lastModified = source.lastModified();
+        String etag = source.etag();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        // If-None-Match theo RFC 9110 §13.1.2 (danh sách, "*", so sánh weak), không có thì xét If-Modified-Since
+        // Spring không coi "*" là khớp với GET/HEAD: file tồn tại thì "*" luôn khớp
+        if (isWildcard(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified))
+            return;
+
+        List<Range> ranges = this.parseRanges(request, length, etag, lastModified);
+        if (ranges == null) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            this.sendSingle(source, new Range(0, length - 1), request, response);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            Range range = ranges.get(0);
+            // Range dài được trả ngắn lại (RFC 9110 §14.4 cho phép): trình phát video tự xin đoạn tiếp theo
+            long max = sendfileMax(request);
+            if (usesSendfile(source, request) && range.length() > max)
+                range = new Range(range.start(), range.start() + max - 1);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + length);
+            this.sendSingle(source, range, request, response);
+        } else {
+            this.sendMultipart(source, ranges, length, contentType, request, response);
+        }
+    }
+
+    private boolean canSendfile(String key, HttpServletRequest request) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) || (range != null && range.indexOf(',') >= 0))
+            return false;
+        Path path = mediaStore.sendfilePath(key);
+        if (path == null)
+            return false;
+        if (range != null)
+            return true;
+        // Không có Range phải gửi cả file: lớn hơn giới hạn thì ghi trên pool media, giữ slot tới khi gửi xong
+        try {
+            return Files.size(path) <= sendfileMax(request);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean usesSendfile(Source source, HttpServletRequest request) {
+        return source.sendfile() && !request.isAsyncStarted()
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+    }
+
+    private static long sendfileMax(HttpServletRequest request) {
+        return request.getAttribute(SENDFILE_MAX_BYTES) instanceof Long max ? max : Long.MAX_VALUE;
+    }
+
+    // Trình duyệt mở video bằng GET không Range hoặc "bytes=0-"; các lượt tua sau không tính
+    private static boolean isFirstPlay(HttpServletRequest request) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        return "GET".equals(request.getMethod()) && (range == null || range.startsWith("bytes=0-"));
+    }
+
+    public static String etag(long length, long lastModified) {
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private static boolean isWildcard(String ifNoneMatch) {
+        return ifNoneMatch != null && ifNoneMatch.trim().equals("*");
+    }
+
+    // null: không có range nào hợp lệ (416); rỗng: trả cả file
+    private List<Range> parseRanges(HttpServletRequest request, long length, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || length == 0 || !this.ifRangeMatches(request, etag, lastModified))
+            return List.of();
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // Quá nhiều range thì bỏ qua header, trả cả file (RFC 9110 cho phép)
+        if (httpRanges.size() > MAX_RANGES)
+            return List.of();
+        List<Range> ranges = new ArrayList<>(httpRanges.size());
+        for (HttpRange httpRange : httpRanges) {
+            // getRangeEnd chỉ kẹp đầu cuối về length - 1: đầu vào vượt EOF phải tự loại
+            try {
+                long start = httpRange.getRangeStart(length);
+                if (start < length)
+                    ranges.add(new Range(start, httpRange.getRangeEnd(length)));
+            } catch (IllegalArgumentException e) {
+                // Range nằm ngoài file: bỏ qua, chỉ 416 khi không còn range nào
+            }
+        }
+        return ranges.isEmpty() ? null : coalesce(ranges);
+    }
+
+    // Gộp các range chồng nhau hoặc cách nhau ít hơn phần header của một part (RFC 9110 §14.3):
+    // còn một range thì trả single-part, đi được sendfile
+    static List<Range> coalesce(List<Range> ranges) {
+        if (ranges.size() < 2)
+            return ranges;
+        List<Range> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(Range::start));
+        List<Range> merged = new ArrayList<>(sorted.size());
+        Range current = sorted.get(0);
+        for (int i = 1; i < sorted.size(); i++) {
+            Range next = sorted.get(i);
+            if (next.start() <= current.end() + 1 + COALESCE_GAP) {
+                current = new Range(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null)
+            return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+            return ifRange.equals(etag);
+        try {
+            return lastModified / 1000 <= request.getDateHeader(HttpHeaders.IF_RANGE) / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void sendSingle(Source source, Range range, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setContentLengthLong(range.length());
+        // Hết slot tải xuống: BandwidthFilter đã trả 503 thì không gửi body
+        if (response.isCommitted() || "HEAD".equals(request.getMethod()) || range.length() <= 0)
+            return;
+        // Request đã chuyển sang pool media (async) thì tự stream, không giao lại cho sendfile của Tomcat;
+        // controller chỉ chuyển sang pool khi isSendfile = false. Đoạn vượt giới hạn (If-Range cũ trả cả file)
+        // thì ghi ngay trên thread này để slot được giữ tới khi gửi xong
+        if (usesSendfile(source, request) && range.length() <= sendfileMax(request)) {
+            if (request.getAttribute(SENDFILE_ADMISSION) instanceof SendfileAdmission admission)
+                admission.admit(range.length());
+            request.setAttribute(SENDFILE_FILENAME, source.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+        WritableByteChannel channel = ResponseChannel.of(response);
+        if (source.path() == null) {
+            this.transfer(source, range, channel);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(source.path(), StandardOpenOption.READ)) {
+            this.transfer(file, range, channel);
+        }
+    }
+
+    private void sendMultipart(Source source, List<Range> ranges, long length, String contentType,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String boundary = UUID.randomUUID().toString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (Range range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + range.start() + "-" + range.end() + "/" + length
+                    + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + range.length();
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += end.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (response.isCommitted() || "HEAD".equals(request.getMethod()))
+            return;
+        // Header của part cũng đi qua cùng kênh ByteBuffer, không trộn stream với channel
+        WritableByteChannel channel = ResponseChannel.of(response);
+        FileChannel file = source.path() != null ? FileChannel.open(source.path(), StandardOpenOption.READ) : null;
+        try {
+            for (int i = 0; i < ranges.size(); i++) {
+                Range range = ranges.get(i);
+                writeFully(channel, ByteBuffer.wrap(partHeaders.get(i)));
+                if (file != null)
+                    this.transfer(file, range, channel);
+                else
+                    this.transfer(source, range, channel);
+            }
+        } finally {
+            if (file != null)
+                file.close();
+        }
+        writeFully(channel, ByteBuffer.wrap(end));
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    private void transfer(Source source, Range range, WritableByteChannel target) throws IOException {
+        if (source.bundle() != null)
+            source.bundle().transferTo(range.start(), range.length(), target);
+        else
+            mediaStore.transferTo(source.key(), range.start(), range.length(), target);
+    }
+
+    private void transfer(FileChannel file, Range range, WritableByteChannel target) throws IOException {
+        ResponseChannel.transfer(file, range.start(), range.length(), target);
+    }
+}
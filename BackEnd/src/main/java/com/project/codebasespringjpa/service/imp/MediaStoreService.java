@@ -0,0 +1,209 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.staticAsset.StaticAssetCache;
+import com.project.codebasespringjpa.configuration.storage.MediaStore;
+import com.project.codebasespringjpa.entity.MediaBlobEntity;
+import com.project.codebasespringjpa.repository.IMediaBlobRepository;
+import com.project.codebasespringjpa.service.interfaces.IHlsService;
+import com.project.codebasespringjpa.service.interfaces.IImageDerivativeService;
+import com.project.codebasespringjpa.service.interfaces.IMediaStoreService;
+import com.project.codebasespringjpa.util.Mp4Faststart;
+import com.project.codebasespringjpa.util.UtilFile;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Kho file theo nội dung (SHA-256): file trùng chỉ lưu một lần, file không còn ai tham chiếu sẽ bị dọn
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MediaStoreService implements IMediaStoreService {
+    static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    IMediaBlobRepository mediaBlobRepository;
+    @Autowired
+    IImageDerivativeService imageDerivativeService;
+    @Autowired
+    StaticAssetCache staticAssetCache;
+    @Autowired
+    IHlsService hlsService;
+    @Autowired
+    MediaStore mediaStore;
+    @Value("${media.RECLAIM_GRACE_MS}")
+    long graceMillis;
+    @Value("${upload.TEMP_DIR}")
+    String tempDir;
+
+    // Lưu file và dọn file cùng hash không được chạy xen nhau
+    final Object[] locks = new Object[LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++)
+            locks[i] = new Object();
+    }
+
+    @Override
+    public String store(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) throw new IllegalArgumentException("File empty");
+        Path dir = Paths.get(tempDir);
+        Files.createDirectories(dir);
+        Path temp = dir.resolve(UUID.randomUUID() + ".part");
+        String sha256;
+        try {
+            // Part đã được Tomcat ghi ra đĩa (file-size-threshold=0): transferTo(File) đổi tên file đó, không chép lại
+            // (transferTo(Path) của Spring luôn copy qua stream)
+            file.transferTo(temp.toFile());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ)) {
+                sha256 = UtilFile.sha256Hex(channel, channel.size());
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return this.storeFile(temp, sha256, Files.size(temp), file.getOriginalFilename());
+    }
+
+    @Override
+    public String storeFile(Path source, String sha256, long size, String originalFilename) throws IOException {
+        // Faststart và CRC đọc cả file: làm trước khi lấy lock để upload lớn không chặn các file khác cùng stripe
+        Path stored = this.faststart(source, UtilFile.contentAddressedName(sha256, originalFilename));
+        try {
+            long crc32;
+            try (InputStream in = Files.newInputStream(stored)) {
+                crc32 = UtilFile.crc32(in);
+            }
+            return this.publish(stored, sha256, size, originalFilename, crc32);
+        } finally {
+            // Đã faststart thì file gốc không được lưu; bản faststart đã được chuyển vào store (hoặc bỏ nếu lỗi)
+            if (stored != source) {
+                Files.deleteIfExists(source);
+                Files.deleteIfExists(stored);
+            }
+        }
+    }
+
+    private String publish(Path source, String sha256, long size, String originalFilename, long crc32)
+            throws IOException {
+        synchronized (this.lockFor(sha256)) {
+            MediaBlobEntity blob = mediaBlobRepository.findByHash(sha256).orElse(null);
+            if (blob != null && this.exists(blob.getFileName())) {
+                Files.deleteIfExists(source);
+                mediaBlobRepository.touch(blob.getId(), LocalDateTime.now());
+                return blob.getFileName();
+            }
+            String fileName = blob != null ? blob.getFileName() : UtilFile.contentAddressedName(sha256, originalFilename);
+            Double duration = Mp4Faststart.isMp4(fileName) ? Mp4Faststart.readDurationSeconds(source) : null;
+            mediaStore.put(fileName, source);
+            // Tên này có thể đã bị nhớ là "không có" trước khi upload
+            staticAssetCache.evict(fileName);
+            if (blob == null) {
+                blob = MediaBlobEntity.builder()
+                        .hash(sha256)
+                        .fileName(fileName)
+                        .size(size)
+                        .refCount(0)
+                        .build();
+            }
+            blob.setLastUsed(LocalDateTime.now());
+            blob.setDuration(duration);
+            blob.setCrc32(crc32);
+            mediaBlobRepository.save(blob);
+            imageDerivativeService.scheduleDerivatives(fileName);
+            if (Mp4Faststart.isMp4(fileName))
+                hlsService.schedule(fileName);
+            return fileName;
+        }
+    }
+
+    // Client kiểm tra hash trước khi upload; có rồi thì dùng luôn tên file
+    @Override
+    public String findByHash(String sha256) {
+        if (sha256 == null)
+            return null;
+        MediaBlobEntity blob = mediaBlobRepository.findByHash(sha256.trim().toLowerCase()).orElse(null);
+        if (blob == null || !this.exists(blob.getFileName()))
+            return null;
+        // Gia hạn để reclaimer không xoá trong lúc client đang gắn file vào entity
+        mediaBlobRepository.touch(blob.getId(), LocalDateTime.now());
+        return blob.getFileName();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${media.RECLAIM_INTERVAL_MS}", initialDelayString = "${media.RECLAIM_INTERVAL_MS}")
+    public void reclaim() {
+        mediaBlobRepository.recountReferences();
+        // File vừa upload chưa kịp gắn vào entity vẫn có ref_count = 0, nên chỉ xoá sau thời gian chờ
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(graceMillis));
+        int reclaimed = 0;
+        for (MediaBlobEntity blob : mediaBlobRepository.findUnreferenced(before)) {
+            synchronized (this.lockFor(blob.getHash())) {
+                if (mediaBlobRepository.deleteIfUnreferenced(blob.getId(), before) == 0)
+                    continue;
+                try {
+                    mediaStore.delete(blob.getFileName());
+                    staticAssetCache.evict(blob.getFileName());
+                    imageDerivativeService.delete(blob.getFileName());
+                    hlsService.delete(blob.getFileName());
+                    reclaimed++;
+                } catch (IOException e) {
+                    log.warn("Khong the xoa file {}: {}", blob.getFileName(), e.getMessage());
+                }
+            }
+        }
+        if (reclaimed > 0)
+            log.info("Reclaimed {} unreferenced media files", reclaimed);
+    }
+
+    // Video MP4 được đưa moov lên đầu để trình duyệt phát ngay, trên file tạm trước khi lưu: tên file được đánh dấu
+    // immutable nên byte dưới tên đó không bao giờ đổi sau khi công khai. Tên vẫn theo hash của file client gửi lên
+    // (khoá chống trùng); bản faststart được suy ra cố định từ nội dung đó
+    // Không xử lý được thì lưu nguyên file gốc (vẫn phát được, chỉ chậm bắt đầu hơn)
+    Path faststart(Path source, String fileName) {
+        if (!Mp4Faststart.isMp4(fileName))
+            return source;
+        Path work = Paths.get(tempDir).resolve("faststart-" + UUID.randomUUID());
+        try {
+            if (Mp4Faststart.rewrite(source, work)) {
+                log.info("Faststart rewrite {}", fileName);
+                return work;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Khong the faststart {}: {}", fileName, e.getMessage());
+        }
+        try {
+            Files.deleteIfExists(work);
+        } catch (IOException ignored) {
+            // Chỉ là file tạm trong TEMP_DIR
+        }
+        return source;
+    }
+
+    private boolean exists(String fileName) {
+        try {
+            return mediaStore.exists(fileName);
+        } catch (IOException e) {
+            log.warn("Khong the kiem tra file {}: {}", fileName, e.getMessage());
+            return false;
+        }
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -1,5 +1,7 @@
 package com.project.codebasespringjpa.service.imp;
 
+import com.project.codebasespringjpa.configuration.dashboard.DashboardEvent;
+import com.project.codebasespringjpa.configuration.dashboard.SeriesEvent;
 import com.project.codebasespringjpa.dto.program.request.ProgramRegisterRequest;
 import com.project.codebasespringjpa.dto.program.request.ProgramRequest;
 import com.project.codebasespringjpa.dto.program.request.ProgramSearch;
@@ -7,6 +9,7 @@ import com.project.codebasespringjpa.dto.program.response.ProgramResponse;
 import com.project.codebasespringjpa.dto.user.response.UserResponse;
 import com.project.codebasespringjpa.entity.ProgramEntity;
 import com.project.codebasespringjpa.entity.UserEntity;
+import com.project.codebasespringjpa.enums.SeriesMetricEnum;
 import com.project.codebasespringjpa.exception.AppException;
 import com.project.codebasespringjpa.exception.ErrorCode;
 import com.project.codebasespringjpa.mapper.ProgramMapper;
@@ -14,12 +17,15 @@ import com.project.codebasespringjpa.mapper.UserMapper;
 import com.project.codebasespringjpa.repository.IProgramRepository;
 import com.project.codebasespringjpa.repository.IUserRepository;
 import com.project.codebasespringjpa.service.interfaces.IProgramService;
+import com.project.codebasespringjpa.service.interfaces.IProgramStatService;
 import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import java.time.LocalDate;
 import java.time.LocalTime;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -39,6 +45,10 @@ public class ProgramService implements IProgramService {
     IUserRepository userRepository;
     @Autowired
     UserMapper userMapper;
+    @Autowired
+    IProgramStatService programStatService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public ProgramEntity findEntityById(Long id) {
@@ -48,6 +58,8 @@ public class ProgramService implements IProgramService {
     @Override
     public ProgramResponse create(ProgramRequest request) {
         ProgramEntity save = programRepository.save(programMapper.toEntity(request));
+        programStatService.add(save);
+        eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.PROGRAM, 1));
         log.info("save entity programe = " + save.toString());
         return programMapper.toResponse(save);
     }
@@ -61,6 +73,8 @@ public class ProgramService implements IProgramService {
             log.error("Can not get time in request program: " + e.getMessage());
         }
         ProgramEntity programUpdate = this.findEntityById(id);
+        LocalDate oldDate = programUpdate.getDate();
+        String oldAddress = programUpdate.getAddress();
         programUpdate.setTitle(request.getTitle());
         programUpdate.setAddress(request.getAddress());
         programUpdate.setDate(request.getDate());
@@ -68,6 +82,12 @@ public class ProgramService implements IProgramService {
         programUpdate.setStatus(request.getStatus());
         programUpdate.setCapacity(request.getCapacity());
         programUpdate.setDescription(request.getDescription());
+        programStatService.move(oldDate, oldAddress, programUpdate);
+        // Lượt đăng ký được tính theo ngày chương trình: đổi ngày thì cả hai ngày trong chuỗi thống kê đều đổi
+        if (oldDate != null && !oldDate.equals(programUpdate.getDate())) {
+            eventPublisher.publishEvent(new SeriesEvent(SeriesMetricEnum.REGISTRATION, oldDate));
+            eventPublisher.publishEvent(new SeriesEvent(SeriesMetricEnum.REGISTRATION, programUpdate.getDate()));
+        }
         return programMapper.toResponse(programRepository.save(programUpdate));
     }
 
@@ -92,6 +112,9 @@ public class ProgramService implements IProgramService {
             throw new AppException(ErrorCode.CAPACITY_FULL);
         user.getPrograms().add(programEntity);
         userRepository.save(user);
+        programStatService.addRegister(programEntity);
+        eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.REGISTRATION, 1));
+        eventPublisher.publishEvent(new SeriesEvent(SeriesMetricEnum.REGISTRATION, programEntity.getDate()));
     }
 
     @Override
@@ -132,7 +155,17 @@ public class ProgramService implements IProgramService {
     @Override
     public void delete(Long id) {
         ProgramEntity programFind = this.findEntityById(id);
+        programStatService.remove(programFind);
+        if (!Boolean.TRUE.equals(programFind.getIsDelete())) {
+            eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.PROGRAM, -1));
+            // Lượt đăng ký của chương trình đã xoá không còn được đếm
+            long registered = programFind.getUsers() == null ? 0
+                    : programFind.getUsers().stream().filter(it -> !Boolean.TRUE.equals(it.getIsDelete())).count();
+            if (registered > 0)
+                eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.REGISTRATION, -registered));
+        }
         programFind.setIsDelete(true);
         programRepository.save(programFind);
+        eventPublisher.publishEvent(new SeriesEvent(SeriesMetricEnum.REGISTRATION, programFind.getDate()));
     }
 }
\ No newline at end of file
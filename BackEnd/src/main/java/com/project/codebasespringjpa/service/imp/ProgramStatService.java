@@ -0,0 +1,110 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.entity.ProgramEntity;
+import com.project.codebasespringjpa.entity.ProgramStatEntity;
+import com.project.codebasespringjpa.repository.IProgramStatRepository;
+import com.project.codebasespringjpa.service.interfaces.IProgramStatService;
+import jakarta.transaction.Transactional;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Giữ tbl_program_stat khớp với tbl_program/tbl_user_program; chạy trong transaction của ProgramService
+@Slf4j
+@Service
+@Transactional
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProgramStatService implements IProgramStatService {
+    @Autowired
+    IProgramStatRepository programStatRepository;
+
+    @Override
+    public void add(ProgramEntity program) {
+        if (isCounted(program))
+            this.increment(program.getDate(), program.getAddress(), 1, registersOf(program));
+    }
+
+    @Override
+    public void remove(ProgramEntity program) {
+        if (isCounted(program))
+            this.increment(program.getDate(), program.getAddress(), -1, -registersOf(program));
+    }
+
+    // Gọi khi đổi ngày/địa chỉ: chuyển chương trình (kèm lượt đăng ký) sang ô mới
+    @Override
+    public void move(LocalDate oldDate, String oldAddress, ProgramEntity program) {
+        if (Boolean.TRUE.equals(program.getIsDelete()))
+            return;
+        if (Objects.equals(oldDate, program.getDate())
+                && Objects.equals(locationOf(oldAddress), locationOf(program.getAddress())))
+            return;
+        long registers = registersOf(program);
+        if (oldDate != null)
+            this.increment(oldDate, oldAddress, -1, -registers);
+        if (program.getDate() != null)
+            this.increment(program.getDate(), program.getAddress(), 1, registers);
+    }
+
+    @Override
+    public void addRegister(ProgramEntity program) {
+        if (isCounted(program))
+            this.increment(program.getDate(), program.getAddress(), 0, 1);
+    }
+
+    // Xoá và tính lại từ đầu; trả về số ô lệch so với trước khi rebuild (0 = bảng tổng hợp đang đúng)
+    @Override
+    public Integer rebuild() {
+        Map<String, ProgramStatEntity> before = snapshot();
+        programStatRepository.deleteAllRows();
+        int rows = programStatRepository.rebuildAll();
+        Map<String, ProgramStatEntity> after = snapshot();
+        int mismatched = 0;
+        for (Map.Entry<String, ProgramStatEntity> entry : after.entrySet()) {
+            ProgramStatEntity old = before.remove(entry.getKey());
+            if (old == null || !old.getCntProgram().equals(entry.getValue().getCntProgram())
+                    || !old.getCntRegister().equals(entry.getValue().getCntRegister()))
+                mismatched++;
+        }
+        // Ô còn lại trong before chỉ đúng nếu đã về 0
+        for (ProgramStatEntity old : before.values()) {
+            if (old.getCntProgram() != 0 || old.getCntRegister() != 0)
+                mismatched++;
+        }
+        log.info("Rebuilt program stats: {} rows, {} mismatched", rows, mismatched);
+        return mismatched;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return programStatRepository.count() == 0;
+    }
+
+    private void increment(LocalDate date, String address, long programs, long registers) {
+        programStatRepository.increment(date.getYear(), date.getMonthValue(), locationOf(address), programs, registers);
+    }
+
+    private Map<String, ProgramStatEntity> snapshot() {
+        Map<String, ProgramStatEntity> result = new HashMap<>();
+        for (ProgramStatEntity it : programStatRepository.findAll())
+            result.put(it.getStatYear() + "|" + it.getStatMonth() + "|" + it.getLocation(), it);
+        return result;
+    }
+
+    private static boolean isCounted(ProgramEntity program) {
+        return program.getDate() != null && !Boolean.TRUE.equals(program.getIsDelete());
+    }
+
+    private static long registersOf(ProgramEntity program) {
+        return program.getUsers() == null ? 0 : program.getUsers().size();
+    }
+
+    private static String locationOf(String address) {
+        return address == null ? "" : address;
+    }
+}
@@ -1,12 +1,12 @@
 package com.project.codebasespringjpa.service.imp;
 
+import com.project.codebasespringjpa.configuration.dashboard.DashboardCounters;
 import com.project.codebasespringjpa.dto.statics.ProgramLocationResponse;
+import com.project.codebasespringjpa.dto.statics.ProgramLocationStat;
+import com.project.codebasespringjpa.dto.statics.ProgramMonthStat;
 import com.project.codebasespringjpa.dto.statics.StaticProgramResponse;
 import com.project.codebasespringjpa.dto.statics.DashboardResponse;
-import com.project.codebasespringjpa.entity.ProgramEntity;
-import com.project.codebasespringjpa.repository.ICourseRepository;
-import com.project.codebasespringjpa.repository.IProgramRepository;
-import com.project.codebasespringjpa.repository.IUserRepository;
+import com.project.codebasespringjpa.repository.IProgramStatRepository;
 import com.project.codebasespringjpa.service.interfaces.*;
 import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
@@ -15,47 +15,36 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class StaticService implements IStaticService {
     @Autowired
-    IUserRepository userRepository;
+    IProgramStatRepository programStatRepository;
     @Autowired
-    ICourseRepository courseRepository;
-    @Autowired
-    IProgramRepository programRepository;
+    DashboardCounters dashboardCounters;
 
     @Override
     public DashboardResponse getDashboard() {
-        return DashboardResponse.builder()
-                .cntUser(userRepository.cntUserActice())
-                .cntSpecialist(userRepository.cntSpecialistActive())
-                .cntCourse(courseRepository.countCourseActive())
-                .cntProgram(programRepository.countProgramActive())
-                .build();
+        return dashboardCounters.snapshot();
     }
 
     @Override
     public List<StaticProgramResponse> getStaticProgram(int year) {
+        // Luôn trả đủ 12 tháng, tháng không có chương trình = 0
         List<StaticProgramResponse> result = new ArrayList<>();
         for (int i = 1; i <= 12; i++) {
-            List<ProgramEntity> programs = programRepository.findByMonthAndYear(i, year);
-            if (programs != null) {
-                Integer register = 0;
-                for (var it : programs) {
-                    if (it.getUsers() != null)
-                        register += it.getUsers().size();
-                }
-                StaticProgramResponse response = StaticProgramResponse.builder()
-                        .cntProgram(programs.size())
-                        .cntRegister(register)
-                        .build();
-                result.add(response);
-            }
+            result.add(StaticProgramResponse.builder()
+                    .cntProgram(0)
+                    .cntRegister(0)
+                    .build());
+        }
+        // Đọc từ bảng tổng hợp: tối đa 12 x số địa điểm dòng
+        for (ProgramMonthStat stat : programStatRepository.countByMonth(year)) {
+            StaticProgramResponse response = result.get(stat.getMonthValue() - 1);
+            response.setCntProgram(stat.getCntProgram().intValue());
+            response.setCntRegister(stat.getCntRegister().intValue());
         }
         return result;
     }
@@ -63,21 +52,11 @@ public class StaticService implements IStaticService {
     @Override
     public List<ProgramLocationResponse> getCountLocation(int year) {
         List<ProgramLocationResponse> result = new ArrayList<>();
-        List<ProgramEntity> programs = programRepository.findByYear(year);
-        if (programs != null && !programs.isEmpty()) {
-            // Dùng Map để nhóm theo address và đếm
-            Map<String, Long> locationCountMap = programs.stream()
-                    .filter(p -> p.getDate() != null && p.getDate().getYear() == year)
-                    .collect(Collectors.groupingBy(
-                            ProgramEntity::getAddress,
-                            Collectors.counting()));
-            // Chuyển thành response
-            for (Map.Entry<String, Long> entry : locationCountMap.entrySet()) {
-                ProgramLocationResponse response = new ProgramLocationResponse();
-                response.setLocation(entry.getKey());
-                response.setCount(entry.getValue().intValue());
-                result.add(response);
-            }
+        for (ProgramLocationStat stat : programStatRepository.countByLocation(year)) {
+            ProgramLocationResponse response = new ProgramLocationResponse();
+            response.setLocation(stat.getLocation());
+            response.setCount(stat.getCnt().intValue());
+            result.add(response);
         }
         return result;
     }
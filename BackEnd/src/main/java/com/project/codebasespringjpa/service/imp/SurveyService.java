@@ -1,5 +1,6 @@
 package com.project.codebasespringjpa.service.imp;
 
+import com.project.codebasespringjpa.configuration.dashboard.DashboardEvent;
 import com.project.codebasespringjpa.dto.answer.request.AnswerRequest;
 import com.project.codebasespringjpa.dto.question.request.QuestionRequest;
 import com.project.codebasespringjpa.dto.survey.request.SurveyRequest;
@@ -25,6 +26,7 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -47,6 +49,8 @@ public class SurveyService implements ISurveyService {
     SurveyResultMapper surveyResultMapper;
     @Autowired
     ISurveyResultRepository surveyResultRepository;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public SurveyEntity findEntityById(Long id) {
@@ -134,7 +138,9 @@ public class SurveyService implements ISurveyService {
     @Override
     public SurveyResultResponse mark(SurveyResultRequest request) {
         SurveyResultEntity entity = surveyResultMapper.toEntity(request);
-        return surveyResultMapper.toResponse(surveyResultRepository.save(entity));
+        SurveyResultResponse response = surveyResultMapper.toResponse(surveyResultRepository.save(entity));
+        eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.SURVEY, 1));
+        return response;
     }
 
     @Override
@@ -0,0 +1,214 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.codebasespringjpa.configuration.dashboard.SeriesEvent;
+import com.project.codebasespringjpa.dto.statics.AppointmentDayStat;
+import com.project.codebasespringjpa.dto.statics.RegistrationDayStat;
+import com.project.codebasespringjpa.dto.statics.SeriesPointResponse;
+import com.project.codebasespringjpa.dto.statics.SeriesSearch;
+import com.project.codebasespringjpa.dto.statics.SurveyDayStat;
+import com.project.codebasespringjpa.enums.GranularityEnum;
+import com.project.codebasespringjpa.enums.SeriesMetricEnum;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.repository.IAppointmentRepository;
+import com.project.codebasespringjpa.repository.IProgramRepository;
+import com.project.codebasespringjpa.repository.ISurveyResultRepository;
+import com.project.codebasespringjpa.service.interfaces.ITimeSeriesService;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+// Thống kê theo ngày/tuần trên khoảng bất kỳ: DB chỉ trả số đếm theo ngày, gộp tuần/lọc/nhóm làm trong Java
+// Ngày đã qua hầu như không đổi nên được cache; lần hỏi lại chỉ xuống DB cho hôm nay và các ngày chưa có trong cache
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TimeSeriesService implements ITimeSeriesService {
+    // Số đếm của một ngày theo chiều (status/specialist/survey); chiều không dùng thì null
+    record Row(String status, Long ref, long count) {
+    }
+
+    record DayKey(SeriesMetricEnum metric, LocalDate day) {
+    }
+
+    @Autowired
+    IAppointmentRepository appointmentRepository;
+    @Autowired
+    ISurveyResultRepository surveyResultRepository;
+    @Autowired
+    IProgramRepository programRepository;
+    @Value("${stats.SERIES_MAX_DAYS}")
+    long maxDays;
+    @Value("${stats.SERIES_CACHE_DAYS}")
+    long cacheDays;
+    @Value("${stats.SERIES_CACHE_TTL_MS}")
+    long cacheTtl;
+
+    Cache<DayKey, List<Row>> closedDays;
+
+    @PostConstruct
+    void init() {
+        closedDays = Caffeine.newBuilder()
+                .maximumSize(cacheDays)
+                // Node khác và sửa thẳng trong DB không phát SeriesEvent: ngày cache cũ nhất cũng chỉ lệch tối đa TTL
+                .expireAfterWrite(Duration.ofMillis(cacheTtl))
+                .build();
+    }
+
+    @Override
+    public List<SeriesPointResponse> getSeries(SeriesSearch search) {
+        LocalDate from = search.getFrom();
+        LocalDate to = search.getTo();
+        if (search.getMetric() == null || from == null || to == null || to.isBefore(from) || !supports(search))
+            throw new AppException(ErrorCode.STATS_RANGE_INVALID);
+        boolean weekly = search.getGranularity() == GranularityEnum.WEEK;
+        // Tuần luôn đủ 7 ngày: mở rộng về thứ Hai đầu và Chủ nhật cuối
+        if (weekly) {
+            from = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            to = to.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > maxDays)
+            throw new AppException(ErrorCode.STATS_RANGE_INVALID);
+
+        Map<LocalDate, List<Row>> days = this.load(search.getMetric(), from, to.plusDays(1));
+        // bucket -> group -> count, giữ thứ tự thời gian
+        TreeMap<LocalDate, Map<String, Long>> buckets = new TreeMap<>();
+        Set<String> groups = new TreeSet<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(weekly ? 7 : 1))
+            buckets.put(day, new HashMap<>());
+        for (Map.Entry<LocalDate, List<Row>> entry : days.entrySet()) {
+            LocalDate bucket = weekly
+                    ? entry.getKey().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    : entry.getKey();
+            for (Row row : entry.getValue()) {
+                if (!matches(search, row))
+                    continue;
+                String group = groupOf(search, row);
+                groups.add(group);
+                buckets.get(bucket).merge(group, row.count(), Long::sum);
+            }
+        }
+        if (groups.isEmpty() && search.getGroup() == null)
+            groups.add(null);
+
+        // Bucket không có dữ liệu vẫn trả về với count = 0 để biểu đồ không bị đứt
+        List<SeriesPointResponse> result = new ArrayList<>();
+        for (Map.Entry<LocalDate, Map<String, Long>> entry : buckets.entrySet()) {
+            for (String group : groups) {
+                result.add(SeriesPointResponse.builder()
+                        .bucket(entry.getKey())
+                        .group(group)
+                        .count(entry.getValue().getOrDefault(group, 0L))
+                        .build());
+            }
+        }
+        return result;
+    }
+
+    // Sửa dữ liệu của ngày cũ (lịch hẹn đổi trạng thái/ngày, bị xoá): bỏ ngày đó khỏi cache sau khi commit
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEvent(SeriesEvent event) {
+        if (event.day() != null)
+            closedDays.invalidate(new DayKey(event.metric(), event.day()));
+    }
+
+    // Ngày [from, to): lấy từ cache, phần còn thiếu đọc bằng một câu range query
+    private Map<LocalDate, List<Row>> load(SeriesMetricEnum metric, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<Row>> result = new HashMap<>();
+        LocalDate missingFrom = null;
+        LocalDate missingTo = null;
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            List<Row> cached = closedDays.getIfPresent(new DayKey(metric, day));
+            if (cached != null) {
+                result.put(day, cached);
+            } else {
+                if (missingFrom == null)
+                    missingFrom = day;
+                missingTo = day.plusDays(1);
+            }
+        }
+        if (missingFrom == null)
+            return result;
+
+        Map<LocalDate, List<Row>> fresh = this.query(metric, missingFrom, missingTo);
+        LocalDate today = LocalDate.now();
+        for (LocalDate day = missingFrom; day.isBefore(missingTo); day = day.plusDays(1)) {
+            if (result.containsKey(day))
+                continue;
+            List<Row> rows = fresh.getOrDefault(day, List.of());
+            result.put(day, rows);
+            if (day.isBefore(today))
+                closedDays.put(new DayKey(metric, day), rows);
+        }
+        return result;
+    }
+
+    private Map<LocalDate, List<Row>> query(SeriesMetricEnum metric, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<Row>> result = new HashMap<>();
+        switch (metric) {
+            case APPOINTMENT -> {
+                for (AppointmentDayStat it : appointmentRepository.countDaily(from, to))
+                    result.computeIfAbsent(it.getDay(), k -> new ArrayList<>())
+                            .add(new Row(it.getStatus(), it.getSpecialistId(), it.getCnt()));
+            }
+            case SURVEY -> {
+                for (SurveyDayStat it : surveyResultRepository.countDaily(from.atStartOfDay(), to.atStartOfDay()))
+                    result.computeIfAbsent(it.getDay(), k -> new ArrayList<>())
+                            .add(new Row(null, it.getSurveyId(), it.getCnt()));
+            }
+            case REGISTRATION -> {
+                for (RegistrationDayStat it : programRepository.countRegisteredDaily(from, to))
+                    result.computeIfAbsent(it.getDay(), k -> new ArrayList<>())
+                            .add(new Row(null, null, it.getCnt()));
+            }
+        }
+        return result;
+    }
+
+    // Lọc/nhóm theo chiều mà metric không có thì mọi bucket đều bằng 0: báo lỗi thay vì trả chuỗi rỗng
+    private static boolean supports(SeriesSearch search) {
+        boolean appointment = search.getMetric() == SeriesMetricEnum.APPOINTMENT;
+        boolean survey = search.getMetric() == SeriesMetricEnum.SURVEY;
+        if ((search.getStatus() != null || search.getSpecialistId() != null) && !appointment)
+            return false;
+        if (search.getSurveyId() != null && !survey)
+            return false;
+        if (search.getGroup() == null)
+            return true;
+        return switch (search.getGroup()) {
+            case "status", "specialist" -> appointment;
+            case "survey" -> survey;
+            default -> false;
+        };
+    }
+
+    private static boolean matches(SeriesSearch search, Row row) {
+        if (search.getStatus() != null && !search.getStatus().equals(row.status()))
+            return false;
+        if (search.getMetric() == SeriesMetricEnum.APPOINTMENT && search.getSpecialistId() != null)
+            return search.getSpecialistId().equals(row.ref());
+        if (search.getMetric() == SeriesMetricEnum.SURVEY && search.getSurveyId() != null)
+            return search.getSurveyId().equals(row.ref());
+        return true;
+    }
+
+    private static String groupOf(SeriesSearch search, Row row) {
+        if (search.getGroup() == null)
+            return null;
+        return switch (search.getGroup()) {
+            case "status" -> row.status();
+            default -> row.ref() == null ? null : row.ref().toString();
+        };
+    }
+}
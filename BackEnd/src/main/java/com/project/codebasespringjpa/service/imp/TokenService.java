@@ -0,0 +1,129 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.security.jwtConfig.JwtProvider;
+import com.project.codebasespringjpa.configuration.security.jwtConfig.RevocationList;
+import com.project.codebasespringjpa.dto.authen.request.RefreshTokenRequest;
+import com.project.codebasespringjpa.dto.authen.response.LoginResponse;
+import com.project.codebasespringjpa.entity.RefreshTokenEntity;
+import com.project.codebasespringjpa.entity.UserEntity;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.repository.IRefreshTokenRepository;
+import com.project.codebasespringjpa.repository.IUserRepository;
+import com.project.codebasespringjpa.service.interfaces.ITokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.transaction.Transactional;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+@Slf4j
+@Service
+@Transactional
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TokenService implements ITokenService {
+    static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    IRefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    IUserRepository userRepository;
+    @Autowired
+    JwtProvider jwtProvider;
+    @Autowired
+    RevocationList revocationList;
+    @Value("${jwt.REFRESH_EXPIRATION}")
+    long refreshExpiration;
+
+    @Override
+    public String createRefreshToken(Long userId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshTokenEntity.builder()
+                .tokenHash(sha256(token))
+                .userId(userId)
+                .expiryDate(LocalDateTime.now().plus(Duration.ofMillis(refreshExpiration)))
+                .build());
+        return token;
+    }
+
+    @Override
+    // Lỗi nghiệp vụ không rollback: token hết hạn vẫn bị xóa, phát hiện dùng lại vẫn thu hồi được
+    @Transactional(dontRollbackOn = AppException.class)
+    public LoginResponse refresh(RefreshTokenRequest request) {
+        if (request == null || request.getRefreshToken() == null)
+            throw new AppException(ErrorCode.REFRESH_TOKEN_INVALID);
+        String tokenHash = sha256(request.getRefreshToken());
+        RefreshTokenEntity stored = refreshTokenRepository.findByTokenHash(tokenHash)
+                .orElseThrow(() -> new AppException(ErrorCode.REFRESH_TOKEN_INVALID));
+        if (stored.getExpiryDate().isBefore(LocalDateTime.now())) {
+            refreshTokenRepository.deleteByTokenHash(tokenHash);
+            throw new AppException(ErrorCode.REFRESH_TOKEN_INVALID);
+        }
+        // Xoay vòng: refresh token chỉ dùng được một lần. Xóa có điều kiện, request đến sau
+        // (chờ khóa dòng) nhận 0 dòng: token đã bị dùng lại, thu hồi toàn bộ phiên của user
+        if (refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            log.warn("Refresh token bi dung lai, thu hoi phien cua user {}", stored.getUserId());
+            this.revokeUser(stored.getUserId());
+            throw new AppException(ErrorCode.REFRESH_TOKEN_INVALID);
+        }
+        UserEntity user = userRepository.findById(stored.getUserId())
+                .filter(it -> it.getIsDelete() == false)
+                .orElseThrow(() -> new AppException(ErrorCode.REFRESH_TOKEN_INVALID));
+        return LoginResponse.builder()
+                .token(jwtProvider.generateToken(user))
+                .refreshToken(this.createRefreshToken(user.getId()))
+                .role(user.getRole().getName())
+                .email(user.getEmail())
+                .fullName(user.getFullname())
+                .build();
+    }
+
+    @Override
+    public void logout(String accessToken, String refreshToken) {
+        if (refreshToken != null)
+            refreshTokenRepository.deleteByTokenHash(sha256(refreshToken));
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtProvider.parseClaims(accessToken);
+                revocationList.revokeToken(claims.getId(), claims.getExpiration());
+            } catch (JwtException | IllegalArgumentException e) {
+                // Token đã hết hạn hoặc không hợp lệ: không cần thu hồi
+            }
+        }
+    }
+
+    @Override
+    public void revokeUser(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+        revocationList.revokeUser(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.REVOCATION_REBUILD_MS}")
+    public void deleteExpiredRefreshTokens() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.dto.file.request.UploadInitRequest;
+import com.project.codebasespringjpa.dto.file.response.UploadStatusResponse;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.service.interfaces.IMediaStoreService;
+import com.project.codebasespringjpa.service.interfaces.IUploadService;
+import com.project.codebasespringjpa.util.UtilFile;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Upload nhiều phần, resume được: các chunk ghi song song theo offset vào một file thưa (sparse)
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UploadService implements IUploadService {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    IMediaStoreService mediaStoreService;
+    @Value("${upload.TEMP_DIR}")
+    String tempDir;
+    @Value("${upload.CHUNK_SIZE}")
+    long chunkSize;
+    @Value("${spring.servlet.multipart.max-file-size}")
+    DataSize maxSize;
+    @Value("${upload.SESSION_TTL_MS}")
+    long sessionTtl;
+    @Value("${upload.MAX_SESSIONS_PER_USER}")
+    int maxSessionsPerUser;
+
+    final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    // Số phiên đang mở của mỗi user: chặn một tài khoản chiếm hết đĩa tạm
+    final Map<Long, Integer> openSessions = new ConcurrentHashMap<>();
+
+    static class UploadSession {
+        final String id;
+        final Long ownerId;
+        final String originalName;
+        final long size;
+        final String sha256;
+        final Path path;
+        final FileChannel channel;
+        // start -> end (không bao gồm), các đoạn đã được gộp
+        final TreeMap<Long, Long> received = new TreeMap<>();
+        final AtomicBoolean completing = new AtomicBoolean();
+        volatile long lastAccess = System.currentTimeMillis();
+        // Số chunk đang ghi; phiên đang ghi không bao giờ bị dọn theo TTL
+        int writers;
+        boolean expired;
+
+        UploadSession(String id, Long ownerId, String originalName, long size, String sha256, Path path,
+                      FileChannel channel) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.originalName = originalName;
+            this.size = size;
+            this.sha256 = sha256;
+            this.path = path;
+            this.channel = channel;
+        }
+
+        // Cập nhật lastAccess trước khi ghi; false nếu phiên vừa bị dọn
+        synchronized boolean beginWrite() {
+            if (expired)
+                return false;
+            writers++;
+            lastAccess = System.currentTimeMillis();
+            return true;
+        }
+
+        synchronized void endWrite() {
+            writers--;
+            lastAccess = System.currentTimeMillis();
+        }
+
+        synchronized boolean expireIfIdle(long deadline) {
+            if (writers > 0 || lastAccess >= deadline)
+                return false;
+            expired = true;
+            return true;
+        }
+
+        synchronized void markReceived(long start, long end) {
+            if (end <= start)
+                return;
+            Map.Entry<Long, Long> floor = received.floorEntry(start);
+            if (floor != null && floor.getValue() >= start) {
+                start = floor.getKey();
+                end = Math.max(end, floor.getValue());
+            }
+            Map.Entry<Long, Long> next = received.ceilingEntry(start);
+            while (next != null && next.getKey() <= end) {
+                end = Math.max(end, next.getValue());
+                received.remove(next.getKey());
+                next = received.ceilingEntry(start);
+            }
+            received.put(start, end);
+        }
+
+        synchronized List<long[]> ranges() {
+            List<long[]> ranges = new ArrayList<>(received.size());
+            received.forEach((start, end) -> ranges.add(new long[]{start, end}));
+            return ranges;
+        }
+
+        synchronized long receivedBytes() {
+            long total = 0;
+            for (Map.Entry<Long, Long> entry : received.entrySet())
+                total += entry.getValue() - entry.getKey();
+            return total;
+        }
+
+        synchronized boolean isComplete() {
+            if (size == 0)
+                return true;
+            Map.Entry<Long, Long> first = received.firstEntry();
+            return received.size() == 1 && first.getKey() == 0 && first.getValue() == size;
+        }
+
+        void close() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Khong the xoa file upload tam {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(Paths.get(tempDir));
+    }
+
+    @Override
+    public UploadStatusResponse initiate(Long ownerId, UploadInitRequest request) throws IOException {
+        if (ownerId == null)
+            throw new AppException(ErrorCode.UNAUTHEN);
+        if (request.getSize() == null || request.getSize() < 0 || request.getSize() > maxSize.toBytes()
+                || request.getSha256() == null || request.getSha256().isBlank())
+            throw new AppException(ErrorCode.UPLOAD_RANGE_INVALID);
+        if (openSessions.merge(ownerId, 1, Integer::sum) > maxSessionsPerUser) {
+            this.release(ownerId);
+            throw new AppException(ErrorCode.UPLOAD_TOO_MANY_SESSIONS);
+        }
+        String id = UUID.randomUUID().toString();
+        Path path = Paths.get(tempDir).resolve(id + ".part");
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.SPARSE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            this.release(ownerId);
+            throw e;
+        }
+        UploadSession session = new UploadSession(id, ownerId, request.getFileName(), request.getSize(),
+                request.getSha256().trim().toLowerCase(), path, channel);
+        sessions.put(id, session);
+        return this.toResponse(session);
+    }
+
+    @Override
+    public UploadStatusResponse writeChunk(Long ownerId, String uploadId, long offset, InputStream in)
+            throws IOException {
+        UploadSession session = this.getSession(ownerId, uploadId);
+        if (offset < 0 || offset > session.size || session.completing.get())
+            throw new AppException(ErrorCode.UPLOAD_RANGE_INVALID);
+        if (!session.beginWrite())
+            throw new AppException(ErrorCode.UPLOAD_NOT_FOUND);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        ReadableByteChannel source = Channels.newChannel(in);
+        long position = offset;
+        try {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                if (position + buffer.remaining() > session.size)
+                    throw new AppException(ErrorCode.UPLOAD_RANGE_INVALID);
+                // Ghi theo vị trí: an toàn khi nhiều chunk cùng ghi vào một FileChannel
+                while (buffer.hasRemaining())
+                    position += session.channel.write(buffer, position);
+                buffer.clear();
+            }
+        } finally {
+            // Phần đã ghi trước khi mất kết nối vẫn được tính, client chỉ gửi lại phần thiếu
+            session.markReceived(offset, position);
+            session.endWrite();
+        }
+        return this.toResponse(session);
+    }
+
+    @Override
+    public UploadStatusResponse status(Long ownerId, String uploadId) {
+        return this.toResponse(this.getSession(ownerId, uploadId));
+    }
+
+    @Override
+    public String complete(Long ownerId, String uploadId) throws IOException {
+        UploadSession session = this.getSession(ownerId, uploadId);
+        if (!session.completing.compareAndSet(false, true))
+            throw new AppException(ErrorCode.UPLOAD_NOT_FOUND);
+        // Tính như một lượt ghi để sweeper không đóng channel khi đang băm/chuyển file
+        if (!session.beginWrite())
+            throw new AppException(ErrorCode.UPLOAD_NOT_FOUND);
+        try {
+            if (!session.isComplete())
+                throw new AppException(ErrorCode.UPLOAD_INCOMPLETE);
+            session.channel.force(false);
+            if (!session.sha256.equals(UtilFile.sha256Hex(session.channel, session.size)))
+                throw new AppException(ErrorCode.UPLOAD_CHECKSUM_MISMATCH);
+            session.channel.close();
+            String fileName = mediaStoreService.storeFile(session.path, session.sha256, session.size,
+                    session.originalName);
+            this.remove(session);
+            return fileName;
+        } catch (AppException e) {
+            // Thiếu dữ liệu: cho phép gửi tiếp; sai checksum: bỏ phiên
+            if (e.getErrorCode() == ErrorCode.UPLOAD_CHECKSUM_MISMATCH)
+                this.discard(session);
+            else
+                session.completing.set(false);
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            session.completing.set(false);
+            throw e;
+        } finally {
+            session.endWrite();
+        }
+    }
+
+    @Override
+    public void abort(Long ownerId, String uploadId) {
+        this.discard(this.getSession(ownerId, uploadId));
+    }
+
+    // Mỗi lượt TTL: bỏ phiên không được chạm tới trong SESSION_TTL_MS và không có chunk đang ghi
+    @Scheduled(fixedDelayString = "${upload.SESSION_TTL_MS}")
+    public void cleanExpired() {
+        long deadline = System.currentTimeMillis() - sessionTtl;
+        for (UploadSession session : sessions.values()) {
+            if (session.expireIfIdle(deadline))
+                this.discard(session);
+        }
+    }
+
+    private void discard(UploadSession session) {
+        if (this.remove(session))
+            session.close();
+    }
+
+    private boolean remove(UploadSession session) {
+        if (!sessions.remove(session.id, session))
+            return false;
+        this.release(session.ownerId);
+        return true;
+    }
+
+    private void release(Long ownerId) {
+        openSessions.computeIfPresent(ownerId, (k, open) -> open <= 1 ? null : open - 1);
+    }
+
+    // Phiên của người khác coi như không tồn tại
+    private UploadSession getSession(Long ownerId, String uploadId) {
+        UploadSession session = uploadId != null ? sessions.get(uploadId) : null;
+        if (session == null || !session.ownerId.equals(ownerId))
+            throw new AppException(ErrorCode.UPLOAD_NOT_FOUND);
+        return session;
+    }
+
+    private UploadStatusResponse toResponse(UploadSession session) {
+        return UploadStatusResponse.builder()
+                .uploadId(session.id)
+                .size(session.size)
+                .chunkSize(chunkSize)
+                .receivedBytes(session.receivedBytes())
+                .received(session.ranges())
+                .build();
+    }
+}
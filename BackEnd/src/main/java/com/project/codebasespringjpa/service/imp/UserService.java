@@ -1,6 +1,10 @@
 package com.project.codebasespringjpa.service.imp;
 
+import com.project.codebasespringjpa.configuration.dashboard.DashboardEvent;
+import com.project.codebasespringjpa.configuration.security.PasswordHasher;
 import com.project.codebasespringjpa.configuration.security.UserDetailsImpl;
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
+import com.project.codebasespringjpa.configuration.security.jwtConfig.PrincipalCache;
 import com.project.codebasespringjpa.dto.authen.request.PasswordRequest;
 import com.project.codebasespringjpa.dto.user.request.UserRequest;
 import com.project.codebasespringjpa.dto.user.request.UserSearch;
@@ -14,19 +18,20 @@ import com.project.codebasespringjpa.mapper.UserMapper;
 import com.project.codebasespringjpa.repository.IMajorRepository;
 import com.project.codebasespringjpa.repository.IRoleRepository;
 import com.project.codebasespringjpa.repository.IUserRepository;
+import com.project.codebasespringjpa.service.interfaces.ITokenService;
 import com.project.codebasespringjpa.service.interfaces.IUserService;
 import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
@@ -41,11 +46,17 @@ public class UserService implements IUserService {
     @Autowired
     IRoleRepository roleRepository;
     @Autowired
-    PasswordEncoder passwordEncoder;
+    PasswordHasher passwordHasher;
     @Autowired
     UserMapper userMapper;
     @Autowired
     IMajorRepository majorRepository;
+    @Autowired
+    PrincipalCache principalCache;
+    @Autowired
+    ITokenService tokenService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -60,12 +71,14 @@ public class UserService implements IUserService {
     }
 
     @Override
-    public UserDetailsImpl getUserInContext() {
+    public UserPrincipal getUserInContext() {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            if (userDetails instanceof UserPrincipal)
+                return (UserPrincipal) userDetails;
             if (userDetails instanceof UserDetailsImpl)
-                return (UserDetailsImpl) userDetails;
+                return ((UserDetailsImpl) userDetails).toPrincipal();
         } catch (Exception e) {
             return null;
         }
@@ -80,6 +93,9 @@ public class UserService implements IUserService {
     @Override
     public UserResponse create(UserRequest request) {
         UserEntity save = userRepository.save(userMapper.toEntity(request));
+        eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.USER, 1));
+        if (DashboardEvent.isSpecialist(save))
+            eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.SPECIALIST, 1));
         return userMapper.toResponse(save);
     }
 
@@ -98,6 +114,7 @@ public class UserService implements IUserService {
         RoleEntity role = roleRepository.findByName(request.getRole())
                 .orElseThrow(() -> new AppException(ErrorCode.ROLE_NOT_FOUND));
         UserEntity userUpdate = this.findEntityById(id);
+        boolean wasSpecialist = DashboardEvent.isSpecialist(userUpdate);
         userUpdate.setFullname(request.getFullname());
         userUpdate.setEmail(request.getEmail());
         userUpdate.setAvatar(request.getAvatar());
@@ -105,7 +122,12 @@ public class UserService implements IUserService {
         userUpdate.setPhone(request.getPhone());
         userUpdate.setMajors(majorEntityList);
         userUpdate.setRole(role);
-        return userMapper.toResponse(userRepository.save(userUpdate));
+        // Đổi vai trò sang/khỏi SPECIALIST
+        if (!Boolean.TRUE.equals(userUpdate.getIsDelete()) && wasSpecialist != DashboardEvent.isSpecialist(userUpdate))
+            eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.SPECIALIST, wasSpecialist ? -1 : 1));
+        UserResponse response = userMapper.toResponse(userRepository.save(userUpdate));
+        principalCache.evict(id);
+        return response;
     }
 
     @Override
@@ -123,11 +145,14 @@ public class UserService implements IUserService {
     @Override
     public UserResponse changePassword(Long id, PasswordRequest passwordRequest) {
         UserEntity userFind = this.findEntityById(id);
-        if (passwordEncoder.matches(passwordRequest.getOldpassword(), userFind.getPassword())) {
-            userFind.setPassword(passwordEncoder.encode(passwordRequest.getNewpassword()));
+        if (passwordHasher.matches(passwordRequest.getOldpassword(), userFind.getPassword())) {
+            userFind.setPassword(passwordHasher.encode(passwordRequest.getNewpassword()));
         } else
             throw new AppException(ErrorCode.PASSWORD_NOT_MATCH);
-        return userMapper.toResponse(userRepository.save(userFind));
+        UserResponse response = userMapper.toResponse(userRepository.save(userFind));
+        principalCache.evict(id);
+        tokenService.revokeUser(id);
+        return response;
     }
 
     @Override
@@ -139,8 +164,15 @@ public class UserService implements IUserService {
     @Override
     public void delete(Long id) {
         UserEntity userFind = this.findEntityById(id);
+        if (!Boolean.TRUE.equals(userFind.getIsDelete())) {
+            eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.USER, -1));
+            if (DashboardEvent.isSpecialist(userFind))
+                eventPublisher.publishEvent(new DashboardEvent(DashboardEvent.Counter.SPECIALIST, -1));
+        }
         userFind.setIsDelete(true);
         userRepository.save(userFind);
+        principalCache.evict(id);
+        tokenService.revokeUser(id);
     }
 
     @Override
@@ -0,0 +1,8 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import java.io.IOException;
+import java.util.Map;
+
+public interface IAnalyticsExportService {
+    Map<String, Long> exportParquet() throws IOException;
+}
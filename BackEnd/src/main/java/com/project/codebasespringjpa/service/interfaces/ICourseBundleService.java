@@ -0,0 +1,9 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public interface ICourseBundleService {
+    void serve(Long courseId, HttpServletRequest request, HttpServletResponse response) throws IOException;
+}
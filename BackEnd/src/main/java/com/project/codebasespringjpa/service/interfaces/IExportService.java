@@ -0,0 +1,9 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import com.project.codebasespringjpa.enums.ExportTypeEnum;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public interface IExportService {
+    void exportCsv(ExportTypeEnum type, HttpServletResponse response) throws IOException;
+}
@@ -0,0 +1,7 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+public interface IHlsService {
+    void schedule(String fileName);
+    String playlistOf(String fileName);
+    void delete(String fileName);
+}
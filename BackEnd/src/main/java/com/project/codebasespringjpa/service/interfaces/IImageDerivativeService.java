@@ -0,0 +1,9 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import com.project.codebasespringjpa.util.DiskLruCache;
+
+public interface IImageDerivativeService {
+    void scheduleDerivatives(String fileName);
+    DiskLruCache.Handle resolve(String fileName, String size);
+    void delete(String fileName);
+}
@@ -0,0 +1,18 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import com.project.codebasespringjpa.util.ZipBundle;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public interface IMediaService {
+    // Gửi được bằng sendfile: phục vụ luôn trên thread Tomcat, không cần chuyển sang pool media
+    boolean isSendfile(String fileName, String size, HttpServletRequest request);
+    boolean isHlsSendfile(String name, String file, HttpServletRequest request);
+    void serve(String fileName, String size, HttpServletRequest request, HttpServletResponse response)
+            throws IOException;
+    void serveHls(String name, String file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException;
+    void serveBundle(ZipBundle bundle, String downloadName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface IMediaStoreService {
+    String store(MultipartFile file) throws IOException;
+    String storeFile(Path source, String sha256, long size, String originalFilename) throws IOException;
+    String findByHash(String sha256);
+    void reclaim();
+}
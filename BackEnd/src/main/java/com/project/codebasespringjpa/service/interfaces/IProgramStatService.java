@@ -0,0 +1,13 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import com.project.codebasespringjpa.entity.ProgramEntity;
+import java.time.LocalDate;
+
+public interface IProgramStatService {
+    void add(ProgramEntity program);
+    void remove(ProgramEntity program);
+    void move(LocalDate oldDate, String oldAddress, ProgramEntity program);
+    void addRegister(ProgramEntity program);
+    Integer rebuild();
+    boolean isEmpty();
+}
@@ -0,0 +1,9 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import com.project.codebasespringjpa.dto.statics.SeriesPointResponse;
+import com.project.codebasespringjpa.dto.statics.SeriesSearch;
+import java.util.List;
+
+public interface ITimeSeriesService {
+    List<SeriesPointResponse> getSeries(SeriesSearch search);
+}
@@ -0,0 +1,11 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import com.project.codebasespringjpa.dto.authen.request.RefreshTokenRequest;
+import com.project.codebasespringjpa.dto.authen.response.LoginResponse;
+
+public interface ITokenService {
+    String createRefreshToken(Long userId);
+    LoginResponse refresh(RefreshTokenRequest request);
+    void logout(String accessToken, String refreshToken);
+    void revokeUser(Long userId);
+}
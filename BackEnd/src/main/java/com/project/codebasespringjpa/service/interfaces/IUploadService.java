@@ -0,0 +1,14 @@
+package com.project.codebasespringjpa.service.interfaces;
+
+import com.project.codebasespringjpa.dto.file.request.UploadInitRequest;
+import com.project.codebasespringjpa.dto.file.response.UploadStatusResponse;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IUploadService {
+    UploadStatusResponse initiate(Long ownerId, UploadInitRequest request) throws IOException;
+    UploadStatusResponse writeChunk(Long ownerId, String uploadId, long offset, InputStream in) throws IOException;
+    UploadStatusResponse status(Long ownerId, String uploadId);
+    String complete(Long ownerId, String uploadId) throws IOException;
+    void abort(Long ownerId, String uploadId);
+}
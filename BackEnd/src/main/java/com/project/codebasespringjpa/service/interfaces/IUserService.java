@@ -1,6 +1,6 @@
 package com.project.codebasespringjpa.service.interfaces;
 
-import com.project.codebasespringjpa.configuration.security.UserDetailsImpl;
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
 import com.project.codebasespringjpa.dto.authen.request.PasswordRequest;
 import com.project.codebasespringjpa.dto.user.request.UserRequest;
 import com.project.codebasespringjpa.dto.user.request.UserSearch;
@@ -13,7 +13,7 @@ import java.util.List;
 
 public interface IUserService extends UserDetailsService {
     long count();
-    UserDetailsImpl getUserInContext();
+    UserPrincipal getUserInContext();
     UserEntity findEntityById(Long id);
     UserResponse create(UserRequest request);
     UserResponse update(Long id, UserRequest request);
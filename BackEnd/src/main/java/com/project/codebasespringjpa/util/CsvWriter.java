@@ -0,0 +1,86 @@
+package com.project.codebasespringjpa.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Ghi CSV (RFC 4180) thẳng ra stream, không giữ dòng nào trong bộ nhớ
+public class CsvWriter implements Closeable, Flushable {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    final Writer writer;
+
+    // BOM để Excel mở đúng tiếng Việt
+    public CsvWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write('\uFEFF');
+    }
+
+    public void writeRow(String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                writer.write(',');
+            this.writeValue(values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // Ghi dòng hiện tại của ResultSet, đọc từng cột bằng getString
+    public void writeRow(ResultSet rs, int columns) throws SQLException, IOException {
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1)
+                writer.write(',');
+            this.writeValue(rs.getString(i));
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeValue(String value) throws IOException {
+        if (value == null || value.isEmpty())
+            return;
+        // Chặn CSV injection: ô bắt đầu bằng = + - @ bị Excel hiểu là công thức
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        boolean quote = formula || needsQuote(value);
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        if (formula)
+            writer.write('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"')
+                writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r')
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,178 @@
+package com.project.codebasespringjpa.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Cache file trên đĩa giới hạn theo tổng dung lượng, xoá file ít dùng nhất (LRU) khi vượt ngưỡng
+// File đang được giữ (acquire) không bị xoá cho tới khi handle được đóng
+public class DiskLruCache {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path dir;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // key -> số handle đang mở
+    private final Map<String, Integer> pins = new HashMap<>();
+    // Đã bị remove khi đang được giữ: xoá file khi handle cuối cùng đóng
+    private final Set<String> doomed = new HashSet<>();
+    private long totalBytes;
+
+    public final class Handle implements Closeable {
+        private final String key;
+        private final Path path;
+        private boolean closed;
+
+        private Handle(String key, Path path) {
+            this.key = key;
+            this.path = path;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        @Override
+        public void close() {
+            synchronized (DiskLruCache.this) {
+                if (closed)
+                    return;
+                closed = true;
+                DiskLruCache.this.release(key);
+            }
+        }
+    }
+
+    public DiskLruCache(Path dir, long maxBytes) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(dir);
+        // Nạp lại cache cũ theo thứ tự sửa đổi, file tạm còn sót thì xoá
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream.filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(DiskLruCache::lastModified))
+                    .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            long size = Files.size(file);
+            entries.put(name, size);
+            totalBytes += size;
+        }
+        this.evict();
+    }
+
+    public synchronized Path get(String key) {
+        if (entries.get(key) == null)
+            return null;
+        Path path = dir.resolve(key);
+        if (!Files.isRegularFile(path)) {
+            totalBytes -= entries.remove(key);
+            return null;
+        }
+        return path;
+    }
+
+    // Giữ file trong lúc gửi đi; null nếu không có trong cache
+    public synchronized Handle acquire(String key) {
+        Path path = this.get(key);
+        if (path == null)
+            return null;
+        pins.merge(key, 1, Integer::sum);
+        return new Handle(key, path);
+    }
+
+    public synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size == null)
+            return;
+        totalBytes -= size;
+        if (pins.containsKey(key))
+            doomed.add(key);
+        else
+            this.delete(key);
+    }
+
+    // File tạm để ghi; gọi commit khi ghi xong
+    public Path newTempFile(String key) {
+        return dir.resolve(key + "." + UUID.randomUUID() + TEMP_SUFFIX);
+    }
+
+    public Path commit(String key, Path tempFile) throws IOException {
+        Path path = dir.resolve(key);
+        long size = Files.size(tempFile);
+        Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        synchronized (this) {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            // File mới đã thay file cũ, handle cũ đóng không được xoá nó
+            doomed.remove(key);
+            this.evict();
+        }
+        return path;
+    }
+
+    public synchronized long size() {
+        return totalBytes;
+    }
+
+    // Bỏ qua file đang được giữ; lần commit sau sẽ dọn tiếp
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (pins.containsKey(eldest.getKey()))
+                continue;
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            this.delete(eldest.getKey());
+        }
+    }
+
+    private synchronized void release(String key) {
+        Integer count = pins.get(key);
+        if (count == null)
+            return;
+        if (count > 1) {
+            pins.put(key, count - 1);
+            return;
+        }
+        pins.remove(key);
+        if (doomed.remove(key))
+            this.delete(key);
+    }
+
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(dir.resolve(key));
+        } catch (IOException ignored) {
+            // File đang bị giữ, lần dọn sau sẽ không còn trong danh sách
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
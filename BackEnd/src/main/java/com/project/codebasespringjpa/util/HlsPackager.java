@@ -0,0 +1,533 @@
+package com.project.codebasespringjpa.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Remux MP4 (H.264 + AAC) thành fragmented MP4 + playlist HLS, không encode lại.
+// Bảng sample được đọc từ moov; dữ liệu sample copy thẳng từ file gốc bằng transferTo.
+public class HlsPackager {
+    public static final String PLAYLIST = "index.m3u8";
+    public static final String INIT_SEGMENT = "init.mp4";
+    static final long UINT32_MAX = 0xFFFFFFFFL;
+    static final long MAX_MOOV_SIZE = 64L * 1024 * 1024;
+    // ~9 giờ video 60fps: đủ cho bài học, chặn file khai báo số sample vô lý
+    static final int MAX_SAMPLES = 2_000_000;
+    static final int SAMPLE_FLAGS_SYNC = 0x02000000;
+    static final int SAMPLE_FLAGS_NON_SYNC = 0x01010000;
+
+    // Track sau khi bung bảng sample (stsz/stts/ctts/stsc/stco/stss)
+    static class Track {
+        int id;
+        long timescale;
+        String handler;
+        int trakStart;
+        int trakEnd;
+        long[] offsets;
+        int[] sizes;
+        int[] durations;
+        int[] ctos;
+        boolean[] sync;
+        long[] decodeTimes;
+        boolean hasCto;
+
+        int count() {
+            return sizes.length;
+        }
+
+        long timeAt(int index) {
+            if (index < count())
+                return decodeTimes[index];
+            return count() == 0 ? 0 : decodeTimes[count() - 1] + durations[count() - 1];
+        }
+    }
+
+    private HlsPackager() {
+    }
+
+    // false nếu file không phải H.264/AAC MP4 đóng gói được (không ghi gì ra outputDir)
+    public static boolean pack(Path source, Path outputDir, double targetSeconds) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer moov = readMoov(in);
+            if (moov == null)
+                return false;
+            Track video = null;
+            Track audio = null;
+            List<Track> tracks = new ArrayList<>();
+            for (int[] trak : children(moov, headerEnd(moov, 0), moov.limit())) {
+                if (!typeAt(moov, trak[0]).equals("trak"))
+                    continue;
+                Track track = parseTrack(moov, trak, in.size());
+                if (track == null)
+                    continue;
+                if (video == null && track.handler.equals("vide")) {
+                    video = track;
+                    tracks.add(track);
+                } else if (audio == null && track.handler.equals("soun")) {
+                    audio = track;
+                    tracks.add(track);
+                }
+            }
+            if (tracks.isEmpty())
+                return false;
+            Track main = video != null ? video : audio;
+            List<Integer> cuts = cutPoints(main, targetSeconds);
+
+            Files.createDirectories(outputDir);
+            Files.write(outputDir.resolve(INIT_SEGMENT), initSegment(moov, tracks));
+            // Với mỗi track: chỉ số sample bắt đầu của từng segment
+            List<int[]> starts = new ArrayList<>();
+            for (Track track : tracks)
+                starts.add(track == main ? toArray(cuts) : alignTo(track, main, cuts));
+
+            StringBuilder playlist = new StringBuilder();
+            double maxDuration = 0;
+            List<String> entries = new ArrayList<>();
+            for (int segment = 0; segment < cuts.size(); segment++) {
+                int[] from = new int[tracks.size()];
+                int[] to = new int[tracks.size()];
+                for (int t = 0; t < tracks.size(); t++) {
+                    int[] trackStarts = starts.get(t);
+                    from[t] = trackStarts[segment];
+                    to[t] = segment + 1 < trackStarts.length ? trackStarts[segment + 1] : tracks.get(t).count();
+                }
+                String name = String.format(Locale.ROOT, "seg_%05d.m4s", segment);
+                writeSegment(in, outputDir.resolve(name), tracks, from, to, segment + 1);
+                int mainIndex = tracks.indexOf(main);
+                double duration = (main.timeAt(to[mainIndex]) - main.timeAt(from[mainIndex])) / (double) main.timescale;
+                maxDuration = Math.max(maxDuration, duration);
+                entries.add(String.format(Locale.ROOT, "#EXTINF:%.3f,%n%s%n", duration, name));
+            }
+            playlist.append("#EXTM3U\n")
+                    .append("#EXT-X-VERSION:7\n")
+                    .append("#EXT-X-TARGETDURATION:").append((long) Math.ceil(maxDuration)).append('\n')
+                    .append("#EXT-X-MEDIA-SEQUENCE:0\n")
+                    .append("#EXT-X-PLAYLIST-TYPE:VOD\n")
+                    .append("#EXT-X-INDEPENDENT-SEGMENTS\n")
+                    .append("#EXT-X-MAP:URI=\"").append(INIT_SEGMENT).append("\"\n");
+            entries.forEach(playlist::append);
+            playlist.append("#EXT-X-ENDLIST\n");
+            Files.writeString(outputDir.resolve(PLAYLIST), playlist.toString(), StandardCharsets.UTF_8);
+            return true;
+        } catch (RuntimeException e) {
+            // Bảng sample hỏng/không hỗ trợ: bỏ qua file này
+            return false;
+        }
+    }
+
+    // ---đọc moov
+
+    private static ByteBuffer readMoov(FileChannel in) throws IOException {
+        long size = in.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(16);
+        while (position + 8 <= size) {
+            header.clear().limit(8);
+            readFully(in, header, position);
+            long boxSize = header.getInt(0) & UINT32_MAX;
+            String type = new String(header.array(), 4, 4, StandardCharsets.US_ASCII);
+            if (boxSize == 1) {
+                header.limit(16);
+                readFully(in, header, position + 8);
+                boxSize = header.getLong(8);
+            } else if (boxSize == 0) {
+                boxSize = size - position;
+            }
+            if (boxSize < 8 || position + boxSize > size)
+                return null;
+            if (type.equals("moov")) {
+                if (boxSize > MAX_MOOV_SIZE)
+                    return null;
+                ByteBuffer moov = ByteBuffer.allocate((int) boxSize);
+                readFully(in, moov, position);
+                return moov.clear();
+            }
+            position += boxSize;
+        }
+        return null;
+    }
+
+    // Mọi số lượng đọc từ file đều được so với kích thước box trước khi cấp phát mảng
+    private static Track parseTrack(ByteBuffer moov, int[] trak, long fileSize) {
+        Track track = new Track();
+        track.trakStart = trak[0];
+        track.trakEnd = trak[2];
+        int[] tkhd = child(moov, trak, "tkhd");
+        int[] mdia = child(moov, trak, "mdia");
+        if (tkhd == null || mdia == null)
+            return null;
+        track.id = moov.getInt(tkhd[1] + (moov.get(tkhd[1]) == 1 ? 20 : 12));
+        int[] mdhd = child(moov, mdia, "mdhd");
+        int[] hdlr = child(moov, mdia, "hdlr");
+        int[] minf = child(moov, mdia, "minf");
+        if (mdhd == null || hdlr == null || minf == null)
+            return null;
+        track.timescale = moov.getInt(mdhd[1] + (moov.get(mdhd[1]) == 1 ? 20 : 12)) & UINT32_MAX;
+        track.handler = typeAt(moov, hdlr[1] + 4);
+        int[] stbl = child(moov, minf, "stbl");
+        if (stbl == null || track.timescale == 0)
+            return null;
+        int[] stsd = child(moov, stbl, "stsd");
+        if (stsd == null)
+            return null;
+        String format = typeAt(moov, stsd[1] + 8);
+        boolean supported = (track.handler.equals("vide") && (format.equals("avc1") || format.equals("avc3")))
+                || (track.handler.equals("soun") && format.equals("mp4a"));
+        if (!supported)
+            return null;
+
+        int[] stsz = child(moov, stbl, "stsz");
+        int[] stts = child(moov, stbl, "stts");
+        int[] stsc = child(moov, stbl, "stsc");
+        int[] stco = child(moov, stbl, "stco");
+        int[] co64 = child(moov, stbl, "co64");
+        if (stsz == null || stts == null || stsc == null || (stco == null && co64 == null))
+            return null;
+
+        int sampleSize = moov.getInt(stsz[1] + 4);
+        int count = sampleSize != 0 ? count(moov, stsz, 8, 0) : count(moov, stsz, 8, 4);
+        // Sample cỡ cố định không có bảng: số sample bị chặn bởi phần dữ liệu có thật trong file
+        if (count > MAX_SAMPLES || (sampleSize != 0 && (sampleSize < 0 || (long) sampleSize * count > fileSize)))
+            return null;
+        track.sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            track.sizes[i] = sampleSize != 0 ? sampleSize : moov.getInt(stsz[1] + 12 + 4 * i);
+            if (track.sizes[i] < 0)
+                return null;
+        }
+
+        track.durations = new int[count];
+        track.decodeTimes = new long[count];
+        int sample = 0;
+        long time = 0;
+        int sttsEntries = count(moov, stts, 4, 8);
+        for (int e = 0; e < sttsEntries; e++) {
+            int n = moov.getInt(stts[1] + 8 + 8 * e);
+            int delta = moov.getInt(stts[1] + 12 + 8 * e);
+            for (int i = 0; i < n && sample < count; i++, sample++) {
+                track.durations[sample] = delta;
+                track.decodeTimes[sample] = time;
+                time += delta;
+            }
+        }
+        if (sample != count)
+            return null;
+
+        track.ctos = new int[count];
+        int[] ctts = child(moov, stbl, "ctts");
+        if (ctts != null) {
+            track.hasCto = true;
+            sample = 0;
+            int cttsEntries = count(moov, ctts, 4, 8);
+            for (int e = 0; e < cttsEntries; e++) {
+                int n = moov.getInt(ctts[1] + 8 + 8 * e);
+                int offset = moov.getInt(ctts[1] + 12 + 8 * e);
+                for (int i = 0; i < n && sample < count; i++)
+                    track.ctos[sample++] = offset;
+            }
+        }
+
+        boolean wide = stco == null;
+        int[] chunkBox = wide ? co64 : stco;
+        int chunkCount = count(moov, chunkBox, 4, wide ? 8 : 4);
+        track.offsets = new long[count];
+        sample = 0;
+        int stscEntries = count(moov, stsc, 4, 12);
+        for (int e = 0; e < stscEntries && sample < count; e++) {
+            int firstChunk = moov.getInt(stsc[1] + 8 + 12 * e);
+            int nextFirst = e + 1 < stscEntries ? moov.getInt(stsc[1] + 8 + 12 * (e + 1)) : chunkCount + 1;
+            int perChunk = moov.getInt(stsc[1] + 12 + 12 * e);
+            if (firstChunk < 1 || nextFirst > chunkCount + 1)
+                return null;
+            for (int chunk = firstChunk; chunk < nextFirst && sample < count; chunk++) {
+                long offset = wide ? moov.getLong(chunkBox[1] + 8 + 8 * (chunk - 1))
+                        : moov.getInt(chunkBox[1] + 8 + 4 * (chunk - 1)) & UINT32_MAX;
+                for (int i = 0; i < perChunk && sample < count; i++) {
+                    if (offset < 0 || offset + track.sizes[sample] > fileSize)
+                        return null;
+                    track.offsets[sample] = offset;
+                    offset += track.sizes[sample];
+                    sample++;
+                }
+            }
+        }
+        if (sample != count)
+            return null;
+
+        track.sync = new boolean[count];
+        int[] stss = child(moov, stbl, "stss");
+        if (stss == null) {
+            Arrays.fill(track.sync, true);
+        } else {
+            int entries = count(moov, stss, 4, 4);
+            for (int e = 0; e < entries; e++) {
+                int number = moov.getInt(stss[1] + 8 + 4 * e);
+                if (number >= 1 && number <= count)
+                    track.sync[number - 1] = true;
+            }
+        }
+        return track;
+    }
+
+    // ---chia segment
+
+    // Cắt tại keyframe đầu tiên sau mỗi khoảng targetSeconds
+    private static List<Integer> cutPoints(Track main, double targetSeconds) {
+        List<Integer> cuts = new ArrayList<>();
+        cuts.add(0);
+        double next = targetSeconds;
+        for (int i = 1; i < main.count(); i++) {
+            double time = main.decodeTimes[i] / (double) main.timescale;
+            if (time >= next && main.sync[i]) {
+                cuts.add(i);
+                next = time + targetSeconds;
+            }
+        }
+        return cuts;
+    }
+
+    // Track phụ (audio) theo mốc thời gian của track chính
+    private static int[] alignTo(Track track, Track main, List<Integer> cuts) {
+        int[] starts = new int[cuts.size()];
+        int sample = 0;
+        for (int segment = 1; segment < cuts.size(); segment++) {
+            double boundary = main.decodeTimes[cuts.get(segment)] / (double) main.timescale;
+            while (sample < track.count() && track.decodeTimes[sample] / (double) track.timescale < boundary)
+                sample++;
+            starts[segment] = sample;
+        }
+        return starts;
+    }
+
+    // ---ghi fMP4
+
+    private static byte[] initSegment(ByteBuffer moov, List<Track> tracks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(box("ftyp", ascii("iso5"), int32(512), ascii("iso5"), ascii("iso6"), ascii("mp41")));
+        List<byte[]> parts = new ArrayList<>();
+        int[] mvhd = child(moov, new int[]{0, headerEnd(moov, 0), moov.limit()}, "mvhd");
+        if (mvhd == null)
+            throw new IllegalStateException("mvhd");
+        parts.add(slice(moov, mvhd[0], mvhd[2]));
+        for (Track track : tracks)
+            parts.add(rewriteContainer(moov, new int[]{track.trakStart, headerEnd(moov, track.trakStart), track.trakEnd}));
+        List<byte[]> trex = new ArrayList<>();
+        for (Track track : tracks)
+            trex.add(box("trex", int32(0), int32(track.id), int32(1), int32(0), int32(0), int32(0)));
+        parts.add(box("mvex", trex.toArray(new byte[0][])));
+        out.write(box("moov", parts.toArray(new byte[0][])));
+        return out.toByteArray();
+    }
+
+    // Giữ nguyên trak/mdia/minf, thay stbl bằng bảng rỗng (chỉ giữ stsd) như fMP4 yêu cầu
+    private static byte[] rewriteContainer(ByteBuffer moov, int[] container) throws IOException {
+        String type = typeAt(moov, container[0]);
+        List<byte[]> parts = new ArrayList<>();
+        for (int[] child : children(moov, container[1], container[2])) {
+            String childType = typeAt(moov, child[0]);
+            if (childType.equals("mdia") || childType.equals("minf")) {
+                parts.add(rewriteContainer(moov, child));
+            } else if (childType.equals("stbl")) {
+                int[] stsd = child(moov, child, "stsd");
+                parts.add(box("stbl",
+                        slice(moov, stsd[0], stsd[2]),
+                        box("stts", int32(0), int32(0)),
+                        box("stsc", int32(0), int32(0)),
+                        box("stsz", int32(0), int32(0), int32(0)),
+                        box("stco", int32(0), int32(0))));
+            } else {
+                parts.add(slice(moov, child[0], child[2]));
+            }
+        }
+        return box(type, parts.toArray(new byte[0][]));
+    }
+
+    private static void writeSegment(FileChannel in, Path target, List<Track> tracks, int[] from, int[] to,
+                                     int sequence) throws IOException {
+        long[] dataSizes = new long[tracks.size()];
+        for (int t = 0; t < tracks.size(); t++) {
+            for (int i = from[t]; i < to[t]; i++)
+                dataSizes[t] += tracks.get(t).sizes[i];
+        }
+        long mdatPayload = 0;
+        for (long size : dataSizes)
+            mdatPayload += size;
+        boolean largeMdat = mdatPayload + 8 > UINT32_MAX;
+        int mdatHeader = largeMdat ? 16 : 8;
+
+        // Lần 1 để biết kích thước moof, lần 2 ghi data_offset đúng
+        byte[] moof = moof(tracks, from, to, sequence, dataSizes, 0);
+        moof = moof(tracks, from, to, sequence, dataSizes, moof.length + mdatHeader);
+
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer head = ByteBuffer.allocate(moof.length + mdatHeader);
+            head.put(moof);
+            if (largeMdat) {
+                head.putInt(1).put(ascii("mdat")).putLong(mdatPayload + 16);
+            } else {
+                head.putInt((int) (mdatPayload + 8)).put(ascii("mdat"));
+            }
+            head.flip();
+            while (head.hasRemaining())
+                out.write(head);
+            for (int t = 0; t < tracks.size(); t++) {
+                Track track = tracks.get(t);
+                int i = from[t];
+                // Gộp các sample liền nhau trong file gốc thành một lần transferTo
+                while (i < to[t]) {
+                    long start = track.offsets[i];
+                    long length = track.sizes[i];
+                    i++;
+                    while (i < to[t] && track.offsets[i] == start + length) {
+                        length += track.sizes[i];
+                        i++;
+                    }
+                    copy(in, start, length, out);
+                }
+            }
+        }
+    }
+
+    private static byte[] moof(List<Track> tracks, int[] from, int[] to, int sequence, long[] dataSizes,
+                               long firstDataOffset) throws IOException {
+        List<byte[]> parts = new ArrayList<>();
+        parts.add(box("mfhd", int32(0), int32(sequence)));
+        long dataOffset = firstDataOffset;
+        for (int t = 0; t < tracks.size(); t++) {
+            Track track = tracks.get(t);
+            int count = to[t] - from[t];
+            boolean signedCto = false;
+            for (int i = from[t]; i < to[t]; i++)
+                signedCto |= track.ctos[i] < 0;
+            // data-offset | duration | size | flags | (composition time offset)
+            int flags = 0x000001 | 0x000100 | 0x000200 | 0x000400 | (track.hasCto ? 0x000800 : 0);
+            ByteArrayOutputStream trun = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(trun);
+            data.writeInt(((signedCto ? 1 : 0) << 24) | flags);
+            data.writeInt(count);
+            data.writeInt((int) dataOffset);
+            for (int i = from[t]; i < to[t]; i++) {
+                data.writeInt(track.durations[i]);
+                data.writeInt(track.sizes[i]);
+                data.writeInt(track.sync[i] ? SAMPLE_FLAGS_SYNC : SAMPLE_FLAGS_NON_SYNC);
+                if (track.hasCto)
+                    data.writeInt(track.ctos[i]);
+            }
+            ByteBuffer tfdt = ByteBuffer.allocate(12).putInt(1 << 24).putLong(track.timeAt(from[t]));
+            parts.add(box("traf",
+                    // default-base-is-moof
+                    box("tfhd", int32(0x020000), int32(track.id)),
+                    box("tfdt", tfdt.array()),
+                    box("trun", trun.toByteArray())));
+            dataOffset += dataSizes[t];
+        }
+        return box("moof", parts.toArray(new byte[0][]));
+    }
+
+    // ---tiện ích box
+
+    // Số entry ở (nội dung box + at); entrySize > 0 thì bảng entry theo ngay sau phải nằm gọn trong box
+    private static int count(ByteBuffer buffer, int[] box, int at, int entrySize) {
+        long count = buffer.getInt(box[1] + at) & UINT32_MAX;
+        if (count > Integer.MAX_VALUE || (long) box[1] + at + 4 + count * entrySize > box[2])
+            throw new IllegalStateException("count");
+        return (int) count;
+    }
+
+    private static int headerEnd(ByteBuffer buffer, int position) {
+        return position + ((buffer.getInt(position) & UINT32_MAX) == 1 ? 16 : 8);
+    }
+
+    // {bắt đầu box, bắt đầu nội dung, kết thúc box}
+    private static List<int[]> children(ByteBuffer buffer, int start, int end) {
+        List<int[]> boxes = new ArrayList<>();
+        int position = start;
+        while (position + 8 <= end) {
+            long size = buffer.getInt(position) & UINT32_MAX;
+            int header = 8;
+            if (size == 1) {
+                size = buffer.getLong(position + 8);
+                header = 16;
+            } else if (size == 0) {
+                size = end - position;
+            }
+            if (size < header || position + size > end)
+                throw new IllegalStateException("box");
+            boxes.add(new int[]{position, position + header, (int) (position + size)});
+            position += (int) size;
+        }
+        return boxes;
+    }
+
+    private static int[] child(ByteBuffer buffer, int[] parent, String type) {
+        for (int[] box : children(buffer, parent[1], parent[2])) {
+            if (typeAt(buffer, box[0]).equals(type))
+                return box;
+        }
+        return null;
+    }
+
+    private static String typeAt(ByteBuffer buffer, int position) {
+        return new String(buffer.array(), position + 4, 4, StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] slice(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        System.arraycopy(buffer.array(), start, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    private static byte[] box(String type, byte[]... payloads) {
+        long size = 8;
+        for (byte[] payload : payloads)
+            size += payload.length;
+        ByteBuffer box = ByteBuffer.allocate((int) size);
+        box.putInt((int) size).put(ascii(type));
+        for (byte[] payload : payloads)
+            box.put(payload);
+        return box.array();
+    }
+
+    private static byte[] int32(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = in.read(buffer, position);
+            if (read < 0)
+                throw new EOFException();
+            position += read;
+        }
+    }
+
+    private static void copy(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        while (count > 0) {
+            long sent = in.transferTo(position, count, out);
+            if (sent <= 0)
+                throw new EOFException();
+            position += sent;
+            count -= sent;
+        }
+    }
+}
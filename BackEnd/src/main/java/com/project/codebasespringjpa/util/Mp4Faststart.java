@@ -0,0 +1,220 @@
+package com.project.codebasespringjpa.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Đưa box moov của MP4 lên trước mdat (faststart) và đọc thời lượng từ mvhd.
+// Chỉ moov được nạp vào RAM, phần dữ liệu media được copy bằng transferTo.
+public class Mp4Faststart {
+    static final Set<String> EXTENSIONS = Set.of("mp4", "m4v", "mov");
+    static final Set<String> CONTAINERS = Set.of("moov", "trak", "mdia", "minf", "stbl");
+    static final long MAX_MOOV_SIZE = 64L * 1024 * 1024;
+    static final long UINT32_MAX = 0xFFFFFFFFL;
+
+    record Box(String type, long offset, long size, int headerSize) {
+        long end() {
+            return offset + size;
+        }
+    }
+
+    private Mp4Faststart() {
+    }
+
+    public static boolean isMp4(String fileName) {
+        if (fileName == null || fileName.lastIndexOf('.') < 0)
+            return false;
+        return EXTENSIONS.contains(fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // true nếu đã ghi bản faststart ra target; false nếu đã faststart sẵn hoặc không xử lý được (không tạo target)
+    public static boolean rewrite(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            List<Box> boxes = topLevelBoxes(in);
+            Box moov = find(boxes, "moov");
+            Box mdat = find(boxes, "mdat");
+            if (moov == null || mdat == null || moov.offset() < mdat.offset() || moov.size() > MAX_MOOV_SIZE)
+                return false;
+            ByteBuffer moovData = ByteBuffer.allocate((int) moov.size());
+            readFully(in, moovData, moov.offset());
+            // moov chèn vào trước mdat: mọi dữ liệu nằm giữa mdat và moov cũ dịch thêm moov.size byte
+            if (!patchOffsets(moovData, moov.headerSize(), (int) moov.size(), mdat.offset(), moov.offset(), moov.size()))
+                return false;
+            moovData.clear();
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                copy(in, 0, mdat.offset(), out);
+                while (moovData.hasRemaining())
+                    out.write(moovData);
+                copy(in, mdat.offset(), moov.offset() - mdat.offset(), out);
+                copy(in, moov.end(), in.size() - moov.end(), out);
+                out.force(false);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return true;
+    }
+
+    // Thời lượng (giây) theo mvhd; null nếu không phải MP4 hợp lệ
+    public static Double readDurationSeconds(Path file) {
+        if (file == null || !Files.isRegularFile(file))
+            return null;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            Box moov = find(topLevelBoxes(in), "moov");
+            if (moov == null)
+                return null;
+            long position = moov.offset() + moov.headerSize();
+            ByteBuffer header = ByteBuffer.allocate(32);
+            while (position + 8 <= moov.end()) {
+                Box child = readBoxHeader(in, position, moov.end());
+                if (child == null)
+                    return null;
+                if (child.type().equals("mvhd")) {
+                    header.limit((int) Math.min(32, child.size() - child.headerSize()));
+                    readFully(in, header, child.offset() + child.headerSize());
+                    return mvhdDuration(header);
+                }
+                position = child.end();
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Double mvhdDuration(ByteBuffer mvhd) {
+        int version = mvhd.get(0);
+        long timescale;
+        long duration;
+        if (version == 1) {
+            timescale = mvhd.getInt(20) & UINT32_MAX;
+            duration = mvhd.getLong(24);
+        } else {
+            timescale = mvhd.getInt(12) & UINT32_MAX;
+            duration = mvhd.getInt(16) & UINT32_MAX;
+        }
+        if (timescale == 0 || duration < 0 || duration == UINT32_MAX)
+            return null;
+        return (double) duration / timescale;
+    }
+
+    // Sửa chunk offset trong stco/co64; false nếu gặp moov nén (cmov) hoặc offset tràn 32 bit
+    private static boolean patchOffsets(ByteBuffer moov, int start, int end, long shiftFrom, long shiftTo, long delta) {
+        int position = start;
+        while (position + 8 <= end) {
+            long size = moov.getInt(position) & UINT32_MAX;
+            String type = new String(moov.array(), position + 4, 4, StandardCharsets.US_ASCII);
+            int headerSize = 8;
+            if (size == 1) {
+                size = moov.getLong(position + 8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = end - position;
+            }
+            if (size < headerSize || position + size > end)
+                return false;
+            int contentStart = position + headerSize;
+            int boxEnd = (int) (position + size);
+            if (type.equals("cmov"))
+                return false;
+            if (CONTAINERS.contains(type)) {
+                if (!patchOffsets(moov, contentStart, boxEnd, shiftFrom, shiftTo, delta))
+                    return false;
+            } else if (type.equals("stco") || type.equals("co64")) {
+                boolean wide = type.equals("co64");
+                long count = moov.getInt(contentStart + 4) & UINT32_MAX;
+                int entry = contentStart + 8;
+                if (entry + count * (wide ? 8 : 4) > boxEnd)
+                    return false;
+                for (long i = 0; i < count; i++) {
+                    long offset = wide ? moov.getLong(entry) : moov.getInt(entry) & UINT32_MAX;
+                    if (offset >= shiftFrom && offset < shiftTo)
+                        offset += delta;
+                    if (wide) {
+                        moov.putLong(entry, offset);
+                        entry += 8;
+                    } else {
+                        if (offset > UINT32_MAX)
+                            return false;
+                        moov.putInt(entry, (int) offset);
+                        entry += 4;
+                    }
+                }
+            }
+            position = boxEnd;
+        }
+        return true;
+    }
+
+    private static List<Box> topLevelBoxes(FileChannel in) throws IOException {
+        List<Box> boxes = new ArrayList<>();
+        long size = in.size();
+        long position = 0;
+        while (position + 8 <= size) {
+            Box box = readBoxHeader(in, position, size);
+            if (box == null)
+                break;
+            boxes.add(box);
+            position = box.end();
+        }
+        return boxes;
+    }
+
+    private static Box readBoxHeader(FileChannel in, long position, long limit) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        header.limit(8);
+        readFully(in, header, position);
+        long size = header.getInt(0) & UINT32_MAX;
+        String type = new String(header.array(), 4, 4, StandardCharsets.US_ASCII);
+        int headerSize = 8;
+        if (size == 1) {
+            header.limit(16);
+            readFully(in, header, position + 8);
+            size = header.getLong(8);
+            headerSize = 16;
+        } else if (size == 0) {
+            size = limit - position;
+        }
+        if (size < headerSize || position + size > limit)
+            return null;
+        return new Box(type, position, size, headerSize);
+    }
+
+    private static Box find(List<Box> boxes, String type) {
+        for (Box box : boxes) {
+            if (box.type().equals(type))
+                return box;
+        }
+        return null;
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = in.read(buffer, position);
+            if (read < 0)
+                throw new EOFException();
+            position += read;
+        }
+    }
+
+    private static void copy(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        while (count > 0) {
+            long sent = in.transferTo(position, count, out);
+            if (sent <= 0)
+                throw new EOFException();
+            position += sent;
+            count -= sent;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.project.codebasespringjpa.util;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+// Kênh ghi body response bằng ByteBuffer: output của Tomcat (CoyoteOutputStream) nhận thẳng buffer direct,
+// byte đọc từ FileChannel/vùng mmap đi vào buffer socket mà không qua mảng byte trên heap
+public class ResponseChannel implements WritableByteChannel {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    // Output nhận ByteBuffer trực tiếp (vd: ThrottledOutputStream)
+    public interface ByteBufferOutput {
+        void write(ByteBuffer buffer) throws IOException;
+    }
+
+    private final ByteBufferOutput output;
+    private boolean open = true;
+
+    private ResponseChannel(ByteBufferOutput output) {
+        this.output = output;
+    }
+
+    // Wrapper của filter khác (vd: Spring Security) chỉ nhận byte[]: commit header qua wrapper ngoài cùng
+    // rồi ghi thẳng vào output của tầng bên dưới. Không tìm được output nhận ByteBuffer thì quay về stream
+    public static WritableByteChannel of(ServletResponse response) throws IOException {
+        ServletOutputStream outer = response.getOutputStream();
+        ServletResponse current = response;
+        ServletOutputStream out = outer;
+        while (true) {
+            if (out instanceof ByteBufferOutput direct)
+                return open(response, current, direct);
+            if (out instanceof CoyoteOutputStream coyote)
+                return open(response, current, coyote::write);
+            if (!(current instanceof ServletResponseWrapper wrapper))
+                return Channels.newChannel(outer);
+            current = wrapper.getResponse();
+            out = current.getOutputStream();
+        }
+    }
+
+    private static WritableByteChannel open(ServletResponse outer, ServletResponse target, ByteBufferOutput output)
+            throws IOException {
+        if (target != outer)
+            outer.flushBuffer();
+        return new ResponseChannel(output);
+    }
+
+    // Ghi đoạn [position, position + count) của file qua một buffer direct dùng lại được
+    public static void transfer(FileChannel file, long position, long count, WritableByteChannel target)
+            throws IOException {
+        if (!(target instanceof ResponseChannel)) {
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, target);
+                if (sent <= 0)
+                    break;
+                position += sent;
+                remaining -= sent;
+            }
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(BUFFER_SIZE, Math.max(1, count)));
+        long end = position + count;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            int read = file.read(buffer, position);
+            if (read <= 0)
+                break;
+            position += read;
+            buffer.flip();
+            while (buffer.hasRemaining())
+                target.write(buffer);
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+        if (!open)
+            throw new ClosedChannelException();
+        int before = source.remaining();
+        output.write(source);
+        return before - source.remaining();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    // Không đóng response: container tự đóng khi request kết thúc
+    @Override
+    public void close() {
+        open = false;
+    }
+}
@@ -1,16 +1,31 @@
 package com.project.codebasespringjpa.util;
 
-import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.zip.CRC32;
 
 public class UtilFile {
-    private static final String RESOURCE_DIR = getResourceDirectory();
-    
-    private static String getResourceDirectory() {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Kết quả lưu file: tên file, số byte và SHA-256 (hex) tính trong lúc ghi
+    public record StoredFile(String fileName, long size, String sha256) {
+    }
+
+    // Thư mục mặc định của LocalMediaStore khi không cấu hình media.LOCAL_DIR
+    public static String getResourceDirectory() {
         String dockerEnv = System.getenv("DOCKER_ENV");
         if (dockerEnv != null && !dockerEnv.isEmpty()) {
             // Môi trường Docker
@@ -19,26 +34,90 @@ public class UtilFile {
         return System.getProperty("user.dir") + "/src/main/resources/static/";
     }
 
-    public static String saveFileToStaticFolder(MultipartFile file) throws IOException {
-        if (file.isEmpty()) throw new IllegalArgumentException("File empty");
-        // Tạo tên file duy nhất
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = "";
+    // Tạo tên file duy nhất, giữ phần mở rộng của file gốc
+    public static String newFileName(String originalFilename) {
+        return UUID.randomUUID() + extensionOf(originalFilename);
+    }
+
+    // Tên file theo nội dung: cùng nội dung thì cùng tên
+    public static String contentAddressedName(String sha256, String originalFilename) {
+        return sha256 + extensionOf(originalFilename).toLowerCase();
+    }
+
+    private static String extensionOf(String originalFilename) {
         if (originalFilename != null && originalFilename.contains(".")) {
-            fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            return originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return "";
+    }
+
+    public static String sha256Hex(FileChannel channel, long size) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long position = 0;
+        while (position < size) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                break;
+            position += read;
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
         }
-        String newFileName = UUID.randomUUID() + fileExtension;
-        saveTo(file, RESOURCE_DIR, newFileName);
-        return newFileName;
+        return HexFormat.of().formatHex(digest.digest());
     }
 
-    private static void saveTo(MultipartFile file, String dirPath, String fileName) throws IOException {
+    // Ghi từ stream xuống đĩa qua buffer cố định, không nạp cả file vào heap
+    public static StoredFile saveTo(InputStream in, String dirPath, String fileName) throws IOException {
         Path path = Paths.get(dirPath);
         if (!Files.exists(path)) {
             Files.createDirectories(path);
         }
         Path filePath = path.resolve(fileName);
-        Files.write(filePath, file.getBytes());
+        // Ghi ra file tạm rồi đổi tên, tránh phục vụ file đang ghi dở
+        Path tempPath = path.resolve(fileName + ".part");
+        StoredFile stored = writeTemp(in, tempPath);
+        Files.move(tempPath, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new StoredFile(fileName, stored.size(), stored.sha256());
+    }
+
+    private static StoredFile writeTemp(InputStream in, Path tempPath) throws IOException {
+        MessageDigest digest = sha256();
+        long size = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining())
+                    size += target.write(buffer);
+                buffer.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        return new StoredFile(tempPath.getFileName().toString(), size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    // CRC32 cho entry STORED của ZIP
+    public static long crc32(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) > 0)
+            crc.update(buffer, 0, read);
+        return crc.getValue();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public static boolean hasImage(String imagePath){
@@ -0,0 +1,227 @@
+package com.project.codebasespringjpa.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// File ZIP chỉ gồm entry STORED, bố cục tính trước từ kích thước + CRC:
+// biết tổng độ dài và vị trí từng byte nên phục vụ được Range mà không cần file tạm
+public class ZipBundle {
+    static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    static final int ZIP64_ENTRY_LIMIT = 0xFFFF;
+    static final int VERSION_STORED = 10;
+    static final int VERSION_ZIP64 = 45;
+    static final int FLAG_UTF8 = 0x0800;
+
+    // Nguồn byte của entry trỏ tới file (vd: MediaStore::transferTo)
+    public interface Content {
+        void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+    }
+
+    // key != null: nội dung lấy từ Content; ngược lại dùng data có sẵn trong bộ nhớ
+    public record Entry(String name, String key, byte[] data, long size, long crc32, long lastModified) {
+        public static Entry file(String name, String key, long size, long crc32, long lastModified) {
+            return new Entry(name, key, null, size, crc32, lastModified);
+        }
+
+        public static Entry bytes(String name, byte[] data, long lastModified) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            return new Entry(name, null, data, data.length, crc.getValue(), lastModified);
+        }
+    }
+
+    private record Segment(long offset, long length, byte[] data, String key) {
+    }
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final Content content;
+    private final long length;
+    private final long lastModified;
+    private final String etag;
+
+    public ZipBundle(List<Entry> entries, Content content) {
+        this.content = content;
+        ByteArrayOutputStream central = new ByteArrayOutputStream();
+        long offset = 0;
+        long newest = 0;
+        boolean zip64 = entries.size() >= ZIP64_ENTRY_LIMIT;
+        for (Entry entry : entries) {
+            byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+            boolean large = entry.size() >= ZIP64_LIMIT;
+            boolean farOffset = offset >= ZIP64_LIMIT;
+            zip64 |= large || farOffset;
+            int dosTime = dosTime(entry.lastModified());
+
+            ByteBuffer local = buffer(30 + name.length + (large ? 20 : 0));
+            local.putInt(0x04034b50)
+                    .putShort((short) (large ? VERSION_ZIP64 : VERSION_STORED))
+                    .putShort((short) FLAG_UTF8)
+                    .putShort((short) 0)
+                    .putInt(dosTime)
+                    .putInt((int) entry.crc32())
+                    .putInt((int) (large ? ZIP64_LIMIT : entry.size()))
+                    .putInt((int) (large ? ZIP64_LIMIT : entry.size()))
+                    .putShort((short) name.length)
+                    .putShort((short) (large ? 20 : 0))
+                    .put(name);
+            if (large)
+                local.putShort((short) 0x0001).putShort((short) 16).putLong(entry.size()).putLong(entry.size());
+            offset = this.add(offset, local.array(), null, local.capacity());
+            long localOffset = offset - local.capacity();
+            offset = this.add(offset, entry.data(), entry.key(), entry.size());
+
+            int extra = (large ? 16 : 0) + (localOffset >= ZIP64_LIMIT ? 8 : 0);
+            ByteBuffer header = buffer(46 + name.length + (extra > 0 ? 4 + extra : 0));
+            header.putInt(0x02014b50)
+                    .putShort((short) VERSION_ZIP64)
+                    .putShort((short) (extra > 0 ? VERSION_ZIP64 : VERSION_STORED))
+                    .putShort((short) FLAG_UTF8)
+                    .putShort((short) 0)
+                    .putInt(dosTime)
+                    .putInt((int) entry.crc32())
+                    .putInt((int) (large ? ZIP64_LIMIT : entry.size()))
+                    .putInt((int) (large ? ZIP64_LIMIT : entry.size()))
+                    .putShort((short) name.length)
+                    .putShort((short) (extra > 0 ? 4 + extra : 0))
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putInt(0)
+                    .putInt((int) (localOffset >= ZIP64_LIMIT ? ZIP64_LIMIT : localOffset))
+                    .put(name);
+            if (extra > 0) {
+                header.putShort((short) 0x0001).putShort((short) extra);
+                if (large)
+                    header.putLong(entry.size()).putLong(entry.size());
+                if (localOffset >= ZIP64_LIMIT)
+                    header.putLong(localOffset);
+            }
+            central.writeBytes(header.array());
+            newest = Math.max(newest, entry.lastModified());
+        }
+
+        byte[] directory = central.toByteArray();
+        long directoryOffset = offset;
+        zip64 |= directoryOffset >= ZIP64_LIMIT || directory.length >= ZIP64_LIMIT;
+        offset = this.add(offset, directory, null, directory.length);
+
+        ByteBuffer end = buffer((zip64 ? 56 + 20 : 0) + 22);
+        if (zip64) {
+            long zip64EndOffset = offset;
+            end.putInt(0x06064b50)
+                    .putLong(44)
+                    .putShort((short) VERSION_ZIP64)
+                    .putShort((short) VERSION_ZIP64)
+                    .putInt(0)
+                    .putInt(0)
+                    .putLong(entries.size())
+                    .putLong(entries.size())
+                    .putLong(directory.length)
+                    .putLong(directoryOffset);
+            end.putInt(0x07064b50)
+                    .putInt(0)
+                    .putLong(zip64EndOffset)
+                    .putInt(1);
+        }
+        int count = Math.min(entries.size(), ZIP64_ENTRY_LIMIT);
+        end.putInt(0x06054b50)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) count)
+                .putShort((short) count)
+                .putInt((int) Math.min(directory.length, ZIP64_LIMIT))
+                .putInt((int) Math.min(directoryOffset, ZIP64_LIMIT))
+                .putShort((short) 0);
+        this.length = this.add(offset, end.array(), null, end.capacity());
+        this.lastModified = newest;
+        // Central directory chứa tên, kích thước, CRC, offset: đổi bất kỳ entry nào thì ETag đổi
+        this.etag = "\"" + sha256Prefix(directory) + "-" + Long.toHexString(length) + "\"";
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public long lastModified() {
+        return lastModified;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    // Ghi đoạn [position, position + count) của file ZIP ra target
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        long end = Math.min(length, position + count);
+        int index = this.segmentAt(position);
+        while (position < end && index < segments.size()) {
+            Segment segment = segments.get(index++);
+            long from = position - segment.offset();
+            long n = Math.min(segment.length() - from, end - position);
+            if (n <= 0)
+                continue;
+            if (segment.data() != null) {
+                ByteBuffer buffer = ByteBuffer.wrap(segment.data(), (int) from, (int) n);
+                while (buffer.hasRemaining())
+                    target.write(buffer);
+            } else {
+                content.transferTo(segment.key(), from, n, target);
+            }
+            position += n;
+        }
+    }
+
+    private long add(long offset, byte[] data, String key, long length) {
+        if (length > 0)
+            segments.add(new Segment(offset, length, data, key));
+        return offset + length;
+    }
+
+    private int segmentAt(long position) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).offset() <= position)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Giờ DOS (MS-DOS date/time): thấp 16 bit là giờ, cao 16 bit là ngày, tối thiểu năm 1980
+    private static int dosTime(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980)
+            return (1 << 21) | (1 << 16);
+        return ((time.getYear() - 1980) << 25) | (time.getMonthValue() << 21) | (time.getDayOfMonth() << 16)
+                | (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() >> 1);
+    }
+
+    private static String sha256Prefix(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
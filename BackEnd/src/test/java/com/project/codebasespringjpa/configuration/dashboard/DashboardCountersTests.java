@@ -0,0 +1,67 @@
+package com.project.codebasespringjpa.configuration.dashboard;
+
+import com.project.codebasespringjpa.repository.IAppointmentRepository;
+import com.project.codebasespringjpa.repository.ICourseRepository;
+import com.project.codebasespringjpa.repository.IProgramRepository;
+import com.project.codebasespringjpa.repository.ISurveyResultRepository;
+import com.project.codebasespringjpa.repository.IUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DashboardCountersTests {
+    IUserRepository userRepository;
+    ApplicationEventPublisher eventPublisher;
+    DashboardCounters dashboardCounters;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(IUserRepository.class);
+        when(userRepository.cntUserActice()).thenReturn(5L);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        dashboardCounters = new DashboardCounters();
+        ReflectionTestUtils.setField(dashboardCounters, "userRepository", userRepository);
+        ReflectionTestUtils.setField(dashboardCounters, "courseRepository", mock(ICourseRepository.class));
+        ReflectionTestUtils.setField(dashboardCounters, "programRepository", mock(IProgramRepository.class));
+        ReflectionTestUtils.setField(dashboardCounters, "appointmentRepository", mock(IAppointmentRepository.class));
+        ReflectionTestUtils.setField(dashboardCounters, "surveyResultRepository", mock(ISurveyResultRepository.class));
+        ReflectionTestUtils.setField(dashboardCounters, "eventPublisher", eventPublisher);
+        dashboardCounters.init();
+        dashboardCounters.seed();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardCounters.shutdown();
+    }
+
+    @Test
+    void reconcileWithoutDriftPublishesNothing() {
+        dashboardCounters.onEvent(new DashboardEvent(DashboardEvent.Counter.USER, 1));
+        when(userRepository.cntUserActice()).thenReturn(6L);
+
+        dashboardCounters.reconcile();
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void reconcileThatCorrectsDriftPublishesSnapshot() {
+        // Sự kiện bị bỏ sót: DB đã có 7 user, bộ đếm vẫn là 5
+        when(userRepository.cntUserActice()).thenReturn(7L);
+
+        dashboardCounters.reconcile();
+
+        ArgumentCaptor<DashboardCounters.Reconciled> event = ArgumentCaptor.forClass(DashboardCounters.Reconciled.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(7L, event.getValue().snapshot().getCntUser());
+        assertEquals(0L, event.getValue().snapshot().getCntCourse());
+    }
+}
@@ -0,0 +1,136 @@
+package com.project.codebasespringjpa.configuration.dashboard;
+
+import com.project.codebasespringjpa.dto.statics.DashboardResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardStreamTests {
+    static final int BUFFER = 2;
+
+    SimpleMeterRegistry meterRegistry;
+    DashboardStream dashboardStream;
+
+    @BeforeEach
+    void setUp() {
+        DashboardCounters dashboardCounters = mock(DashboardCounters.class);
+        when(dashboardCounters.snapshot()).thenReturn(response(10));
+        meterRegistry = new SimpleMeterRegistry();
+        dashboardStream = new DashboardStream();
+        ReflectionTestUtils.setField(dashboardStream, "dashboardCounters", dashboardCounters);
+        ReflectionTestUtils.setField(dashboardStream, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(dashboardStream, "maxClients", 10);
+        ReflectionTestUtils.setField(dashboardStream, "bufferSize", BUFFER);
+        ReflectionTestUtils.setField(dashboardStream, "threads", 2);
+        ReflectionTestUtils.setField(dashboardStream, "timeoutMillis", 60_000L);
+        dashboardStream.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardStream.shutdown();
+    }
+
+    @Test
+    void snapshotComesFirstThenDeltasThenReconciledSnapshot() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        dashboardStream.subscribe(emitter);
+
+        dashboardStream.onEvent(new DashboardEvent(DashboardEvent.Counter.USER, 1));
+        dashboardStream.onEvent(new DashboardEvent(DashboardEvent.Counter.COURSE, -1));
+        dashboardStream.onReconciled(new DashboardCounters.Reconciled(response(12)));
+
+        emitter.await(4);
+        assertEquals(List.of("snapshot", "delta", "delta", "snapshot"),
+                emitter.events.stream().map(DashboardStreamTests::nameOf).toList());
+        assertTrue(emitter.events.get(3).contains("\"cntUser\":12"), emitter.events.get(3));
+    }
+
+    @Test
+    void slowClientIsDisconnectedWhenBufferIsFull() throws Exception {
+        CountDownLatch socket = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(socket);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        dashboardStream.subscribe(slow);
+        dashboardStream.subscribe(fast);
+        // Thread drain của client chậm đang kẹt ở lần gửi snapshot
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < BUFFER + 1; i++)
+            dashboardStream.onEvent(new DashboardEvent(DashboardEvent.Counter.USER, 1));
+
+        assertTrue(slow.completed);
+        assertEquals(1, dashboardStream.subscribers.size());
+        assertEquals(1.0, meterRegistry.counter("dashboard.stream.dropped").count());
+        // Client nhanh không bị ảnh hưởng
+        fast.await(1 + BUFFER + 1);
+        socket.countDown();
+        dashboardStream.onEvent(new DashboardEvent(DashboardEvent.Counter.USER, 1));
+        fast.await(1 + BUFFER + 2);
+        // Client chậm đã bị ngắt: không nhận thêm event nào sau snapshot
+        Thread.sleep(50);
+        assertEquals(1, slow.events.size());
+    }
+
+    private static String nameOf(String event) {
+        int start = event.indexOf("event:") + "event:".length();
+        return event.substring(start, event.indexOf('\n', start));
+    }
+
+    private static DashboardResponse response(long users) {
+        return DashboardResponse.builder().cntUser(users).build();
+    }
+
+    // Ghi lại event đã gửi; socket khác null thì lần gửi đầu chờ latch, giả lập client đọc chậm
+    static class RecordingEmitter extends SseEmitter {
+        final CountDownLatch socket;
+        final CountDownLatch sending = new CountDownLatch(1);
+        final List<String> events = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (socket != null) {
+                try {
+                    socket.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder event = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build())
+                event.append(part.getData());
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        void await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline)
+                Thread.sleep(5);
+            assertEquals(count, events.size());
+        }
+    }
+}
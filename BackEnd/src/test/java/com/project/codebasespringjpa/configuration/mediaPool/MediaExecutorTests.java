@@ -0,0 +1,126 @@
+package com.project.codebasespringjpa.configuration.mediaPool;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaExecutorTests {
+    MediaExecutor mediaExecutor;
+
+    @BeforeEach
+    void setUp() {
+        mediaExecutor = new MediaExecutor();
+        ReflectionTestUtils.setField(mediaExecutor, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mediaExecutor, "threads", 1);
+        ReflectionTestUtils.setField(mediaExecutor, "queueSize", 1);
+        ReflectionTestUtils.setField(mediaExecutor, "timeoutMillis", 1000L);
+        mediaExecutor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mediaExecutor.shutdown();
+    }
+
+    @Test
+    void timeoutSends503AndCompletesOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaExecutor.dispatch(request, response, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finished.countDown();
+            }
+        });
+        MockAsyncContext context = (MockAsyncContext) request.getAsyncContext();
+        AtomicInteger completed = countCompletions(context);
+        fire(context.getListeners(), context);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, completed.get());
+
+        // Transfer xong sau timeout: không complete lần nữa
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    void saturatedPoolRejectsWith503() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        // Một task chiếm thread, một task nằm trong hàng đợi
+        for (int i = 0; i < 2; i++) {
+            mediaExecutor.dispatch(request(), new MockHttpServletResponse(), () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaExecutor.dispatch(request(), response, () -> fail("Khong duoc chay"));
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        release.countDown();
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/video.mp4");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static AtomicInteger countCompletions(MockAsyncContext context) {
+        AtomicInteger completed = new AtomicInteger();
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                completed.incrementAndGet();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        return completed;
+    }
+
+    // MockAsyncContext không tự hết giờ: gọi onTimeout như container
+    private static void fire(List<AsyncListener> listeners, MockAsyncContext context) throws Exception {
+        for (AsyncListener listener : List.copyOf(listeners))
+            listener.onTimeout(new AsyncEvent(context));
+    }
+}
@@ -0,0 +1,126 @@
+package com.project.codebasespringjpa.configuration.security.jwtConfig;
+
+import com.project.codebasespringjpa.entity.RevokedTokenEntity;
+import com.project.codebasespringjpa.repository.IRevokedTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RevocationListTests {
+    IRevokedTokenRepository repository;
+    RevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IRevokedTokenRepository.class);
+        when(repository.findActiveKeys(any())).thenReturn(List.of());
+        when(repository.existsByTokenKey(anyString())).thenReturn(true);
+        revocationList = new RevocationList();
+        ReflectionTestUtils.setField(revocationList, "revokedTokenRepository", repository);
+        ReflectionTestUtils.setField(revocationList, "bloomSize", 1000L);
+        ReflectionTestUtils.setField(revocationList, "accessExpiration", 900_000L);
+        revocationList.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void revokeDuringRebuildSurvivesSwap() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Rebuild đọc DB trước khi dòng thu hồi được lưu: snapshot không có key
+        when(repository.findActiveKeys(any())).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        Thread rebuild = new Thread(revocationList::rebuild);
+        rebuild.start();
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        revocationList.revokeToken("jti-1", new Date(System.currentTimeMillis() + 60_000));
+        release.countDown();
+        rebuild.join(5_000);
+
+        verify(repository).save(any(RevokedTokenEntity.class));
+        assertTrue(revocationList.isRevoked("jti-1", 1L, new Date()));
+    }
+
+    @Test
+    void revokeInsideTransactionMarksFilterAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        revocationList.revokeToken("jti-2", new Date(System.currentTimeMillis() + 60_000));
+
+        verify(repository).save(any(RevokedTokenEntity.class));
+        assertFalse(revocationList.isRevoked("jti-2", 1L, new Date()));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertTrue(revocationList.isRevoked("jti-2", 1L, new Date()));
+    }
+
+    @Test
+    void revokeUserRejectsTokensIssuedBefore() {
+        when(repository.existsByTokenKey(anyString())).thenReturn(false);
+        when(repository.findLastRevokedAt("user:9")).thenReturn(LocalDateTime.now());
+        Date issuedAt = new Date(System.currentTimeMillis() - 10_000);
+
+        revocationList.revokeUser(9L);
+
+        assertTrue(revocationList.isRevoked(null, 9L, issuedAt));
+        assertFalse(revocationList.isRevoked(null, 10L, issuedAt));
+    }
+
+    @Test
+    void tokenIssuedInTheSecondOfRevocationIsRejected() {
+        when(repository.existsByTokenKey(anyString())).thenReturn(false);
+        LocalDateTime revokedAt = LocalDateTime.now().withNano(0);
+        when(repository.findLastRevokedAt("user:9")).thenReturn(revokedAt);
+        // iat bị cắt về giây: token này có thể được phát hành sau lúc thu hồi vài ms hoặc trước đó
+        Date sameSecond = Date.from(revokedAt.atZone(ZoneId.systemDefault()).toInstant());
+        Date nextSecond = Date.from(revokedAt.plusSeconds(1).atZone(ZoneId.systemDefault()).toInstant());
+
+        revocationList.revokeUser(9L);
+
+        assertTrue(revocationList.isRevoked(null, 9L, sameSecond));
+        assertFalse(revocationList.isRevoked(null, 9L, nextSecond));
+    }
+
+    @Test
+    void revocationOnAnotherNodeIsSeenAfterPoll() {
+        // Node khác đã ghi DB, filter của node này chưa có key
+        when(repository.findKeysRevokedSince(any())).thenReturn(List.of("jti-3"));
+        assertFalse(revocationList.isRevoked("jti-3", 1L, new Date()));
+
+        LocalDateTime before = LocalDateTime.now();
+        revocationList.poll();
+
+        assertTrue(revocationList.isRevoked("jti-3", 1L, new Date()));
+        // Lần poll sau đọc từ mốc lần trước, lùi thêm POLL_OVERLAP
+        revocationList.poll();
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository, times(2)).findKeysRevokedSince(since.capture());
+        assertFalse(since.getAllValues().get(0).isAfter(before.minus(RevocationList.POLL_OVERLAP)));
+        assertFalse(since.getAllValues().get(1).isBefore(before.minus(RevocationList.POLL_OVERLAP)));
+    }
+}
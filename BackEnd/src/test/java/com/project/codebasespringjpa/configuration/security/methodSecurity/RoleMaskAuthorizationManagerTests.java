@@ -0,0 +1,132 @@
+package com.project.codebasespringjpa.configuration.security.methodSecurity;
+
+import com.project.codebasespringjpa.configuration.security.UserPrincipal;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleMaskAuthorizationManagerTests {
+    static AnnotationConfigApplicationContext context;
+    static RoleMaskAuthorizationManager manager;
+
+    final Endpoints target = new Endpoints();
+    final Authentication admin = authentication(1L, "admin", "ADMIN");
+    final Authentication user = authentication(2L, "alice", "USER");
+
+    @BeforeAll
+    static void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean("perm", Perm.class);
+        context.register(MethodSecurityConfig.class);
+        context.refresh();
+        manager = context.getBean(RoleMaskAuthorizationManager.class);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void roleOnlyExpressionsCompileToMask() throws NoSuchMethodException {
+        Method method = Endpoints.class.getDeclaredMethod("adminOrSpecialist");
+
+        assertNotEquals(RoleMaskAuthorizationManager.FALLBACK, manager.compile(method));
+        assertTrue(this.decide(manager, admin, method));
+        assertFalse(this.decide(manager, user, method));
+    }
+
+    @Test
+    void parameterExpressionFallsBackToSpel() throws NoSuchMethodException {
+        // Cùng dạng biểu thức của /auth/update và /auth/update-password
+        Method method = Endpoints.class.getDeclaredMethod("ownProfile", String.class);
+
+        assertEquals(RoleMaskAuthorizationManager.FALLBACK, manager.compile(method));
+        assertTrue(this.decide(manager, user, method, "alice"));
+        assertFalse(this.decide(manager, user, method, "bob"));
+        assertTrue(this.decide(manager, admin, method, "bob"));
+    }
+
+    @Test
+    void fallbackResolvesBeansFromContext() throws NoSuchMethodException {
+        Method method = Endpoints.class.getDeclaredMethod("beanCheck");
+
+        assertTrue(this.decide(manager, admin, method));
+        assertFalse(this.decide(manager, user, method));
+    }
+
+    // Cùng kết quả với SpEL của PreAuthorizeAuthorizationManager, thời gian mỗi lần check ít hơn
+    @Test
+    void bitmaskIsFasterThanSpel() throws NoSuchMethodException {
+        Method method = Endpoints.class.getDeclaredMethod("adminOrSpecialist");
+        PreAuthorizeAuthorizationManager spel = new PreAuthorizeAuthorizationManager();
+        int iterations = 200_000;
+        long maskNanos = this.measure(manager, method, iterations);
+        long spelNanos = this.measure(spel, method, iterations);
+
+        assertTrue(maskNanos < spelNanos, "bitmask " + maskNanos / iterations + " ns/op, SpEL "
+                + spelNanos / iterations + " ns/op");
+        assertEquals(this.decide(spel, admin, method), this.decide(manager, admin, method));
+        assertEquals(this.decide(spel, user, method), this.decide(manager, user, method));
+    }
+
+    private long measure(AuthorizationManager<MethodInvocation> authorizationManager, Method method, int iterations) {
+        MethodInvocation invocation = new SimpleMethodInvocation(target, method);
+        Supplier<Authentication> supplier = () -> admin;
+        // Warm-up cho JIT
+        for (int i = 0; i < iterations; i++)
+            authorizationManager.authorize(supplier, invocation);
+        long start = System.nanoTime();
+        int granted = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (authorizationManager.authorize(supplier, invocation).isGranted())
+                granted++;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(iterations, granted);
+        return elapsed;
+    }
+
+    private boolean decide(AuthorizationManager<MethodInvocation> authorizationManager, Authentication authentication,
+            Method method, Object... args) {
+        return authorizationManager.authorize(() -> authentication, new SimpleMethodInvocation(target, method, args))
+                .isGranted();
+    }
+
+    private static Authentication authentication(Long id, String username, String role) {
+        UserPrincipal principal = new UserPrincipal(id, username, role, username + "@mail.com");
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    static class Endpoints {
+        @PreAuthorize("hasRole('ADMIN') or hasRole('SPECIALIST')")
+        void adminOrSpecialist() {
+        }
+
+        @PreAuthorize("#username == authentication.name or hasRole('ADMIN')")
+        void ownProfile(String username) {
+        }
+
+        @PreAuthorize("@perm.isAdmin(authentication)")
+        void beanCheck() {
+        }
+    }
+
+    public static class Perm {
+        public boolean isAdmin(Authentication authentication) {
+            return authentication.getAuthorities().stream().anyMatch(it -> "ROLE_ADMIN".equals(it.getAuthority()));
+        }
+    }
+}
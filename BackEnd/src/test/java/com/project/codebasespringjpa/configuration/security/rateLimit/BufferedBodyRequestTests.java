@@ -0,0 +1,76 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedBodyRequestTests {
+
+    @Test
+    void smallBodyIsReplayedInFull() throws IOException {
+        byte[] body = "{\"username\":\"alice\"}".getBytes(StandardCharsets.UTF_8);
+        BufferedBodyRequest request = new BufferedBodyRequest(request(body), 64);
+
+        assertArrayEquals(body, request.getBodyIfComplete());
+        assertArrayEquals(body, request.getInputStream().readAllBytes());
+    }
+
+    @Test
+    void largeBodyContinuesFromOriginalStream() throws IOException {
+        byte[] body = new byte[1000];
+        Arrays.fill(body, (byte) 'x');
+        body[999] = 'y';
+        BufferedBodyRequest request = new BufferedBodyRequest(request(body), 64);
+
+        assertNull(request.getBodyIfComplete());
+        assertArrayEquals(body, request.getInputStream().readAllBytes());
+    }
+
+    @Test
+    void readListenerSeesBufferedBody() throws IOException {
+        byte[] body = "{\"username\":\"bob\"}".getBytes(StandardCharsets.UTF_8);
+        ServletInputStream input = new BufferedBodyRequest(request(body), 64).getInputStream();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[8];
+                int n;
+                while (input.isReady() && (n = input.read(buffer)) > 0)
+                    received.write(buffer, 0, n);
+                events.add("data");
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                events.add("error");
+            }
+        });
+
+        assertEquals(List.of("data", "done"), events);
+        assertArrayEquals(body, received.toByteArray());
+        assertTrue(input.isFinished());
+    }
+
+    private static MockHttpServletRequest request(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setContent(body);
+        return request;
+    }
+}
@@ -0,0 +1,86 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuotaInterceptorTests {
+    QuotaInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new QuotaInterceptor();
+        ReflectionTestUtils.setField(interceptor, "capacity", 600L);
+        ReflectionTestUtils.setField(interceptor, "maxPageSize", 100L);
+    }
+
+    @Test
+    void pagedCostScalesWithLimit() throws NoSuchMethodException {
+        Method method = Endpoints.class.getDeclaredMethod("paged");
+
+        assertEquals(5, interceptor.costOf(method, request(null)));
+        assertEquals(5, interceptor.costOf(method, request("1")));
+        assertEquals(5, interceptor.costOf(method, request("5")));
+        assertEquals(10, interceptor.costOf(method, request("6")));
+        assertEquals(100, interceptor.costOf(method, request("100")));
+        assertEquals(5, interceptor.costOf(method, request("abc")));
+    }
+
+    @Test
+    void costIsCappedAtCapacity() throws NoSuchMethodException {
+        Method method = Endpoints.class.getDeclaredMethod("paged");
+
+        assertEquals(600, interceptor.costOf(method, request("100000000")));
+    }
+
+    @Test
+    void oversizedPageIsRejectedBeforeHandler() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Endpoints(), Endpoints.class.getDeclaredMethod("paged"));
+
+        for (String limit : new String[]{"101", "10000000", "0", "-1"}) {
+            AppException e = assertThrows(AppException.class,
+                    () -> interceptor.preHandle(request(limit), new MockHttpServletResponse(), handler));
+            assertEquals(ErrorCode.PAGE_SIZE_INVALID, e.getErrorCode());
+        }
+        // Không đăng nhập: không tính quota, nhưng limit hợp lệ vẫn được đi tiếp
+        assertTrue(interceptor.preHandle(request("100"), new MockHttpServletResponse(), handler));
+        assertTrue(interceptor.preHandle(request(null), new MockHttpServletResponse(), handler));
+        // Endpoint không phân trang không bị giới hạn theo tham số limit
+        assertTrue(interceptor.preHandle(request("1000"), new MockHttpServletResponse(),
+                new HandlerMethod(new Endpoints(), Endpoints.class.getDeclaredMethod("plain"))));
+    }
+
+    @Test
+    void fixedAndDefaultCosts() throws NoSuchMethodException {
+        assertEquals(20, interceptor.costOf(Endpoints.class.getDeclaredMethod("fixed"), request("1000")));
+        assertEquals(1, interceptor.costOf(Endpoints.class.getDeclaredMethod("plain"), request("1000")));
+    }
+
+    private static MockHttpServletRequest request(String limit) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/x");
+        if (limit != null)
+            request.setParameter("limit", limit);
+        return request;
+    }
+
+    static class Endpoints {
+        @QuotaCost(value = 5, pageSize = 5)
+        void paged() {
+        }
+
+        @QuotaCost(20)
+        void fixed() {
+        }
+
+        void plain() {
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.codebasespringjpa.configuration.security.rateLimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTests {
+    // 1 token mỗi micro giây
+    static final double RATE = 1e-3;
+
+    @Test
+    void chargeLeavesDebtThatMustBeRefilled() {
+        TokenBucket bucket = new TokenBucket(100, RATE, 0);
+
+        bucket.charge(1_100, 0);
+
+        assertEquals(-1_000, bucket.available(0));
+        assertFalse(bucket.tryConsume(1, 0));
+        // Trả hết 1000 token nợ rồi mới có thêm 10 token
+        assertEquals(1_010_000, bucket.nanosUntil(10, 0));
+        assertFalse(bucket.tryConsume(10, 1_000_000));
+        assertTrue(bucket.tryConsume(10, 1_010_000));
+    }
+
+    @Test
+    void refillIsCappedAtCapacity() {
+        TokenBucket bucket = new TokenBucket(100, RATE, 0);
+        assertTrue(bucket.tryConsume(100, 0));
+
+        assertEquals(100, bucket.available(10_000_000));
+        assertFalse(bucket.isIdle(10_000_000, 20_000_000));
+        assertTrue(bucket.isIdle(30_000_000, 20_000_000));
+    }
+}
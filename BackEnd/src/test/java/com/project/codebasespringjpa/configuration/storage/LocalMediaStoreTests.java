@@ -0,0 +1,21 @@
+package com.project.codebasespringjpa.configuration.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+
+class LocalMediaStoreTests extends MediaStoreContractTests {
+    @TempDir
+    Path base;
+    LocalMediaStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new LocalMediaStore(base);
+    }
+
+    @Override
+    MediaStore store() {
+        return store;
+    }
+}
@@ -0,0 +1,21 @@
+package com.project.codebasespringjpa.configuration.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+
+class MappedMediaStoreTests extends MediaStoreContractTests {
+    @TempDir
+    Path base;
+    MappedMediaStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new MappedMediaStore(base, 16);
+    }
+
+    @Override
+    MediaStore store() {
+        return store;
+    }
+}
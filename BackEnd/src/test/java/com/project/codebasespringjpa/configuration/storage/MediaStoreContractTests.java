@@ -0,0 +1,111 @@
+package com.project.codebasespringjpa.configuration.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hành vi chung mọi MediaStore phải có; mỗi store chạy lại toàn bộ qua một lớp con
+abstract class MediaStoreContractTests {
+    @TempDir
+    Path temp;
+
+    abstract MediaStore store();
+
+    @Test
+    void putStatOpenDelete() throws Exception {
+        byte[] content = bytes(1000, 1);
+        Path source = this.file(content);
+
+        store().put("a.bin", source);
+
+        assertFalse(Files.exists(source));
+        MediaStore.ObjectInfo info = store().stat("a.bin");
+        assertNotNull(info);
+        assertEquals(1000, info.size());
+        assertTrue(info.lastModified() > 0);
+        assertTrue(store().exists("a.bin"));
+        try (InputStream in = store().open("a.bin")) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+
+        store().delete("a.bin");
+
+        assertNull(store().stat("a.bin"));
+        assertFalse(store().exists("a.bin"));
+    }
+
+    @Test
+    void rangeTransfer() throws Exception {
+        byte[] content = bytes(1000, 3);
+        store().put("b.bin", this.file(content));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store().transferTo("b.bin", 100, 50, Channels.newChannel(out));
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 150), out.toByteArray());
+
+        out.reset();
+        store().transferTo("b.bin", 990, 10, Channels.newChannel(out));
+        assertArrayEquals(Arrays.copyOfRange(content, 990, 1000), out.toByteArray());
+    }
+
+    @Test
+    void putReplacesObject() throws Exception {
+        store().put("c.bin", this.file(bytes(10, 1)));
+        byte[] replacement = bytes(20, 2);
+
+        store().put("c.bin", this.file(replacement));
+
+        assertEquals(20, store().stat("c.bin").size());
+        try (InputStream in = store().open("c.bin")) {
+            assertArrayEquals(replacement, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void missingObject() throws Exception {
+        assertNull(store().stat("missing.bin"));
+        assertThrows(NoSuchFileException.class, () -> store().open("missing.bin").close());
+        store().delete("missing.bin");
+    }
+
+    @Test
+    void deletePrefixOnlyRemovesThatFolder() throws Exception {
+        store().put("hls/x/index.m3u8", this.file(bytes(5, 1)));
+        store().put("hls/x/seg_00000.m4s", this.file(bytes(5, 2)));
+        store().put("hls/xy/index.m3u8", this.file(bytes(5, 3)));
+
+        store().deletePrefix("hls/x");
+
+        assertNull(store().stat("hls/x/index.m3u8"));
+        assertNull(store().stat("hls/x/seg_00000.m4s"));
+        assertNotNull(store().stat("hls/xy/index.m3u8"));
+    }
+
+    @Test
+    void keysOutsideStoreAreRejected() throws Exception {
+        assertNull(store().stat("../escape.bin"));
+        assertNull(store().stat("/etc/passwd"));
+        assertThrows(NoSuchFileException.class, () -> store().put("../escape.bin", this.file(bytes(1, 1))));
+    }
+
+    private Path file(byte[] content) throws Exception {
+        Path file = Files.createTempFile(temp, "src", ".tmp");
+        Files.write(file, content);
+        return file;
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+            bytes[i] = (byte) (i * seed + seed);
+        return bytes;
+    }
+}
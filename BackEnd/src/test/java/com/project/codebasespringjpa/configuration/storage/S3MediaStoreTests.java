@@ -0,0 +1,49 @@
+package com.project.codebasespringjpa.configuration.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Chạy với MinIO thật trong container; máy không có Docker thì bỏ qua
+@Testcontainers(disabledWithoutDocker = true)
+class S3MediaStoreTests extends MediaStoreContractTests {
+    @Container
+    static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2024-12-18T13-15-44Z");
+
+    S3MediaStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Mỗi test một bucket mới: bucket được tạo ở lần khởi tạo store
+        store = new S3MediaStore(MINIO.getS3URL(), "us-east-1", MINIO.getUserName(), MINIO.getPassword(),
+                "contract-" + UUID.randomUUID(), 5 * 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Override
+    MediaStore store() {
+        return store;
+    }
+
+    @Test
+    void storeStartsWhileEndpointIsDown() throws Exception {
+        // Endpoint không có ai nghe: khởi tạo không ném lỗi, lần ghi mới báo IOException
+        try (S3MediaStore down = new S3MediaStore("http://127.0.0.1:1", "us-east-1", "key", "secret",
+                "down", 5 * 1024 * 1024)) {
+            Path source = Files.createTempFile(temp, "src", ".tmp");
+            assertThrows(java.io.IOException.class, () -> down.put("a.bin", source));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.project.codebasespringjpa.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// EXPLAIN trên MySQL thật: query thống kê phải đi theo index, không quét cả bảng
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ProgramStatQueryPlanTests {
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.36");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        // 1000 chương trình trải trên ~3 năm, 10% đã xoá, 20 địa điểm
+        jdbcTemplate.update("""
+                insert into tbl_program (title, address, date, is_delete)
+                with recursive seq(n) as (select 1 union all select n + 1 from seq where n < 1000)
+                select concat('P', n), concat('Q', n % 20), date_add('2022-01-01', interval n day), n % 10 = 0
+                from seq
+                """);
+        jdbcTemplate.update("""
+                insert into tbl_program_stat (stat_year, stat_month, location, cnt_program, cnt_register)
+                select year(date), month(date), address, count(*), 0 from tbl_program
+                group by year(date), month(date), address
+                """);
+        jdbcTemplate.queryForList("analyze table tbl_program, tbl_program_stat");
+    }
+
+    @Test
+    void rebuildReadsProgramsThroughDateIndex() {
+        // Phần select của IProgramStatRepository.rebuildAll
+        List<Map<String, Object>> plan = this.explain("""
+                select year(p.date), month(p.date), coalesce(p.address, ''), count(distinct p.id), count(up.user_id)
+                from tbl_program p
+                left join tbl_user_program up on up.program_id = p.id
+                where p.is_delete = false and p.date is not null
+                group by year(p.date), month(p.date), coalesce(p.address, '')
+                """);
+
+        assertEquals("idx_program_date", this.row(plan, "p").get("key"));
+    }
+
+    @Test
+    void yearProjectionsUseStatKey() {
+        // SQL của countByMonth / countByLocation
+        List<Map<String, Object>> byMonth = this.explain("""
+                select ps.stat_month, sum(ps.cnt_program), sum(ps.cnt_register)
+                from tbl_program_stat ps where ps.stat_year = 2023
+                group by ps.stat_month
+                """);
+        List<Map<String, Object>> byLocation = this.explain("""
+                select ps.location, sum(ps.cnt_program)
+                from tbl_program_stat ps where ps.stat_year = 2023 and ps.location <> ''
+                group by ps.location having sum(ps.cnt_program) > 0
+                """);
+
+        assertEquals("uk_program_stat_key", this.row(byMonth, "ps").get("key"));
+        assertEquals("uk_program_stat_key", this.row(byLocation, "ps").get("key"));
+    }
+
+    private List<Map<String, Object>> explain(String sql) {
+        return jdbcTemplate.queryForList("explain " + sql);
+    }
+
+    private Map<String, Object> row(List<Map<String, Object>> plan, String table) {
+        return plan.stream()
+                .filter(it -> table.equals(it.get("table")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Khong co bang " + table + " trong " + plan));
+    }
+}
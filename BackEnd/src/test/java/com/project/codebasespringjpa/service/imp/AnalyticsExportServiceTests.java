@@ -0,0 +1,166 @@
+package com.project.codebasespringjpa.service.imp;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Answers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AnalyticsExportServiceTests {
+    static final LocalDateTime MARCH = LocalDateTime.of(2024, 3, 5, 8, 30);
+    static final LocalDateTime APRIL = LocalDateTime.of(2024, 4, 1, 0, 0, 1);
+
+    // Cột theo thứ tự của tbl_survey_result: id, user_id, survey_id, mark, create_date, update_date, is_delete
+    static final List<Object[]> SURVEY_RESULTS = List.of(
+            new Object[]{1L, 10L, 100L, 7.5, MARCH, MARCH, false},
+            new Object[]{2L, 11L, 100L, null, MARCH.plusDays(1), null, true},
+            new Object[]{3L, 12L, 101L, 9.0, APRIL, APRIL, false});
+
+    @TempDir
+    Path dir;
+    List<Object[]> surveyResults = SURVEY_RESULTS;
+    List<String> queries = new ArrayList<>();
+    AnalyticsExportService analyticsExportService;
+
+    @BeforeEach
+    void setUp() {
+        // Chỉ tbl_survey_result có dữ liệu, bảng khác trả về rỗng
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class, invocation -> {
+            if (!invocation.getMethod().getName().equals("query"))
+                return Answers.RETURNS_DEFAULTS.answer(invocation);
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            queries.add(sql);
+            if (sql.contains(" from tbl_survey_result")) {
+                for (Object[] row : surveyResults)
+                    handler.processRow(resultSet(row));
+            }
+            return null;
+        });
+        analyticsExportService = new AnalyticsExportService();
+        ReflectionTestUtils.setField(analyticsExportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(analyticsExportService, "root", dir);
+        ReflectionTestUtils.setField(analyticsExportService, "lagMillis", 0L);
+    }
+
+    @Test
+    void tableIsWrittenPerMonthAndReadsBack() throws Exception {
+        Map<String, Long> rows = analyticsExportService.exportParquet();
+
+        assertEquals(3L, rows.get("tbl_survey_result"));
+        List<Group> march = read(dir.resolve("tbl_survey_result").resolve("month=2024-03"));
+        List<Group> april = read(dir.resolve("tbl_survey_result").resolve("month=2024-04"));
+        assertEquals(2, march.size());
+        assertEquals(1, april.size());
+
+        Group first = march.get(0);
+        assertEquals(1L, first.getLong("id", 0));
+        assertEquals(100L, first.getLong("survey_id", 0));
+        assertEquals(7.5, first.getDouble("mark", 0));
+        assertEquals(MARCH.toInstant(ZoneOffset.UTC).toEpochMilli(), first.getLong("create_date", 0));
+        assertFalse(first.getBoolean("is_delete", 0));
+
+        // Cột null không có giá trị trong file
+        Group second = march.get(1);
+        assertEquals(0, second.getFieldRepetitionCount("mark"));
+        assertEquals(0, second.getFieldRepetitionCount("update_date"));
+        assertTrue(second.getBoolean("is_delete", 0));
+
+        assertEquals(3L, april.get(0).getLong("id", 0));
+
+        // Bảng snapshot rỗng vẫn có file; watermark đã lưu nên lần chạy sau không đọc lại
+        assertTrue(read(dir.resolve("tbl_role")).isEmpty());
+        assertTrue(Files.exists(dir.resolve(AnalyticsExportService.WATERMARK_FILE)));
+    }
+
+    @Test
+    void rowsAreReadInMonthOrder() throws Exception {
+        analyticsExportService.exportParquet();
+
+        String sql = queries.stream().filter(it -> it.contains(" from tbl_survey_result")).findFirst().orElseThrow();
+        assertTrue(sql.endsWith(" order by `create_date`"), sql);
+        String appointments = queries.stream().filter(it -> it.contains(" from tbl_appoiment")).findFirst().orElseThrow();
+        assertTrue(appointments.endsWith(" order by `date`"), appointments);
+        String roles = queries.stream().filter(it -> it.contains(" from tbl_role")).findFirst().orElseThrow();
+        assertFalse(roles.contains("order by"), roles);
+    }
+
+    @Test
+    void closedMonthIsNotReopened() {
+        // Tháng 3 đã đóng khi sang tháng 4: dòng tháng 3 đến sau là lỗi, không ghi đè file đã đóng
+        surveyResults = List.of(SURVEY_RESULTS.get(0), SURVEY_RESULTS.get(2), SURVEY_RESULTS.get(1));
+
+        assertThrows(IllegalStateException.class, () -> analyticsExportService.exportParquet());
+        assertFalse(Files.exists(dir.resolve(AnalyticsExportService.WATERMARK_FILE)));
+        assertTrue(list(dir.resolve("tbl_survey_result").resolve("month=2024-03")).isEmpty());
+        assertTrue(list(dir.resolve("tbl_survey_result").resolve("month=2024-04")).isEmpty());
+    }
+
+    // Mỗi thư mục phân vùng chỉ có một file part-<runId>.parquet, không còn file tạm
+    private static List<Group> read(Path partition) throws Exception {
+        List<Path> files = list(partition);
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).getFileName().toString().endsWith(".parquet"));
+        assertFalse(files.get(0).getFileName().toString().startsWith("_"));
+
+        List<Group> groups = new ArrayList<>();
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(),
+                new org.apache.hadoop.fs.Path(files.get(0).toUri())).build()) {
+            Group group;
+            while ((group = reader.read()) != null)
+                groups.add(group);
+        }
+        return groups;
+    }
+
+    private static List<Path> list(Path dir) {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ResultSet một dòng: getter theo chỉ số cột, wasNull theo lần đọc gần nhất
+    private static ResultSet resultSet(Object[] row) {
+        boolean[] lastNull = new boolean[1];
+        return mock(ResultSet.class, invocation -> {
+            String method = invocation.getMethod().getName();
+            if (method.equals("wasNull"))
+                return lastNull[0];
+            if (invocation.getArguments().length == 0)
+                return Answers.RETURNS_DEFAULTS.answer(invocation);
+            Object column = invocation.getArgument(0);
+            Object value = column instanceof String name
+                    ? (name.equals("create_date") ? row[4] : null)
+                    : row[(Integer) column - 1];
+            lastNull[0] = value == null;
+            return switch (method) {
+                case "getLong" -> value == null ? 0L : value;
+                case "getDouble" -> value == null ? 0.0 : value;
+                case "getBoolean" -> value != null && (Boolean) value;
+                case "getString" -> value == null ? null : value.toString();
+                default -> value;
+            };
+        });
+    }
+}
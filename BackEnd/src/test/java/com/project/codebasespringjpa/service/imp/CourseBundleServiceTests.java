@@ -0,0 +1,110 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.mediaPool.MediaExecutor;
+import com.project.codebasespringjpa.configuration.storage.LocalMediaStore;
+import com.project.codebasespringjpa.entity.CourseDetailEntity;
+import com.project.codebasespringjpa.entity.CourseEntity;
+import com.project.codebasespringjpa.entity.MediaBlobEntity;
+import com.project.codebasespringjpa.repository.ICourseDetailRepository;
+import com.project.codebasespringjpa.repository.ICourseRepository;
+import com.project.codebasespringjpa.repository.IMediaBlobRepository;
+import com.project.codebasespringjpa.service.interfaces.IMediaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CourseBundleServiceTests {
+    static final byte[] VIDEO = "noi dung video".getBytes();
+
+    @TempDir
+    Path dir;
+    CourseBundleService courseBundleService;
+    IMediaBlobRepository mediaBlobRepository;
+    IMediaService mediaService;
+    MediaExecutor mediaExecutor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.write(dir.resolve("video.mp4"), VIDEO);
+        ICourseRepository courseRepository = mock(ICourseRepository.class);
+        ICourseDetailRepository courseDetailRepository = mock(ICourseDetailRepository.class);
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(CourseEntity.builder().id(1L).name("Khoá học").build()));
+        when(courseDetailRepository.findByCourse_IdAndIsDeleteFalseOrderByIdAsc(1L))
+                .thenReturn(List.of(CourseDetailEntity.builder().id(2L).name("Bài 1").video("video.mp4").build()));
+        mediaBlobRepository = mock(IMediaBlobRepository.class);
+        mediaService = mock(IMediaService.class);
+        mediaExecutor = mock(MediaExecutor.class);
+        courseBundleService = new CourseBundleService();
+        ReflectionTestUtils.setField(courseBundleService, "courseRepository", courseRepository);
+        ReflectionTestUtils.setField(courseBundleService, "courseDetailRepository", courseDetailRepository);
+        ReflectionTestUtils.setField(courseBundleService, "mediaBlobRepository", mediaBlobRepository);
+        ReflectionTestUtils.setField(courseBundleService, "mediaService", mediaService);
+        ReflectionTestUtils.setField(courseBundleService, "mediaStore", new LocalMediaStore(dir));
+        ReflectionTestUtils.setField(courseBundleService, "mediaExecutor", mediaExecutor);
+    }
+
+    @Test
+    void legacyFileIsBackfilledWhileClientRetries() throws Exception {
+        MediaBlobEntity blob = MediaBlobEntity.builder().fileName("video.mp4").size((long) VIDEO.length).build();
+        when(mediaBlobRepository.findByFileName("video.mp4")).thenReturn(Optional.of(blob));
+
+        MockHttpServletResponse busy = this.serve("HEAD");
+
+        // Chưa có CRC: không đọc file trong request, trả 503 và xếp hàng tính nền
+        assertEquals(503, busy.getStatus());
+        assertEquals("5", busy.getHeader(HttpHeaders.RETRY_AFTER));
+        verifyNoInteractions(mediaService);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(mediaExecutor).execute(task.capture());
+
+        // Request khác tới khi đang tính thì không xếp hàng thêm
+        this.serve("GET");
+        verify(mediaExecutor, times(1)).execute(any());
+
+        task.getValue().run();
+        verify(mediaBlobRepository).updateCrc32("video.mp4", crc(VIDEO));
+
+        this.serve("GET");
+        verify(mediaService).serveBundle(any(), eq("Khoa-hoc.zip"), any(), any());
+    }
+
+    @Test
+    void storedCrcIsUsedWithoutReadingFile() throws Exception {
+        MediaBlobEntity blob = MediaBlobEntity.builder().fileName("video.mp4").size((long) VIDEO.length)
+                .crc32(crc(VIDEO)).build();
+        when(mediaBlobRepository.findByFileName("video.mp4")).thenReturn(Optional.of(blob));
+
+        this.serve("GET");
+
+        verify(mediaService).serveBundle(any(), anyString(), any(), any());
+        verifyNoInteractions(mediaExecutor);
+    }
+
+    private MockHttpServletResponse serve(String method) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        courseBundleService.serve(1L, new MockHttpServletRequest(method, "/courses/1/bundle"), response);
+        return response;
+    }
+
+    private static long crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,139 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.enums.ExportTypeEnum;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ExportServiceTests {
+    static final String BOM = "\uFEFF";
+
+    List<String> queries = new ArrayList<>();
+    List<String[]> rows = new ArrayList<>();
+    // Đặt khác null thì mỗi lần query chờ latch này, giả lập client tải chậm
+    CountDownLatch slowClient;
+    CountDownLatch started = new CountDownLatch(1);
+    ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class, invocation -> {
+            if (!invocation.getMethod().getName().equals("query"))
+                return Answers.RETURNS_DEFAULTS.answer(invocation);
+            queries.add(invocation.getArgument(0));
+            started.countDown();
+            if (slowClient != null)
+                slowClient.await(5, TimeUnit.SECONDS);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (String[] row : rows)
+                handler.processRow(resultSet(row));
+            return null;
+        });
+        exportService = new ExportService();
+        ReflectionTestUtils.setField(exportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(exportService, "slots", new Semaphore(1));
+    }
+
+    @Test
+    void userExportHasRoleName() throws Exception {
+        rows.add(new String[]{"1", "alice", "Nguyễn Văn A", "a@mail.com", null, "ADMIN", null, "2024-03-05 08:30:00"});
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        exportService.exportCsv(ExportTypeEnum.USER, response);
+
+        assertTrue(queries.get(0).contains("join tbl_role r on r.name = u.role_id"), queries.get(0));
+        assertTrue(queries.get(0).contains("u.phone, r.name, u.position"), queries.get(0));
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertEquals(BOM + "id,username,fullname,email,phone,role,position,create_date\r\n"
+                        + "1,alice,Nguyễn Văn A,a@mail.com,,ADMIN,,2024-03-05 08:30:00\r\n",
+                response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void concurrentExportIsRejectedWhileSlotIsHeld() throws Exception {
+        slowClient = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> {
+                exportService.exportCsv(ExportTypeEnum.APPOINTMENT, new MockHttpServletResponse());
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Lượt đầu còn giữ connection: lượt thứ hai bị từ chối, chưa ghi gì ra response
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            AppException e = assertThrows(AppException.class,
+                    () -> exportService.exportCsv(ExportTypeEnum.USER, rejected));
+            assertEquals(ErrorCode.SERVER_BUSY, e.getErrorCode());
+            assertEquals(0, rejected.getContentAsByteArray().length);
+            assertEquals(1, queries.size());
+
+            slowClient.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        // Trả lượt sau khi xong
+        exportService.exportCsv(ExportTypeEnum.USER, new MockHttpServletResponse());
+        assertEquals(2, queries.size());
+    }
+
+    @Test
+    void slotIsReleasedWhenClientDisconnects() throws Exception {
+        rows.add(new String[]{"1", "alice", "x", "x", "x", "USER", "x", "x"});
+        MockHttpServletResponse broken = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        throw new IOException("Broken pipe");
+                    }
+                };
+            }
+        };
+
+        assertThrows(IOException.class, () -> exportService.exportCsv(ExportTypeEnum.USER, broken));
+        exportService.exportCsv(ExportTypeEnum.USER, new MockHttpServletResponse());
+        assertEquals(2, queries.size());
+    }
+
+    private static ResultSet resultSet(String[] row) {
+        return mock(ResultSet.class, invocation -> {
+            if (invocation.getMethod().getName().equals("getString"))
+                return row[(Integer) invocation.getArgument(0) - 1];
+            return Answers.RETURNS_DEFAULTS.answer(invocation);
+        });
+    }
+}
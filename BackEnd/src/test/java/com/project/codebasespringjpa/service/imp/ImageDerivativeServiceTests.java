@@ -0,0 +1,80 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.storage.MediaStore;
+import com.project.codebasespringjpa.util.DiskLruCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImageDerivativeServiceTests {
+    @TempDir
+    Path dir;
+    MediaStore mediaStore;
+    ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(dir.resolve("store"));
+        mediaStore = mock(MediaStore.class);
+        when(mediaStore.localPath(anyString())).thenAnswer(call -> dir.resolve("store").resolve((String) call.getArgument(0)));
+        service = new ImageDerivativeService();
+        ReflectionTestUtils.setField(service, "mediaStore", mediaStore);
+        ReflectionTestUtils.setField(service, "derivativeDir", dir.resolve("cache").toString());
+        ReflectionTestUtils.setField(service, "maxBytes", 1L << 20);
+        ReflectionTestUtils.setField(service, "threads", 1);
+        ReflectionTestUtils.setField(service, "queueSize", 8);
+        ReflectionTestUtils.setField(service, "waitMillis", 5_000L);
+        ReflectionTestUtils.setField(service, "failureTtl", 60_000L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    @Test
+    void derivativeIsGeneratedAndPinned() throws Exception {
+        ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "png", dir.resolve("store/a.png").toFile());
+
+        try (DiskLruCache.Handle handle = service.resolve("a.png", "thumb")) {
+            assertNotNull(handle);
+            BufferedImage thumb = ImageIO.read(handle.path().toFile());
+            assertEquals(160, thumb.getWidth());
+            assertEquals(120, thumb.getHeight());
+        }
+    }
+
+    @Test
+    void failedConversionIsCached() throws Exception {
+        Files.write(dir.resolve("store/broken.jpg"), new byte[]{1, 2, 3, 4});
+
+        assertNull(service.resolve("broken.jpg", "thumb"));
+        assertNull(service.resolve("broken.jpg", "thumb"));
+
+        // Chỉ lần đầu đọc file gốc; các lần sau dùng kết quả lỗi đã nhớ
+        verify(mediaStore, times(1)).localPath("broken.jpg");
+    }
+
+    @Test
+    void deleteDropsDerivatives() throws Exception {
+        ImageIO.write(new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB), "png", dir.resolve("store/b.png").toFile());
+        Path thumb;
+        try (DiskLruCache.Handle handle = service.resolve("b.png", "thumb")) {
+            thumb = handle.path();
+        }
+
+        service.delete("b.png");
+
+        assertFalse(Files.exists(thumb));
+    }
+}
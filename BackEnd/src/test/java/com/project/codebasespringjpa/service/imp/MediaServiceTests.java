@@ -0,0 +1,359 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.bandwidth.BandwidthLimiter;
+import com.project.codebasespringjpa.configuration.bandwidth.ThrottledResponse;
+import com.project.codebasespringjpa.configuration.storage.LocalMediaStore;
+import com.project.codebasespringjpa.service.interfaces.IHlsService;
+import com.project.codebasespringjpa.service.interfaces.IImageDerivativeService;
+import com.project.codebasespringjpa.util.DiskLruCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MediaServiceTests {
+    static final String FILE = "video.mp4";
+
+    @TempDir
+    Path dir;
+    MediaService mediaService;
+    IHlsService hlsService;
+    byte[] content;
+    String etag;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[100];
+        for (int i = 0; i < content.length; i++)
+            content[i] = (byte) i;
+        Files.write(dir.resolve(FILE), content);
+        mediaService = new MediaService();
+        ReflectionTestUtils.setField(mediaService, "mediaStore", new LocalMediaStore(dir));
+        ReflectionTestUtils.setField(mediaService, "imageDerivativeService", mock(IImageDerivativeService.class));
+        ReflectionTestUtils.setField(mediaService, "hlsService", hlsService = mock(IHlsService.class));
+        etag = MediaService.etag(100, Files.getLastModifiedTime(dir.resolve(FILE)).toMillis());
+    }
+
+    @Test
+    void fullGetStreamsWholeFile() throws Exception {
+        MockHttpServletResponse response = this.serve(this.request());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(100, response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void firstPlayQueuesHlsPackaging() throws Exception {
+        this.serve(this.request("bytes=0-"));
+        this.serve(this.request("bytes=50-"));
+
+        verify(hlsService, times(1)).schedule(FILE);
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws Exception {
+        MockHttpServletRequest request = this.request();
+        request.setMethod("HEAD");
+
+        MockHttpServletResponse response = this.serve(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(100, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void missingFileIs404() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        mediaService.serve("missing.mp4", null, this.request(), response);
+
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    void singleRangeIsHandedToSendfile() throws Exception {
+        MockHttpServletRequest request = this.request("bytes=10-19");
+        request.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+
+        MockHttpServletResponse response = this.serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(dir.resolve(FILE).toAbsolutePath().toString(), request.getAttribute(MediaService.SENDFILE_FILENAME));
+        assertEquals(10L, request.getAttribute(MediaService.SENDFILE_START));
+        assertEquals(20L, request.getAttribute(MediaService.SENDFILE_END));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void onlyLocalSingleRangeRequestsAreServedInline() {
+        MockHttpServletRequest plain = this.request();
+        plain.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+        MockHttpServletRequest single = this.request("bytes=10-19");
+        single.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+        MockHttpServletRequest multi = this.request("bytes=0-9,50-59");
+        multi.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+
+        assertTrue(mediaService.isSendfile(FILE, null, plain));
+        assertTrue(mediaService.isSendfile(FILE, null, single));
+        assertFalse(mediaService.isSendfile(FILE, null, multi));
+        // Ảnh thu nhỏ, file không có, connector không hỗ trợ sendfile: ghi trên pool media
+        assertFalse(mediaService.isSendfile(FILE, "thumb", plain));
+        assertFalse(mediaService.isSendfile("missing.mp4", null, plain));
+        assertFalse(mediaService.isSendfile(FILE, null, this.request()));
+        assertFalse(mediaService.isHlsSendfile("..", "index.m3u8", plain));
+    }
+
+    @Test
+    void sendfileRangeIsAdmittedThroughBandwidthLimit() throws Exception {
+        MockHttpServletRequest request = this.request("bytes=10-19");
+        request.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+        List<Long> admitted = new ArrayList<>();
+        request.setAttribute(MediaService.SENDFILE_ADMISSION, (MediaService.SendfileAdmission) admitted::add);
+
+        this.serve(request);
+
+        assertEquals(List.of(10L), admitted);
+        assertEquals(10L, request.getAttribute(MediaService.SENDFILE_START));
+    }
+
+    @Test
+    void longRangeIsCappedToOneSendfileGrant() throws Exception {
+        MockHttpServletRequest request = this.request("bytes=0-");
+        request.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.setAttribute(MediaService.SENDFILE_MAX_BYTES, 30L);
+        List<Long> admitted = new ArrayList<>();
+        request.setAttribute(MediaService.SENDFILE_ADMISSION, (MediaService.SendfileAdmission) admitted::add);
+
+        MockHttpServletResponse response = this.serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 0-29/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(30, response.getContentLengthLong());
+        assertEquals(30L, request.getAttribute(MediaService.SENDFILE_END));
+        assertEquals(List.of(30L), admitted);
+    }
+
+    @Test
+    void wholeFileOverGrantIsNotSentByTomcat() throws Exception {
+        MockHttpServletRequest plain = this.request();
+        plain.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+        plain.setAttribute(MediaService.SENDFILE_MAX_BYTES, 30L);
+        MockHttpServletRequest small = this.request();
+        small.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+        small.setAttribute(MediaService.SENDFILE_MAX_BYTES, 100L);
+
+        assertFalse(mediaService.isSendfile(FILE, null, plain));
+        assertTrue(mediaService.isSendfile(FILE, null, small));
+
+        // If-Range cũ biến Range thành cả file: ghi ngay trên thread hiện tại thay vì giao cho sendfile
+        MockHttpServletRequest stale = this.request("bytes=10-19");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+        stale.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+        stale.setAttribute(MediaService.SENDFILE_MAX_BYTES, 30L);
+        MockHttpServletResponse response = this.serve(stale);
+
+        assertEquals(200, response.getStatus());
+        assertNull(stale.getAttribute(MediaService.SENDFILE_FILENAME));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void rejectedDownloadWritesNoBody() throws Exception {
+        // Không còn slot nào cho transfer lớn (> 10 byte)
+        BandwidthLimiter limiter = new BandwidthLimiter("download", 0, 0, 0, 10, 0, 60_000,
+                new SimpleMeterRegistry());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaService.serve(FILE, null, this.request(), new ThrottledResponse(response, limiter, "ip:1", false));
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void derivativeIsStreamedWhilePinned() throws Exception {
+        DiskLruCache cache = new DiskLruCache(dir.resolve("cache"), 1000);
+        Path temp = cache.newTempFile("video_thumb.jpg");
+        Files.write(temp, Arrays.copyOf(content, 40));
+        cache.commit("video_thumb.jpg", temp);
+        IImageDerivativeService derivatives = mock(IImageDerivativeService.class);
+        when(derivatives.resolve(FILE, "thumb")).thenAnswer(call -> cache.acquire("video_thumb.jpg"));
+        ReflectionTestUtils.setField(mediaService, "imageDerivativeService", derivatives);
+        MockHttpServletRequest request = this.request();
+        request.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        mediaService.serve(FILE, "thumb", request, response);
+
+        // Không giao cho sendfile: file có thể bị cache xoá sau khi servlet trả về
+        assertNull(request.getAttribute(MediaService.SENDFILE_FILENAME));
+        assertArrayEquals(Arrays.copyOf(content, 40), response.getContentAsByteArray());
+        assertEquals("image/jpeg", response.getContentType());
+        // Handle đã đóng nên remove xoá file ngay
+        cache.remove("video_thumb.jpg");
+        assertFalse(Files.exists(dir.resolve("cache/video_thumb.jpg")));
+    }
+
+    @Test
+    void singleRangeStreamsWithoutSendfile() throws Exception {
+        MockHttpServletResponse response = this.serve(this.request("bytes=10-19"));
+
+        assertEquals(206, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void suffixAndOpenRanges() throws Exception {
+        MockHttpServletResponse suffix = this.serve(this.request("bytes=-5"));
+        assertEquals("bytes 95-99/100", suffix.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 95, 100), suffix.getContentAsByteArray());
+
+        MockHttpServletResponse open = this.serve(this.request("bytes=90-"));
+        assertEquals("bytes 90-99/100", open.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 90, 100), open.getContentAsByteArray());
+    }
+
+    @Test
+    void distantRangesAreSentAsMultipart() throws Exception {
+        byte[] large = new byte[10_000];
+        Arrays.fill(large, (byte) 'a');
+        Arrays.fill(large, 5000, 5010, (byte) 'b');
+        Files.write(dir.resolve(FILE), large);
+
+        MockHttpServletResponse response = this.serve(this.request("bytes=0-9,5000-5009"));
+
+        assertEquals(206, response.getStatus());
+        String contentType = response.getContentType();
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        String body = response.getContentAsString(StandardCharsets.ISO_8859_1);
+        assertEquals(response.getContentLengthLong(), response.getContentAsByteArray().length);
+        assertTrue(body.contains("Content-Range: bytes 0-9/10000\r\n\r\naaaaaaaaaa\r\n--" + boundary));
+        assertTrue(body.contains("Content-Range: bytes 5000-5009/10000\r\n\r\nbbbbbbbbbb\r\n--" + boundary + "--"));
+    }
+
+    @Test
+    void overlappingAndAdjacentRangesAreCoalesced() throws Exception {
+        MockHttpServletRequest request = this.request("bytes=50-59,0-9,5-20");
+        request.setAttribute(MediaService.SENDFILE_SUPPORT, Boolean.TRUE);
+
+        MockHttpServletResponse response = this.serve(request);
+
+        // 0-20 và 50-59 cách nhau ít hơn COALESCE_GAP: gộp thành một range, vẫn đi sendfile
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 0-59/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0L, request.getAttribute(MediaService.SENDFILE_START));
+        assertEquals(60L, request.getAttribute(MediaService.SENDFILE_END));
+    }
+
+    @Test
+    void coalesceKeepsDistantRangesApart() {
+        List<MediaService.Range> merged = MediaService.coalesce(List.of(
+                new MediaService.Range(1000, 1999), new MediaService.Range(0, 9), new MediaService.Range(5, 20)));
+
+        assertEquals(List.of(new MediaService.Range(0, 20), new MediaService.Range(1000, 1999)), merged);
+    }
+
+    @Test
+    void unsatisfiableRangeIs416() throws Exception {
+        MockHttpServletResponse response = this.serve(this.request("bytes=1000-2000"));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void staleIfRangeSendsWholeFile() throws Exception {
+        MockHttpServletRequest request = this.request("bytes=10-19");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+
+        MockHttpServletResponse response = this.serve(request);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void weakIfRangeNeverMatches() throws Exception {
+        MockHttpServletRequest request = this.request("bytes=10-19");
+        request.addHeader(HttpHeaders.IF_RANGE, "W/" + etag);
+
+        assertEquals(200, this.serve(request).getStatus());
+    }
+
+    @Test
+    void ifNoneMatchExactTag() throws Exception {
+        assertEquals(304, this.conditional(etag).getStatus());
+    }
+
+    @Test
+    void ifNoneMatchWildcard() throws Exception {
+        assertEquals(304, this.conditional("*").getStatus());
+    }
+
+    @Test
+    void ifNoneMatchListWithWeakComparison() throws Exception {
+        MockHttpServletResponse response = this.conditional("\"a\", W/" + etag + ", \"b\"");
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void ifNoneMatchMismatchServesBody() throws Exception {
+        MockHttpServletResponse response = this.conditional("\"a\", \"b\"");
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void ifModifiedSinceWithoutIfNoneMatch() throws Exception {
+        MockHttpServletRequest request = this.request();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE,
+                Files.getLastModifiedTime(dir.resolve(FILE)).toMillis() + 1000);
+
+        assertEquals(304, this.serve(request).getStatus());
+    }
+
+    private MockHttpServletResponse conditional(String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = this.request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return this.serve(request);
+    }
+
+    private MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/media/" + FILE);
+    }
+
+    private MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = this.request();
+        request.addHeader(HttpHeaders.RANGE, range);
+        return request;
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        mediaService.serve(FILE, null, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,251 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.staticAsset.StaticAssetCache;
+import com.project.codebasespringjpa.configuration.storage.LocalMediaStore;
+import com.project.codebasespringjpa.entity.MediaBlobEntity;
+import com.project.codebasespringjpa.repository.IMediaBlobRepository;
+import com.project.codebasespringjpa.service.interfaces.IHlsService;
+import com.project.codebasespringjpa.service.interfaces.IImageDerivativeService;
+import com.project.codebasespringjpa.util.UtilFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MediaStoreServiceTests {
+    static final String HASH = "ab".repeat(32);
+    // Dưới spring.servlet.multipart.max-file-size (1000MB), lớn hơn heap -Xmx64m nhiều lần
+    static final long LARGE_UPLOAD = 900L << 20;
+
+    @TempDir
+    Path dir;
+    Path storeDir;
+    Path tempDir;
+    Path tomcatDir;
+    IMediaBlobRepository mediaBlobRepository;
+    IHlsService hlsService;
+    MediaStoreService mediaStoreService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storeDir = Files.createDirectories(dir.resolve("store"));
+        tempDir = Files.createDirectories(dir.resolve("tmp"));
+        tomcatDir = Files.createDirectories(dir.resolve("tomcat"));
+        mediaBlobRepository = mock(IMediaBlobRepository.class);
+        when(mediaBlobRepository.findByHash(anyString())).thenReturn(Optional.empty());
+        mediaStoreService = new MediaStoreService();
+        ReflectionTestUtils.setField(mediaStoreService, "mediaBlobRepository", mediaBlobRepository);
+        ReflectionTestUtils.setField(mediaStoreService, "imageDerivativeService", mock(IImageDerivativeService.class));
+        ReflectionTestUtils.setField(mediaStoreService, "staticAssetCache", mock(StaticAssetCache.class));
+        ReflectionTestUtils.setField(mediaStoreService, "hlsService", hlsService = mock(IHlsService.class));
+        ReflectionTestUtils.setField(mediaStoreService, "mediaStore", new LocalMediaStore(storeDir));
+        ReflectionTestUtils.setField(mediaStoreService, "tempDir", tempDir.toString());
+    }
+
+    @Test
+    void mp4IsFaststartedBeforeItIsPublished() throws Exception {
+        byte[] ftyp = box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII), new byte[8]);
+        byte[] mdat = box("mdat", new byte[64]);
+        byte[] moov = box("moov", box("trak", box("mdia", box("minf", box("stbl",
+                box("stco", new byte[4], int32(1), int32(ftyp.length + 8)))))));
+        Path source = Files.write(tempDir.resolve("upload.part"), concat(ftyp, mdat, moov));
+
+        String fileName = mediaStoreService.storeFile(source, HASH, Files.size(source), "lesson.MP4");
+
+        // Tên theo hash của file gửi lên, byte dưới tên đó đã là bản faststart ngay từ lần đầu xuất hiện
+        assertEquals(HASH + ".mp4", fileName);
+        byte[] stored = Files.readAllBytes(storeDir.resolve(fileName));
+        assertEquals(List.of("ftyp", "moov", "mdat"), topLevelTypes(stored));
+        ArgumentCaptor<MediaBlobEntity> blob = ArgumentCaptor.forClass(MediaBlobEntity.class);
+        verify(mediaBlobRepository).save(blob.capture());
+        assertEquals(UtilFile.crc32(new ByteArrayInputStream(stored)), blob.getValue().getCrc32());
+        verify(hlsService).schedule(fileName);
+        // Không còn file tạm nào: file gốc bị xoá, bản faststart đã chuyển vào store
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void otherFilesAreStoredAsIs() throws Exception {
+        byte[] data = "khong phai video".getBytes(StandardCharsets.UTF_8);
+        Path source = Files.write(tempDir.resolve("upload.part"), data);
+
+        String fileName = mediaStoreService.storeFile(source, HASH, data.length, "note.txt");
+
+        assertArrayEquals(data, Files.readAllBytes(storeDir.resolve(fileName)));
+        assertFalse(Files.exists(source));
+        verifyNoInteractions(hlsService);
+    }
+
+    @Test
+    void uploadedPartIsMovedNotCopied() throws Exception {
+        byte[] data = "anh dai dien".getBytes(StandardCharsets.UTF_8);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        SpooledPart part = new SpooledPart(Files.write(tomcatDir.resolve("upload_1.tmp"), data), "avatar.png");
+
+        String fileName = mediaStoreService.store(part);
+
+        assertEquals(sha256 + ".png", fileName);
+        assertArrayEquals(data, Files.readAllBytes(storeDir.resolve(fileName)));
+        assertFalse(part.streamed);
+        assertFalse(Files.exists(part.path));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    // Chạy trong execution surefire small-heap (-Xmx64m): đi đúng đường FileController -> store(MultipartFile),
+    // file part của Tomcat được chuyển thẳng vào store, heap không tăng theo kích thước file
+    @Test
+    @Tag("small-heap")
+    void largeUploadIsStoredUnderSmallHeap() throws Exception {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        assertTrue(maxHeap <= 128L << 20, "Test phai chay voi heap nho (-Xmx64m), hien tai " + (maxHeap >> 20) + " MB");
+        Path spooled = tomcatDir.resolve("upload_2.tmp");
+        String sha256 = spool(spooled, LARGE_UPLOAD);
+        SpooledPart part = new SpooledPart(spooled, "lecture.bin");
+
+        String fileName = mediaStoreService.store(part);
+
+        assertEquals(sha256 + ".bin", fileName);
+        assertEquals(LARGE_UPLOAD, Files.size(storeDir.resolve(fileName)));
+        assertFalse(part.streamed);
+        assertFalse(Files.exists(spooled));
+        ArgumentCaptor<MediaBlobEntity> blob = ArgumentCaptor.forClass(MediaBlobEntity.class);
+        verify(mediaBlobRepository).save(blob.capture());
+        assertEquals(LARGE_UPLOAD, blob.getValue().getSize());
+    }
+
+    // Ghi dữ liệu giả ngẫu nhiên qua một block 1 MB cố định, trả về SHA-256 của file
+    private static String spool(Path path, long size) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] block = new byte[1 << 20];
+        new Random(42).nextBytes(block);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (long position = 0; position < size; position += block.length) {
+                // Lệch một byte mỗi block để các block liền nhau không giống hệt nhau
+                block[(int) (position / block.length) % block.length]++;
+                int n = (int) Math.min(block.length, size - position);
+                digest.update(block, 0, n);
+                ByteBuffer buffer = ByteBuffer.wrap(block, 0, n);
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Giống part của Tomcat với file-size-threshold=0: nội dung đã nằm trên đĩa, transferTo(File) chỉ đổi tên
+    static class SpooledPart implements MultipartFile {
+        final Path path;
+        final String originalFilename;
+        boolean streamed;
+
+        SpooledPart(Path path, String originalFilename) {
+            this.path = path;
+            this.originalFilename = originalFilename;
+        }
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return this.getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("Khong duoc nap ca file vao heap");
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            streamed = true;
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.move(path, dest.toPath());
+        }
+    }
+
+    private static byte[] box(String type, byte[]... parts) {
+        byte[] content = concat(parts);
+        return ByteBuffer.allocate(8 + content.length)
+                .putInt(8 + content.length)
+                .put(type.getBytes(StandardCharsets.US_ASCII))
+                .put(content)
+                .array();
+    }
+
+    private static byte[] int32(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts)
+            out.writeBytes(part);
+        return out.toByteArray();
+    }
+
+    private static List<String> topLevelTypes(byte[] file) {
+        List<String> types = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(file);
+        int position = 0;
+        while (position + 8 <= file.length) {
+            types.add(new String(file, position + 4, 4, StandardCharsets.US_ASCII));
+            position += buffer.getInt(position);
+        }
+        return types;
+    }
+}
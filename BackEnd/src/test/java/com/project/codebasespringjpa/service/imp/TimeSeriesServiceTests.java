@@ -0,0 +1,113 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.dashboard.SeriesEvent;
+import com.project.codebasespringjpa.dto.statics.RegistrationDayStat;
+import com.project.codebasespringjpa.dto.statics.SeriesPointResponse;
+import com.project.codebasespringjpa.dto.statics.SeriesSearch;
+import com.project.codebasespringjpa.enums.GranularityEnum;
+import com.project.codebasespringjpa.enums.SeriesMetricEnum;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.repository.IAppointmentRepository;
+import com.project.codebasespringjpa.repository.IProgramRepository;
+import com.project.codebasespringjpa.repository.ISurveyResultRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TimeSeriesServiceTests {
+    static final LocalDate FROM = LocalDate.of(2024, 3, 4);
+    static final LocalDate TO = LocalDate.of(2024, 3, 6);
+
+    IAppointmentRepository appointmentRepository;
+    ISurveyResultRepository surveyResultRepository;
+    IProgramRepository programRepository;
+    TimeSeriesService timeSeriesService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(IAppointmentRepository.class);
+        surveyResultRepository = mock(ISurveyResultRepository.class);
+        programRepository = mock(IProgramRepository.class);
+        timeSeriesService = new TimeSeriesService();
+        ReflectionTestUtils.setField(timeSeriesService, "appointmentRepository", appointmentRepository);
+        ReflectionTestUtils.setField(timeSeriesService, "surveyResultRepository", surveyResultRepository);
+        ReflectionTestUtils.setField(timeSeriesService, "programRepository", programRepository);
+        ReflectionTestUtils.setField(timeSeriesService, "maxDays", 1100L);
+        ReflectionTestUtils.setField(timeSeriesService, "cacheDays", 1000L);
+        ReflectionTestUtils.setField(timeSeriesService, "cacheTtl", 60_000L);
+        timeSeriesService.init();
+    }
+
+    @Test
+    void registrationsComeFromProgramRegistrations() {
+        when(programRepository.countRegisteredDaily(FROM, TO.plusDays(1)))
+                .thenReturn(List.of(registered(FROM, 3), registered(TO, 2)));
+
+        List<SeriesPointResponse> series = timeSeriesService.getSeries(search(SeriesMetricEnum.REGISTRATION));
+
+        assertEquals(List.of(3L, 0L, 2L), series.stream().map(SeriesPointResponse::getCount).toList());
+        verifyNoInteractions(appointmentRepository, surveyResultRepository);
+    }
+
+    @Test
+    void closedDaysAreCachedUntilInvalidated() {
+        when(programRepository.countRegisteredDaily(any(), any())).thenReturn(List.of(registered(FROM, 3)));
+
+        timeSeriesService.getSeries(search(SeriesMetricEnum.REGISTRATION));
+        timeSeriesService.getSeries(search(SeriesMetricEnum.REGISTRATION));
+        verify(programRepository, times(1)).countRegisteredDaily(any(), any());
+
+        // Chỉ ngày bị sửa được đọc lại
+        timeSeriesService.onEvent(new SeriesEvent(SeriesMetricEnum.REGISTRATION, TO));
+        timeSeriesService.getSeries(search(SeriesMetricEnum.REGISTRATION));
+        verify(programRepository).countRegisteredDaily(TO, TO.plusDays(1));
+    }
+
+    @Test
+    void filtersTheMetricLacksAreRejected() {
+        SeriesSearch status = search(SeriesMetricEnum.SURVEY);
+        status.setStatus("COMPLETED");
+        SeriesSearch specialist = search(SeriesMetricEnum.REGISTRATION);
+        specialist.setSpecialistId(1L);
+        SeriesSearch survey = search(SeriesMetricEnum.APPOINTMENT);
+        survey.setSurveyId(1L);
+        SeriesSearch group = search(SeriesMetricEnum.REGISTRATION);
+        group.setGroup("status");
+
+        for (SeriesSearch it : List.of(status, specialist, survey, group)) {
+            AppException e = assertThrows(AppException.class, () -> timeSeriesService.getSeries(it));
+            assertEquals(ErrorCode.STATS_RANGE_INVALID, e.getErrorCode());
+        }
+        verifyNoInteractions(appointmentRepository, surveyResultRepository, programRepository);
+    }
+
+    private static SeriesSearch search(SeriesMetricEnum metric) {
+        return SeriesSearch.builder()
+                .metric(metric)
+                .granularity(GranularityEnum.DAY)
+                .from(FROM)
+                .to(TO)
+                .build();
+    }
+
+    private static RegistrationDayStat registered(LocalDate day, long count) {
+        return new RegistrationDayStat() {
+            @Override
+            public LocalDate getDay() {
+                return day;
+            }
+
+            @Override
+            public Long getCnt() {
+                return count;
+            }
+        };
+    }
+}
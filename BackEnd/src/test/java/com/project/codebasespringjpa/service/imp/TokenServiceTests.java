@@ -0,0 +1,110 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.configuration.security.jwtConfig.JwtProvider;
+import com.project.codebasespringjpa.configuration.security.jwtConfig.RevocationList;
+import com.project.codebasespringjpa.dto.authen.request.RefreshTokenRequest;
+import com.project.codebasespringjpa.dto.authen.response.LoginResponse;
+import com.project.codebasespringjpa.entity.RefreshTokenEntity;
+import com.project.codebasespringjpa.entity.RoleEntity;
+import com.project.codebasespringjpa.entity.UserEntity;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.repository.IRefreshTokenRepository;
+import com.project.codebasespringjpa.repository.IUserRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenServiceTests {
+    IRefreshTokenRepository refreshTokenRepository;
+    IUserRepository userRepository;
+    JwtProvider jwtProvider;
+    RevocationList revocationList;
+    TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(IRefreshTokenRepository.class);
+        userRepository = mock(IUserRepository.class);
+        jwtProvider = mock(JwtProvider.class);
+        revocationList = mock(RevocationList.class);
+        tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "refreshTokenRepository", refreshTokenRepository);
+        ReflectionTestUtils.setField(tokenService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokenService, "jwtProvider", jwtProvider);
+        ReflectionTestUtils.setField(tokenService, "revocationList", revocationList);
+        ReflectionTestUtils.setField(tokenService, "refreshExpiration", 60_000L);
+    }
+
+    @Test
+    void refreshRotatesToken() {
+        stored(LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.deleteByTokenHash(anyString())).thenReturn(1);
+        UserEntity user = new UserEntity();
+        user.setId(7L);
+        user.setRole(new RoleEntity("USER"));
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(jwtProvider.generateToken(user)).thenReturn("access");
+
+        LoginResponse response = tokenService.refresh(new RefreshTokenRequest("old-token"));
+
+        assertEquals("access", response.getToken());
+        assertNotNull(response.getRefreshToken());
+        assertNotEquals("old-token", response.getRefreshToken());
+        verify(refreshTokenRepository).save(any(RefreshTokenEntity.class));
+        verify(revocationList, never()).revokeUser(any());
+    }
+
+    @Test
+    void expiredTokenIsDeletedBeforeRejecting() {
+        stored(LocalDateTime.now().minusMinutes(1));
+
+        AppException e = assertThrows(AppException.class,
+                () -> tokenService.refresh(new RefreshTokenRequest("old-token")));
+
+        assertEquals(ErrorCode.REFRESH_TOKEN_INVALID, e.getErrorCode());
+        verify(refreshTokenRepository).deleteByTokenHash(anyString());
+        verify(jwtProvider, never()).generateToken(any(UserEntity.class));
+    }
+
+    @Test
+    void concurrentReuseRevokesUserSessions() {
+        // Request kia đã xóa dòng trước: delete có điều kiện trả về 0
+        stored(LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.deleteByTokenHash(anyString())).thenReturn(0);
+
+        assertThrows(AppException.class, () -> tokenService.refresh(new RefreshTokenRequest("old-token")));
+
+        verify(refreshTokenRepository).deleteByUserId(7L);
+        verify(revocationList).revokeUser(7L);
+        verify(refreshTokenRepository, never()).save(any());
+        verify(jwtProvider, never()).generateToken(any(UserEntity.class));
+    }
+
+    @Test
+    void rejectionsDoNotRollBackDeletesOrRevocation() throws NoSuchMethodException {
+        Transactional transactional = TokenService.class
+                .getMethod("refresh", RefreshTokenRequest.class)
+                .getAnnotation(Transactional.class);
+
+        assertNotNull(transactional);
+        assertTrue(Arrays.asList(transactional.dontRollbackOn()).contains(AppException.class));
+    }
+
+    private void stored(LocalDateTime expiryDate) {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(RefreshTokenEntity.builder()
+                .tokenHash("hash")
+                .userId(7L)
+                .expiryDate(expiryDate)
+                .build()));
+    }
+}
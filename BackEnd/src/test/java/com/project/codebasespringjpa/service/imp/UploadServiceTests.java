@@ -0,0 +1,201 @@
+package com.project.codebasespringjpa.service.imp;
+
+import com.project.codebasespringjpa.dto.file.request.UploadInitRequest;
+import com.project.codebasespringjpa.dto.file.response.UploadStatusResponse;
+import com.project.codebasespringjpa.exception.AppException;
+import com.project.codebasespringjpa.exception.ErrorCode;
+import com.project.codebasespringjpa.service.interfaces.IMediaStoreService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UploadServiceTests {
+    static final byte[] DATA = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path tempDir;
+    IMediaStoreService mediaStoreService;
+    UploadService uploadService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mediaStoreService = mock(IMediaStoreService.class);
+        uploadService = new UploadService();
+        ReflectionTestUtils.setField(uploadService, "mediaStoreService", mediaStoreService);
+        ReflectionTestUtils.setField(uploadService, "tempDir", tempDir.toString());
+        ReflectionTestUtils.setField(uploadService, "chunkSize", 8L);
+        ReflectionTestUtils.setField(uploadService, "maxSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(uploadService, "sessionTtl", 60_000L);
+        ReflectionTestUtils.setField(uploadService, "maxSessionsPerUser", 2);
+        uploadService.init();
+    }
+
+    @Test
+    void chunksOutOfOrderThenComplete() throws Exception {
+        when(mediaStoreService.storeFile(any(), anyString(), anyLong(), anyString())).thenReturn("stored.bin");
+        String id = this.initiate(1L, sha256(DATA)).getUploadId();
+
+        uploadService.writeChunk(1L, id, 10, slice(10, 20));
+        UploadStatusResponse status = uploadService.writeChunk(1L, id, 0, slice(0, 10));
+
+        assertEquals(20, status.getReceivedBytes());
+        assertEquals("stored.bin", uploadService.complete(1L, id));
+        verify(mediaStoreService).storeFile(any(), eq(sha256(DATA)), eq(20L), eq("a.bin"));
+        // Phiên đã xong thì không còn, và không còn tính vào giới hạn
+        assertCode(ErrorCode.UPLOAD_NOT_FOUND, () -> uploadService.status(1L, id));
+        this.initiate(1L, sha256(DATA));
+        this.initiate(1L, sha256(DATA));
+    }
+
+    @Test
+    void incompleteUploadCanResume() throws Exception {
+        when(mediaStoreService.storeFile(any(), anyString(), anyLong(), anyString())).thenReturn("stored.bin");
+        String id = this.initiate(1L, sha256(DATA)).getUploadId();
+        uploadService.writeChunk(1L, id, 0, slice(0, 12));
+
+        assertCode(ErrorCode.UPLOAD_INCOMPLETE, () -> uploadService.complete(1L, id));
+
+        uploadService.writeChunk(1L, id, 12, slice(12, 20));
+        assertEquals("stored.bin", uploadService.complete(1L, id));
+    }
+
+    @Test
+    void checksumMismatchDropsSession() throws Exception {
+        String id = this.initiate(1L, sha256("khac".getBytes(StandardCharsets.US_ASCII))).getUploadId();
+        uploadService.writeChunk(1L, id, 0, slice(0, 20));
+
+        assertCode(ErrorCode.UPLOAD_CHECKSUM_MISMATCH, () -> uploadService.complete(1L, id));
+        assertCode(ErrorCode.UPLOAD_NOT_FOUND, () -> uploadService.status(1L, id));
+        assertFalse(Files.exists(tempDir.resolve(id + ".part")));
+        verifyNoInteractions(mediaStoreService);
+    }
+
+    @Test
+    void otherUsersCannotTouchSession() throws Exception {
+        String id = this.initiate(1L, sha256(DATA)).getUploadId();
+
+        assertCode(ErrorCode.UPLOAD_NOT_FOUND, () -> uploadService.status(2L, id));
+        assertCode(ErrorCode.UPLOAD_NOT_FOUND, () -> uploadService.writeChunk(2L, id, 0, slice(0, 20)));
+        assertCode(ErrorCode.UPLOAD_NOT_FOUND, () -> uploadService.complete(2L, id));
+        assertCode(ErrorCode.UPLOAD_NOT_FOUND, () -> uploadService.abort(2L, id));
+        assertEquals(0, uploadService.status(1L, id).getReceivedBytes());
+    }
+
+    @Test
+    void sessionsAreCappedPerUser() throws Exception {
+        String first = this.initiate(1L, sha256(DATA)).getUploadId();
+        this.initiate(1L, sha256(DATA));
+
+        assertCode(ErrorCode.UPLOAD_TOO_MANY_SESSIONS, () -> this.initiate(1L, sha256(DATA)));
+        // User khác không bị ảnh hưởng
+        this.initiate(2L, sha256(DATA));
+
+        uploadService.abort(1L, first);
+        this.initiate(1L, sha256(DATA));
+    }
+
+    @Test
+    void expiredSessionIsRemoved() throws Exception {
+        String id = this.initiate(1L, sha256(DATA)).getUploadId();
+        ReflectionTestUtils.setField(uploadService, "sessionTtl", -1_000L);
+
+        uploadService.cleanExpired();
+
+        assertCode(ErrorCode.UPLOAD_NOT_FOUND, () -> uploadService.status(1L, id));
+        assertFalse(Files.exists(tempDir.resolve(id + ".part")));
+        this.initiate(1L, sha256(DATA));
+        this.initiate(1L, sha256(DATA));
+    }
+
+    @Test
+    void sweeperSkipsSessionWithWriteInFlight() throws Exception {
+        String id = this.initiate(1L, sha256(DATA)).getUploadId();
+        ReflectionTestUtils.setField(uploadService, "sessionTtl", -1_000L);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Chunk gửi được nửa thì dừng lại cho tới khi sweeper chạy xong
+        InputStream slow = new InputStream() {
+            int position;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (position == 10) {
+                    reading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if (position >= DATA.length)
+                    return -1;
+                int end = position < 10 ? 10 : DATA.length;
+                int n = Math.min(len, end - position);
+                System.arraycopy(DATA, position, b, off, n);
+                position += n;
+                return n;
+            }
+        };
+        CompletableFuture<UploadStatusResponse> write = CompletableFuture.supplyAsync(() -> {
+            try {
+                return uploadService.writeChunk(1L, id, 0, slow);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        uploadService.cleanExpired();
+        release.countDown();
+
+        assertEquals(20, write.get(5, TimeUnit.SECONDS).getReceivedBytes());
+        assertEquals(20, uploadService.status(1L, id).getReceivedBytes());
+
+        // Hết chunk đang ghi thì lượt dọn sau mới bỏ phiên
+        uploadService.cleanExpired();
+        assertCode(ErrorCode.UPLOAD_NOT_FOUND, () -> uploadService.status(1L, id));
+    }
+
+    private UploadStatusResponse initiate(Long ownerId, String sha256) throws IOException {
+        return uploadService.initiate(ownerId, new UploadInitRequest("a.bin", (long) DATA.length, sha256));
+    }
+
+    private static InputStream slice(int from, int to) {
+        return new ByteArrayInputStream(DATA, from, to - from);
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    private static void assertCode(ErrorCode expected, Executable call) {
+        AppException e = assertThrows(AppException.class, call);
+        assertEquals(expected, e.getErrorCode());
+    }
+}
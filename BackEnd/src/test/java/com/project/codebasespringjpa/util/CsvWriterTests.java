@@ -0,0 +1,61 @@
+package com.project.codebasespringjpa.util;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CsvWriterTests {
+    static final String BOM = "\uFEFF";
+
+    @Test
+    void plainValuesAreWrittenAsIs() throws Exception {
+        assertEquals(BOM + "id,username,Nguyễn Văn A\r\n", csv("id", "username", "Nguyễn Văn A"));
+    }
+
+    @Test
+    void nullAndEmptyAreEmptyCells() throws Exception {
+        assertEquals(BOM + ",,x\r\n", csv(null, "", "x"));
+    }
+
+    @Test
+    void separatorsAndQuotesAreQuoted() throws Exception {
+        assertEquals(BOM + "\"a,b\",\"say \"\"hi\"\"\",\"line1\nline2\",\"cr\rx\"\r\n",
+                csv("a,b", "say \"hi\"", "line1\nline2", "cr\rx"));
+    }
+
+    @Test
+    void formulaCellsArePrefixedAndQuoted() throws Exception {
+        assertEquals(BOM + "\"'=SUM(A1:A9)\",\"'+1\",\"'-2\",\"'@cmd\",\"'\tx\",\"'\rx\"\r\n",
+                csv("=SUM(A1:A9)", "+1", "-2", "@cmd", "\tx", "\rx"));
+        // Công thức có dấu nháy vẫn được nhân đôi sau tiền tố
+        assertEquals(BOM + "\"'=HYPERLINK(\"\"http://x\"\")\"\r\n", csv("=HYPERLINK(\"http://x\")"));
+        // Ký tự công thức không ở đầu ô thì giữ nguyên
+        assertEquals(BOM + "a=b,1-2\r\n", csv("a=b", "1-2"));
+    }
+
+    @Test
+    void resultSetRowUsesSameEscaping() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn("1");
+        when(rs.getString(2)).thenReturn("=cmd|' /C calc'!A0");
+        when(rs.getString(3)).thenReturn(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            writer.writeRow(rs, 3);
+        }
+
+        assertEquals(BOM + "1,\"'=cmd|' /C calc'!A0\",\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String csv(String... values) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            writer.writeRow(values);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
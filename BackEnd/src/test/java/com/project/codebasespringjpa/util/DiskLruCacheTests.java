@@ -0,0 +1,85 @@
+package com.project.codebasespringjpa.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskLruCacheTests {
+    @TempDir
+    Path dir;
+
+    @Test
+    void evictsLeastRecentlyUsed() throws Exception {
+        DiskLruCache cache = new DiskLruCache(dir, 20);
+        this.put(cache, "a", 10);
+        this.put(cache, "b", 10);
+        assertNotNull(cache.get("a"));
+
+        this.put(cache, "c", 10);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertFalse(Files.exists(dir.resolve("b")));
+        assertEquals(20, cache.size());
+    }
+
+    @Test
+    void pinnedEntrySurvivesEviction() throws Exception {
+        DiskLruCache cache = new DiskLruCache(dir, 20);
+        this.put(cache, "a", 10);
+        DiskLruCache.Handle handle = cache.acquire("a");
+        this.put(cache, "b", 10);
+
+        this.put(cache, "c", 10);
+
+        // "a" cũ nhất nhưng đang được giữ nên "b" bị xoá thay
+        assertTrue(Files.exists(handle.path()));
+        assertNull(cache.get("b"));
+        handle.close();
+
+        this.put(cache, "d", 10);
+        assertNull(cache.get("a"));
+        assertFalse(Files.exists(dir.resolve("a")));
+    }
+
+    @Test
+    void removeWaitsForLastHandle() throws Exception {
+        DiskLruCache cache = new DiskLruCache(dir, 100);
+        this.put(cache, "a", 10);
+        DiskLruCache.Handle first = cache.acquire("a");
+        DiskLruCache.Handle second = cache.acquire("a");
+
+        cache.remove("a");
+
+        assertNull(cache.get("a"));
+        assertNull(cache.acquire("a"));
+        assertEquals(0, cache.size());
+        first.close();
+        first.close();
+        assertTrue(Files.exists(dir.resolve("a")));
+        second.close();
+        assertFalse(Files.exists(dir.resolve("a")));
+    }
+
+    @Test
+    void recommitWhilePinnedKeepsNewFile() throws Exception {
+        DiskLruCache cache = new DiskLruCache(dir, 100);
+        this.put(cache, "a", 10);
+        DiskLruCache.Handle handle = cache.acquire("a");
+        cache.remove("a");
+
+        this.put(cache, "a", 12);
+        handle.close();
+
+        assertEquals(12, Files.size(cache.get("a")));
+    }
+
+    private void put(DiskLruCache cache, String key, int size) throws Exception {
+        Path temp = cache.newTempFile(key);
+        Files.write(temp, new byte[size]);
+        cache.commit(key, temp);
+    }
+}
@@ -0,0 +1,232 @@
+package com.project.codebasespringjpa.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HlsPackagerTests {
+    // Video: 6 sample x 1 giây (timescale 1000), keyframe ở sample 1 và 4
+    static final int VIDEO_SAMPLES = 6;
+    // Audio: 12 sample x 0,5 giây (timescale 100)
+    static final int AUDIO_SAMPLES = 12;
+    static final int AUDIO_SIZE = 4;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void twoTrackFileIsSegmentedAtKeyframes() throws Exception {
+        int[] videoSizes = new int[VIDEO_SAMPLES];
+        for (int i = 0; i < VIDEO_SAMPLES; i++)
+            videoSizes[i] = 10 + i;
+        int videoBytes = Arrays.stream(videoSizes).sum();
+        byte[] payload = new byte[videoBytes + AUDIO_SAMPLES * AUDIO_SIZE];
+        for (int i = 0; i < payload.length; i++)
+            payload[i] = (byte) (i * 7 + 3);
+        byte[] ftyp = box("ftyp", ascii("isom"), new byte[4]);
+        // Kích thước moov không phụ thuộc giá trị offset: dựng một lần để biết vị trí mdat
+        int moovSize = moov(videoSizes, 0, 0).length;
+        long dataStart = ftyp.length + moovSize + 8;
+        byte[] moov = moov(videoSizes, dataStart, dataStart + videoBytes);
+        Path source = dir.resolve("lesson.mp4");
+        Files.write(source, concat(ftyp, moov, box("mdat", payload)));
+        Path output = dir.resolve("hls");
+
+        assertTrue(HlsPackager.pack(source, output, 2.0));
+
+        // Cắt ở keyframe đầu tiên sau 2 giây (sample 4 = 3 giây): hai segment 3 giây
+        String playlist = Files.readString(output.resolve(HlsPackager.PLAYLIST));
+        assertTrue(playlist.contains("#EXT-X-MAP:URI=\"init.mp4\""));
+        assertEquals(2, playlist.split("#EXTINF:3.000,").length - 1);
+        assertTrue(playlist.contains("seg_00000.m4s") && playlist.contains("seg_00001.m4s"));
+        assertTrue(playlist.endsWith("#EXT-X-ENDLIST\n"));
+
+        byte[] init = Files.readAllBytes(output.resolve(HlsPackager.INIT_SEGMENT));
+        List<int[]> trex = find(init, "moov", "mvex", "trex");
+        assertEquals(2, trex.size());
+        assertEquals(1, ByteBuffer.wrap(init).getInt(trex.get(0)[1] + 4));
+        assertEquals(2, ByteBuffer.wrap(init).getInt(trex.get(1)[1] + 4));
+
+        byte[] audio = Arrays.copyOfRange(payload, videoBytes, payload.length);
+        byte[] video = Arrays.copyOf(payload, videoBytes);
+        int firstVideo = videoSizes[0] + videoSizes[1] + videoSizes[2];
+        // Audio theo mốc 3 giây của video: 6 sample đầu ở segment 0
+        this.assertSegment(output.resolve("seg_00000.m4s"), 1,
+                new Run(1, 0, 3, Arrays.copyOf(video, firstVideo)),
+                new Run(2, 0, 6, Arrays.copyOf(audio, 6 * AUDIO_SIZE)));
+        this.assertSegment(output.resolve("seg_00001.m4s"), 2,
+                new Run(1, 3000, 3, Arrays.copyOfRange(video, firstVideo, videoBytes)),
+                new Run(2, 300, 6, Arrays.copyOfRange(audio, 6 * AUDIO_SIZE, audio.length)));
+    }
+
+    @Test
+    void hugeSampleCountIsRejected() throws Exception {
+        // stsz khai báo 2^31-1 sample nhưng box chỉ chứa một entry: không được cấp phát mảng
+        byte[] stbl = box("stbl", stsd("avc1"),
+                box("stsz", int32(0), int32(0), int32(Integer.MAX_VALUE), int32(10)),
+                box("stts", int32(0), int32(1), int32(1), int32(1000)),
+                box("stsc", int32(0), int32(1), int32(1), int32(1), int32(1)),
+                box("stco", int32(0), int32(1), int32(0)));
+        byte[] moov = box("moov", mvhd(), trak(1, 1000, "vide", stbl));
+        Path source = dir.resolve("bad.mp4");
+        Files.write(source, concat(box("ftyp", ascii("isom"), new byte[4]), moov, box("mdat", new byte[10])));
+
+        assertFalse(HlsPackager.pack(source, dir.resolve("hls"), 2.0));
+        assertFalse(Files.exists(dir.resolve("hls")));
+    }
+
+    @Test
+    void fixedSizeSamplesBeyondFileAreRejected() throws Exception {
+        // Cỡ sample cố định, số sample lớn hơn dữ liệu có trong file
+        byte[] stbl = box("stbl", stsd("avc1"),
+                box("stsz", int32(0), int32(1000), int32(50_000_000)),
+                box("stts", int32(0), int32(1), int32(50_000_000), int32(1)),
+                box("stsc", int32(0), int32(1), int32(1), int32(1), int32(1)),
+                box("stco", int32(0), int32(1), int32(0)));
+        byte[] moov = box("moov", mvhd(), trak(1, 1000, "vide", stbl));
+        Path source = dir.resolve("bad.mp4");
+        Files.write(source, concat(box("ftyp", ascii("isom"), new byte[4]), moov, box("mdat", new byte[10])));
+
+        assertFalse(HlsPackager.pack(source, dir.resolve("hls"), 2.0));
+    }
+
+    record Run(int trackId, long baseTime, int samples, byte[] data) {
+    }
+
+    // moof: mỗi traf có tfhd/tfdt/trun; data_offset tính từ đầu moof trỏ đúng byte của sample gốc
+    private void assertSegment(Path segment, int sequence, Run... runs) throws Exception {
+        byte[] bytes = Files.readAllBytes(segment);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<int[]> top = children(bytes, 0, bytes.length);
+        assertEquals("moof", type(bytes, top.get(0)));
+        assertEquals("mdat", type(bytes, top.get(1)));
+        assertEquals(sequence, buffer.getInt(find(bytes, "moof", "mfhd").get(0)[1] + 4));
+        List<int[]> trafs = find(bytes, "moof", "traf");
+        assertEquals(runs.length, trafs.size());
+        for (int t = 0; t < runs.length; t++) {
+            int[] traf = trafs.get(t);
+            int[] tfhd = child(bytes, traf, "tfhd");
+            int[] tfdt = child(bytes, traf, "tfdt");
+            int[] trun = child(bytes, traf, "trun");
+            assertEquals(runs[t].trackId(), buffer.getInt(tfhd[1] + 4));
+            assertEquals(runs[t].baseTime(), buffer.getLong(tfdt[1] + 4));
+            assertEquals(runs[t].samples(), buffer.getInt(trun[1] + 4));
+            int dataOffset = buffer.getInt(trun[1] + 8);
+            assertArrayEquals(runs[t].data(), Arrays.copyOfRange(bytes, dataOffset, dataOffset + runs[t].data().length));
+        }
+        // mdat chỉ chứa đúng dữ liệu của các run
+        int payload = Arrays.stream(runs).mapToInt(run -> run.data().length).sum();
+        assertEquals(8 + payload, top.get(1)[2] - top.get(1)[0]);
+    }
+
+    private static byte[] moov(int[] videoSizes, long videoChunk, long audioChunk) {
+        ByteArrayOutputStream stsz = new ByteArrayOutputStream();
+        stsz.writeBytes(int32(0));
+        stsz.writeBytes(int32(0));
+        stsz.writeBytes(int32(videoSizes.length));
+        for (int size : videoSizes)
+            stsz.writeBytes(int32(size));
+        byte[] videoStbl = box("stbl", stsd("avc1"),
+                box("stts", int32(0), int32(1), int32(VIDEO_SAMPLES), int32(1000)),
+                box("stss", int32(0), int32(2), int32(1), int32(4)),
+                box("stsc", int32(0), int32(1), int32(1), int32(VIDEO_SAMPLES), int32(1)),
+                box("stsz", stsz.toByteArray()),
+                box("stco", int32(0), int32(1), int32((int) videoChunk)));
+        byte[] audioStbl = box("stbl", stsd("mp4a"),
+                box("stts", int32(0), int32(1), int32(AUDIO_SAMPLES), int32(50)),
+                box("stsc", int32(0), int32(1), int32(1), int32(AUDIO_SAMPLES), int32(1)),
+                box("stsz", int32(0), int32(AUDIO_SIZE), int32(AUDIO_SAMPLES)),
+                box("stco", int32(0), int32(1), int32((int) audioChunk)));
+        return box("moov", mvhd(), trak(1, 1000, "vide", videoStbl), trak(2, 100, "soun", audioStbl));
+    }
+
+    private static byte[] trak(int id, int timescale, String handler, byte[] stbl) {
+        byte[] tkhd = box("tkhd", int32(0), int32(0), int32(0), int32(id), new byte[68]);
+        byte[] mdhd = box("mdhd", int32(0), int32(0), int32(0), int32(timescale), int32(0), new byte[4]);
+        byte[] hdlr = box("hdlr", int32(0), int32(0), ascii(handler), new byte[13]);
+        return box("trak", tkhd, box("mdia", mdhd, hdlr, box("minf", stbl)));
+    }
+
+    private static byte[] stsd(String format) {
+        return box("stsd", int32(0), int32(1), box(format, new byte[16]));
+    }
+
+    private static byte[] mvhd() {
+        return box("mvhd", int32(0), int32(0), int32(0), int32(1000), int32(6000), new byte[80]);
+    }
+
+    // ---đọc box trong output
+
+    private static List<int[]> find(byte[] bytes, String... path) {
+        List<int[]> current = List.of(new int[]{0, 0, bytes.length});
+        for (String type : path) {
+            List<int[]> next = new ArrayList<>();
+            for (int[] parent : current) {
+                for (int[] box : children(bytes, parent[1], parent[2])) {
+                    if (type(bytes, box).equals(type))
+                        next.add(box);
+                }
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static int[] child(byte[] bytes, int[] parent, String type) {
+        for (int[] box : children(bytes, parent[1], parent[2])) {
+            if (type(bytes, box).equals(type))
+                return box;
+        }
+        throw new AssertionError("Thieu box " + type);
+    }
+
+    // {bắt đầu box, bắt đầu nội dung, kết thúc box}
+    private static List<int[]> children(byte[] bytes, int start, int end) {
+        List<int[]> boxes = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int position = start;
+        while (position + 8 <= end) {
+            int size = buffer.getInt(position);
+            boxes.add(new int[]{position, position + 8, position + size});
+            position += size;
+        }
+        return boxes;
+    }
+
+    private static String type(byte[] bytes, int[] box) {
+        return new String(bytes, box[0] + 4, 4, StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] box(String type, byte[]... parts) {
+        byte[] content = concat(parts);
+        return ByteBuffer.allocate(8 + content.length)
+                .putInt(8 + content.length)
+                .put(ascii(type))
+                .put(content)
+                .array();
+    }
+
+    private static byte[] int32(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts)
+            out.writeBytes(part);
+        return out.toByteArray();
+    }
+}
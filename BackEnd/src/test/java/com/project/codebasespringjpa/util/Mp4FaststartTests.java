@@ -0,0 +1,145 @@
+package com.project.codebasespringjpa.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Mp4FaststartTests {
+    static final int MDAT_PAYLOAD = 100;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void moovIsMovedBeforeMdatAndOffsetsShifted() throws Exception {
+        // ftyp | mdat | moov: chunk offset trỏ vào trong mdat
+        byte[] ftyp = box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII), new byte[8]);
+        byte[] payload = new byte[MDAT_PAYLOAD];
+        for (int i = 0; i < payload.length; i++)
+            payload[i] = (byte) i;
+        byte[] mdat = box("mdat", payload);
+        long mdatData = ftyp.length + 8;
+        byte[] moov = moov(new long[]{mdatData, mdatData + 40}, new long[]{mdatData + 16});
+        Path source = dir.resolve("in.mp4");
+        Files.write(source, concat(ftyp, mdat, moov));
+        Path target = dir.resolve("out.mp4");
+
+        assertTrue(Mp4Faststart.rewrite(source, target));
+
+        byte[] out = Files.readAllBytes(target);
+        assertEquals(ftyp.length + mdat.length + moov.length, out.length);
+        assertEquals(List.of("ftyp", "moov", "mdat"), topLevelTypes(out));
+        long shift = moov.length;
+        assertArrayEquals(new long[]{mdatData + shift, mdatData + 40 + shift}, entries(out, "stco"));
+        assertArrayEquals(new long[]{mdatData + 16 + shift}, entries(out, "co64"));
+        // Dữ liệu media không đổi, chỉ dịch chỗ
+        int newMdat = ftyp.length + moov.length;
+        assertArrayEquals(payload, Arrays.copyOfRange(out, newMdat + 8, newMdat + 8 + MDAT_PAYLOAD));
+        assertEquals(5.0, Mp4Faststart.readDurationSeconds(target));
+        assertEquals(5.0, Mp4Faststart.readDurationSeconds(source));
+    }
+
+    @Test
+    void alreadyFaststartIsLeftAlone() throws Exception {
+        byte[] ftyp = box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII), new byte[8]);
+        byte[] moov = moov(new long[]{0}, new long[]{0});
+        Path source = dir.resolve("in.mp4");
+        Files.write(source, concat(ftyp, moov, box("mdat", new byte[10])));
+        Path target = dir.resolve("out.mp4");
+
+        assertFalse(Mp4Faststart.rewrite(source, target));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void truncatedChunkTableIsRejected() throws Exception {
+        byte[] ftyp = box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII), new byte[8]);
+        // stco khai báo 1000 entry nhưng chỉ có 1
+        byte[] stco = box("stco", new byte[4], int32(1000), int32(24));
+        byte[] moov = box("moov", mvhd(), box("trak", box("mdia", box("minf", box("stbl", stco)))));
+        Path source = dir.resolve("in.mp4");
+        Files.write(source, concat(ftyp, box("mdat", new byte[10]), moov));
+        Path target = dir.resolve("out.mp4");
+
+        assertFalse(Mp4Faststart.rewrite(source, target));
+        assertFalse(Files.exists(target));
+    }
+
+    private static byte[] moov(long[] stco, long[] co64) {
+        ByteArrayOutputStream stcoBody = new ByteArrayOutputStream();
+        stcoBody.writeBytes(new byte[4]);
+        stcoBody.writeBytes(int32(stco.length));
+        for (long offset : stco)
+            stcoBody.writeBytes(int32((int) offset));
+        ByteArrayOutputStream co64Body = new ByteArrayOutputStream();
+        co64Body.writeBytes(new byte[4]);
+        co64Body.writeBytes(int32(co64.length));
+        for (long offset : co64)
+            co64Body.writeBytes(ByteBuffer.allocate(8).putLong(offset).array());
+        byte[] stbl = box("stbl", box("stco", stcoBody.toByteArray()), box("co64", co64Body.toByteArray()));
+        return box("moov", mvhd(), box("trak", box("mdia", box("minf", stbl))));
+    }
+
+    // mvhd version 0: timescale 1000, duration 5000 -> 5 giây
+    private static byte[] mvhd() {
+        ByteBuffer body = ByteBuffer.allocate(100);
+        body.putInt(12, 1000);
+        body.putInt(16, 5000);
+        return box("mvhd", body.array());
+    }
+
+    private static byte[] box(String type, byte[]... parts) {
+        byte[] content = concat(parts);
+        return ByteBuffer.allocate(8 + content.length)
+                .putInt(8 + content.length)
+                .put(type.getBytes(StandardCharsets.US_ASCII))
+                .put(content)
+                .array();
+    }
+
+    private static byte[] int32(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts)
+            out.writeBytes(part);
+        return out.toByteArray();
+    }
+
+    private static List<String> topLevelTypes(byte[] file) {
+        List<String> types = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(file);
+        int position = 0;
+        while (position + 8 <= file.length) {
+            types.add(new String(file, position + 4, 4, StandardCharsets.US_ASCII));
+            position += buffer.getInt(position);
+        }
+        return types;
+    }
+
+    // Bảng offset của box đầu tiên có type cho trước (tìm theo tên, fixture không có dữ liệu trùng tên)
+    private static long[] entries(byte[] file, String type) {
+        String text = new String(file, StandardCharsets.ISO_8859_1);
+        int position = text.indexOf(type) - 4;
+        ByteBuffer buffer = ByteBuffer.wrap(file);
+        int count = buffer.getInt(position + 12);
+        boolean wide = type.equals("co64");
+        long[] entries = new long[count];
+        for (int i = 0; i < count; i++) {
+            int entry = position + 16 + i * (wide ? 8 : 4);
+            entries[i] = wide ? buffer.getLong(entry) : buffer.getInt(entry) & 0xFFFFFFFFL;
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,118 @@
+package com.project.codebasespringjpa.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilFileTests {
+    static final long MULTI_GB = (2L << 30) + 12_345;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void saveToWritesContentAndHash() throws Exception {
+        byte[] content = "hello upload".getBytes(StandardCharsets.UTF_8);
+
+        UtilFile.StoredFile stored = UtilFile.saveTo(new ByteArrayInputStream(content), dir.toString(), "a.txt");
+
+        assertEquals("a.txt", stored.fileName());
+        assertEquals(content.length, stored.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), stored.sha256());
+        assertArrayEquals(content, Files.readAllBytes(dir.resolve("a.txt")));
+        assertFalse(Files.exists(dir.resolve("a.txt.part")));
+    }
+
+    @Test
+    void failedWriteLeavesNoPartialFile() {
+        InputStream broken = new InputStream() {
+            int served = 0;
+
+            @Override
+            public int read() throws IOException {
+                if (served++ > 100_000)
+                    throw new IOException("client aborted");
+                return 'x';
+            }
+        };
+
+        assertThrows(IOException.class, () -> UtilFile.saveTo(broken, dir.toString(), "b.bin"));
+        assertFalse(Files.exists(dir.resolve("b.bin")));
+        assertFalse(Files.exists(dir.resolve("b.bin.part")));
+    }
+
+    @Test
+    void crc32MatchesJdk() throws IOException {
+        byte[] content = new byte[200_000];
+        new Random(1).nextBytes(content);
+        CRC32 expected = new CRC32();
+        expected.update(content);
+
+        assertEquals(expected.getValue(), UtilFile.crc32(new ByteArrayInputStream(content)));
+    }
+
+    // Chạy trong execution surefire riêng với -Xmx64m: file > 2 GB phải đi qua mà heap không tăng theo kích thước
+    @Test
+    @Tag("small-heap")
+    void multiGigabyteUploadStreamsUnderSmallHeap() throws Exception {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        assertTrue(maxHeap <= 128L << 20, "Test phai chay voi heap nho (-Xmx64m), hien tai " + (maxHeap >> 20) + " MB");
+        GeneratedStream in = new GeneratedStream(MULTI_GB);
+
+        UtilFile.StoredFile stored = UtilFile.saveTo(in, dir.toString(), "big.bin");
+
+        assertEquals(MULTI_GB, stored.size());
+        assertEquals(MULTI_GB, Files.size(dir.resolve("big.bin")));
+        assertEquals(in.sha256(), stored.sha256());
+    }
+
+    // Sinh dữ liệu giả ngẫu nhiên theo yêu cầu, tự tính SHA-256 của những gì đã trả ra
+    static class GeneratedStream extends InputStream {
+        final byte[] block = new byte[1 << 20];
+        final MessageDigest digest;
+        final long size;
+        long position = 0;
+
+        GeneratedStream(long size) throws NoSuchAlgorithmException {
+            this.size = size;
+            this.digest = MessageDigest.getInstance("SHA-256");
+            new Random(42).nextBytes(block);
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return this.read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) {
+            if (position >= size)
+                return -1;
+            // Lệch theo số block để các block liền nhau không giống hệt nhau
+            int start = (int) ((position + position / block.length) % block.length);
+            int n = (int) Math.min(Math.min(len, block.length - start), size - position);
+            System.arraycopy(block, start, buffer, off, n);
+            digest.update(buffer, off, n);
+            position += n;
+            return n;
+        }
+
+        String sha256() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.project.codebasespringjpa.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipBundleTests {
+    static final long TIME = 1_700_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void layoutOpensAsZipAndRangesMatch() throws Exception {
+        byte[] video = new byte[5000];
+        for (int i = 0; i < video.length; i++)
+            video[i] = (byte) (i * 31);
+        Map<String, byte[]> store = Map.of("video.mp4", video);
+        ZipBundle bundle = new ZipBundle(List.of(
+                ZipBundle.Entry.bytes("manifest.json", "{}".getBytes(StandardCharsets.UTF_8), TIME),
+                ZipBundle.Entry.file("lessons/01-bài-học.mp4", "video.mp4", video.length, crc(video), TIME)),
+                (key, position, count, target) ->
+                        target.write(ByteBuffer.wrap(store.get(key), (int) position, (int) count)));
+
+        byte[] zip = read(bundle, 0, bundle.length());
+
+        assertEquals(bundle.length(), zip.length);
+        Path file = dir.resolve("bundle.zip");
+        Files.write(file, zip);
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            List<String> names = zipFile.stream().map(ZipEntry::getName).toList();
+            assertEquals(List.of("manifest.json", "lessons/01-bài-học.mp4"), names);
+            ZipEntry entry = zipFile.getEntry("lessons/01-bài-học.mp4");
+            assertEquals(ZipEntry.STORED, entry.getMethod());
+            assertEquals(crc(video), entry.getCrc());
+            // ZipFile tự kiểm tra CRC khi đọc hết entry
+            assertArrayEquals(video, zipFile.getInputStream(entry).readAllBytes());
+        }
+        // Range bất kỳ (kể cả cắt ngang header và dữ liệu file) khớp với bản đầy đủ
+        for (long[] range : new long[][]{{0, 10}, {20, 100}, {60, 4000}, {zip.length - 30, 30}})
+            assertArrayEquals(Arrays.copyOfRange(zip, (int) range[0], (int) (range[0] + range[1])),
+                    read(bundle, range[0], range[1]));
+    }
+
+    @Test
+    void etagChangesWithEntryContent() {
+        ZipBundle first = new ZipBundle(List.of(ZipBundle.Entry.file("a.mp4", "a", 10, 1, TIME)), null);
+        ZipBundle same = new ZipBundle(List.of(ZipBundle.Entry.file("a.mp4", "a", 10, 1, TIME)), null);
+        ZipBundle changed = new ZipBundle(List.of(ZipBundle.Entry.file("a.mp4", "a", 10, 2, TIME)), null);
+
+        assertEquals(first.etag(), same.etag());
+        assertNotEquals(first.etag(), changed.etag());
+    }
+
+    @Test
+    void entryOver4GbUsesZip64Records() throws Exception {
+        long size = 5L << 30;
+        byte[] name = "big.bin".getBytes(StandardCharsets.US_ASCII);
+        // Không đọc dữ liệu của entry: chỉ lấy header đầu file và phần đuôi
+        ZipBundle bundle = new ZipBundle(List.of(ZipBundle.Entry.file("big.bin", "big", size, 7, TIME)),
+                (key, position, count, target) -> fail("Khong duoc doc du lieu"));
+
+        ByteBuffer local = ByteBuffer.wrap(read(bundle, 0, 30 + name.length + 20)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x04034b50, local.getInt(0));
+        assertEquals(45, local.getShort(4));
+        assertEquals(0xFFFFFFFF, local.getInt(18));
+        assertEquals(0xFFFFFFFF, local.getInt(22));
+        assertEquals(20, local.getShort(28));
+        assertEquals(0x0001, local.getShort(30 + name.length));
+        assertEquals(size, local.getLong(30 + name.length + 4));
+        assertEquals(size, local.getLong(30 + name.length + 12));
+
+        long dataEnd = 30 + name.length + 20 + size;
+        int central = 46 + name.length + 4 + 16;
+        assertEquals(dataEnd + central + 56 + 20 + 22, bundle.length());
+        ByteBuffer tail = ByteBuffer.wrap(read(bundle, dataEnd, bundle.length() - dataEnd))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        // Central directory: kích thước thật nằm trong extra ZIP64
+        assertEquals(0x02014b50, tail.getInt(0));
+        assertEquals(0xFFFFFFFF, tail.getInt(20));
+        assertEquals(size, tail.getLong(46 + name.length + 4));
+        // ZIP64 end of central directory + locator + end record thường
+        assertEquals(0x06064b50, tail.getInt(central));
+        assertEquals(1, tail.getLong(central + 24));
+        assertEquals(central, tail.getLong(central + 40));
+        assertEquals(dataEnd, tail.getLong(central + 48));
+        assertEquals(0x07064b50, tail.getInt(central + 56));
+        assertEquals(dataEnd + central, tail.getLong(central + 56 + 8));
+        assertEquals(0x06054b50, tail.getInt(central + 76));
+        assertEquals(1, tail.getShort(central + 76 + 10));
+    }
+
+    @Test
+    void manyEntriesUseZip64Count() throws Exception {
+        int count = 70_000;
+        List<ZipBundle.Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            entries.add(ZipBundle.Entry.bytes(String.format("f%05d", i), new byte[]{(byte) i}, TIME));
+        ZipBundle bundle = new ZipBundle(entries, null);
+
+        Path file = dir.resolve("many.zip");
+        Files.write(file, read(bundle, 0, bundle.length()));
+
+        // Java đọc số entry thật từ bản ghi ZIP64 vì bản ghi thường chỉ chứa 0xFFFF
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            assertEquals(count, zipFile.size());
+            assertArrayEquals(new byte[]{(byte) 69_999},
+                    zipFile.getInputStream(zipFile.getEntry("f69999")).readAllBytes());
+        }
+    }
+
+    private static byte[] read(ZipBundle bundle, long position, long count) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bundle.transferTo(position, count, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static long crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+}
@@ -106,7 +106,7 @@ const AdminLayout: React.FC<AdminLayoutProps> = ({ children }) => {
       <Divider />
       <Box sx={{ p: 2 }}>
         <Box sx={{ display: "flex", alignItems: "center", mb: 1 }}>
-          <Avatar src={userAvatar ? getAvatarUrl(userAvatar) : undefined} sx={{ bgcolor: "secondary.main", mr: 2 }}>
+          <Avatar src={userAvatar ? getAvatarUrl(userAvatar, "thumb") : undefined} sx={{ bgcolor: "secondary.main", mr: 2 }}>
             {!userAvatar && (userFullname ? userFullname.charAt(0).toUpperCase() : user?.firstName?.charAt(0) || "U")}
           </Avatar>
           <Box>
@@ -195,7 +195,7 @@ const AdminLayout: React.FC<AdminLayoutProps> = ({ children }) => {
             {adminMenuItems.find((item) => item.path === location.pathname)?.text || "Dashboard"}
           </Typography>
           <IconButton size="large" edge="end" aria-label="account of current user" aria-haspopup="true" onClick={handleProfileMenuOpen} color="inherit">
-            <Avatar src={userAvatar ? getAvatarUrl(userAvatar) : undefined} sx={{ bgcolor: "primary.main" }}>
+            <Avatar src={userAvatar ? getAvatarUrl(userAvatar, "thumb") : undefined} sx={{ bgcolor: "primary.main" }}>
               {!userAvatar && (userFullname ? userFullname.charAt(0).toUpperCase() : user?.firstName?.charAt(0) || "U")}
             </Avatar>
           </IconButton>
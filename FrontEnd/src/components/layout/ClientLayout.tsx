@@ -164,7 +164,7 @@ const ClientLayout: React.FC<ClientLayoutProps> = ({ children }) => {
           {isAuthenticated ? (
             <>
               <IconButton size="large" edge="end" aria-label="account of current user" aria-haspopup="true" onClick={handleProfileMenuOpen} color="inherit">
-                <Avatar src={userAvatar ? getAvatarUrl(userAvatar) : undefined} sx={{ bgcolor: "secondary.main", width: 32, height: 32 }}>
+                <Avatar src={userAvatar ? getAvatarUrl(userAvatar, "thumb") : undefined} sx={{ bgcolor: "secondary.main", width: 32, height: 32 }}>
                   {!userAvatar && (userFullname ? userFullname.charAt(0).toUpperCase() : user?.firstName?.charAt(0) || "U")}
                 </Avatar>
               </IconButton>
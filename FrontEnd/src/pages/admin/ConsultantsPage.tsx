@@ -94,7 +94,7 @@ const AdminConsultantsPage: React.FC = () => {
             bio: "", // API không có bio
             email: user.email,
             phone: user.phone,
-            avatar: user.avatar ? getAvatarUrl(user.avatar) : getAvatarUrl(""),
+            avatar: user.avatar ? getAvatarUrl(user.avatar, "thumb") : getAvatarUrl(""),
             rating: 5, // Default rating
             availability: true, // Default availability
             createdAt: new Date(user.createDate),
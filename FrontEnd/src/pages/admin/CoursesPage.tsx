@@ -468,7 +468,7 @@ const AdminCoursesPage: React.FC = () => {
                       <Box sx={{ display: "flex", alignItems: "center", gap: 2 }}>
                         <Avatar
                           key={`${course.id}-${course.updateDate || course.createDate}`} // Force re-render when course updates
-                          src={getImageUrl(course.image)} // Use cache busting
+                          src={getImageUrl(course.image, "thumb")} // Use cache busting
                           alt={course.name}
                           sx={{ width: 40, height: 40 }}
                           onError={handleImageError}
@@ -640,7 +640,7 @@ const AdminProgramsPage: React.FC = () => {
                 <React.Fragment key={registration.id || index}>
                   <ListItem alignItems="flex-start">
                     <ListItemAvatar>
-                      <Avatar src={getAvatarUrl(registration.avatar)} alt={registration.fullname} sx={{ mr: 2, width: 40, height: 40 }} onError={handleImageError}>
+                      <Avatar src={getAvatarUrl(registration.avatar, "thumb")} alt={registration.fullname} sx={{ mr: 2, width: 40, height: 40 }} onError={handleImageError}>
                         {registration.fullname?.charAt(0)?.toUpperCase() || "?"}
                       </Avatar>
                     </ListItemAvatar>
@@ -50,7 +50,7 @@ const LoginPage: React.FC = () => {
         }
 
         toast.success("Đăng nhập thành công");
-        await _authService.writeInfoToLocal(dataResult.token);
+        await _authService.writeInfoToLocal(dataResult.token, dataResult.refreshToken);
         var authenDTO = await _authService.readInfoFromLocal();
         await UTIL_AWAIT_TIME(1000);
 
@@ -282,7 +282,7 @@ const CoursesPage: React.FC<CoursesPageProps> = ({ isAdmin = false }) => {
               <Box sx={{ display: "grid", gridTemplateColumns: { xs: "1fr", sm: "repeat(2, 1fr)", md: "repeat(3, 1fr)" }, gap: 4 }}>
                 {courses.map((course) => (
                   <Card key={course.id} sx={{ height: "100%", display: "flex", flexDirection: "column", borderRadius: 2 }}>
-                    <CardMedia component="img" height="140" image={getImageUrl(course.image)} alt={course.name} onError={handleImageError} />
+                    <CardMedia component="img" height="140" image={getImageUrl(course.image, "small")} alt={course.name} onError={handleImageError} />
                     <CardContent sx={{ flexGrow: 1 }}>
                       <Typography gutterBottom variant="h5" component="h2">
                         {course.name}
@@ -50,7 +50,7 @@ const ProgramsPage: React.FC<ProgramsPageProps> = ({ isAdmin = false }) => {
       endDate: new Date(startDate.getTime() + 2 * 60 * 60 * 1000), // Default 2 hours duration
       capacity: apiData.capacity,
       registeredCount: apiData.users ? apiData.users.length : 0,
-      image: apiData.image ? getImageUrl(apiData.image) : getImageUrl(""),
+      image: apiData.image ? getImageUrl(apiData.image, "small") : getImageUrl(""),
       createdAt: new Date(),
       updatedAt: new Date(),
     };
@@ -60,10 +60,13 @@ export class AuthService {
     }
   }
 
-  public async writeInfoToLocal(token: any) {
+  public async writeInfoToLocal(token: any, refreshToken?: string) {
     const { jwtDecode } = jwt_decode;
     const decoded = jwtDecode<MyTokenPayload>(token);
     localStorage.setItem("TOKEN", token || "");
+    if (refreshToken) {
+      localStorage.setItem("REFRESH_TOKEN", refreshToken);
+    }
     localStorage.setItem("USERNAME", decoded.username || "");
     localStorage.setItem("ROLE", decoded.role || "");
   }
@@ -80,6 +83,12 @@ export class AuthService {
   }
 
   public async deleteInfoFromLocal() {
+    // Thu hồi token phía server, bỏ qua lỗi mạng
+    const refreshToken = localStorage.getItem("REFRESH_TOKEN");
+    try {
+      await httpClient.post("/auth/logout", { refreshToken });
+    } catch (error) {}
+    localStorage.removeItem("REFRESH_TOKEN");
     localStorage.removeItem("TOKEN");
     localStorage.removeItem("USERNAME");
     localStorage.removeItem("ROLE");
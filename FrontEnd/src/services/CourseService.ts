@@ -20,6 +20,7 @@ export interface CourseDetailItem {
   id?: number;
   name: string;
   video: string;
+  playlist?: string;
   duration: number;
   objective: string;
   content: string;
@@ -1,8 +1,15 @@
 import httpClient from "../utils/httpClient";
 
+// Chỉ hash trước ở client với file nhỏ, file lớn upload thẳng (server vẫn tự khử trùng lặp)
+const PRECHECK_MAX_SIZE = 50 * 1024 * 1024;
+
 export class FileService {
   public async uploadFile(file: any) {
     try {
+      const existing = await this.findExisting(file);
+      if (existing) {
+        return [200, existing, "File đã tồn tại"];
+      }
       const formData = new FormData();
       formData.append("file", file);
       const response = await httpClient.post("/files/upload", formData, {
@@ -15,4 +22,20 @@ export class FileService {
       return [500, null, error.message || "Failed to upload file"];
     }
   }
+
+  private async findExisting(file: any): Promise<string | null> {
+    if (!file || file.size > PRECHECK_MAX_SIZE || !window.crypto?.subtle) {
+      return null;
+    }
+    try {
+      const digest = await window.crypto.subtle.digest("SHA-256", await file.arrayBuffer());
+      const sha256 = Array.from(new Uint8Array(digest))
+        .map((b) => b.toString(16).padStart(2, "0"))
+        .join("");
+      const response = await httpClient.get("/files/exists", { params: { sha256 } });
+      return response.data.code === 200 ? response.data.data : null;
+    } catch {
+      return null;
+    }
+  }
 }
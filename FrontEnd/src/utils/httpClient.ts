@@ -28,9 +28,38 @@ httpClient.interceptors.request.use(
   }
 );
 
+// Access token sống ngắn: khi server báo 401 thì dùng refresh token lấy token mới và gửi lại request một lần
+let refreshing: Promise<string | null> | null = null;
+
+const refreshAccessToken = async (): Promise<string | null> => {
+  const refreshToken = localStorage.getItem("REFRESH_TOKEN");
+  if (!refreshToken) return null;
+  try {
+    const response = await axios.post(`${BASE_URL}/auth/refresh`, { refreshToken });
+    if (response.data?.code !== 200 || !response.data?.data?.token) return null;
+    localStorage.setItem("TOKEN", response.data.data.token);
+    localStorage.setItem("REFRESH_TOKEN", response.data.data.refreshToken);
+    return response.data.data.token;
+  } catch (error) {
+    return null;
+  }
+};
+
 // Response interceptor - Xử lý lỗi 401 (Unauthorized)
 httpClient.interceptors.response.use(
-  (response) => response,
+  async (response) => {
+    const config: any = response.config;
+    if (String(response.data?.code) === "401" && !config._retried && !config.url?.startsWith("/auth/")) {
+      config._retried = true;
+      refreshing = refreshing ?? refreshAccessToken().finally(() => (refreshing = null));
+      const token = await refreshing;
+      if (token) {
+        config.headers.Authorization = `Bearer ${token}`;
+        return httpClient(config);
+      }
+    }
+    return response;
+  },
   (error) => {
     if (error.response?.status === 401) {
       // Token hết hạn hoặc không hợp lệ
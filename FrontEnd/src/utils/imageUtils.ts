@@ -6,12 +6,15 @@ const DEFAULT_IMAGE_URL = `${process.env.REACT_APP_API_URL}/default_no_image.png
 const DEFAULT_VIDEO_URL = `${process.env.REACT_APP_API_URL}/default_no_video.png`;
 const DEFAULT_AVATAR_URL = `${process.env.REACT_APP_API_URL}/defaultUser.png`;
 
+export type ImageSize = "thumb" | "small" | "medium";
+
 /**
  * Get image URL with fallback to default image
  * @param imagePath - The image path from API
+ * @param size - Optional resized variant for list pages
  * @returns Full image URL with fallback
  */
-export const getImageUrl = (imagePath?: string): string => {
+export const getImageUrl = (imagePath?: string, size?: ImageSize): string => {
   if (!imagePath) {
     return DEFAULT_IMAGE_URL;
   }
@@ -20,21 +23,29 @@ export const getImageUrl = (imagePath?: string): string => {
     return imagePath;
   }
 
+  if (size) {
+    return `${process.env.REACT_APP_API_URL}/media/${imagePath}?size=${size}`;
+  }
+
   return `${process.env.REACT_APP_API_URL}/${imagePath}`;
 };
 
 /**
  * Get avatar URL with fallback to default image (consistent with other pages)
  * @param avatar - The avatar path from API
+ * @param size - Optional resized variant for list pages
  * @returns Full avatar URL with fallback
  */
-export const getAvatarUrl = (avatar?: string): string => {
+export const getAvatarUrl = (avatar?: string, size?: ImageSize): string => {
   if (!avatar || avatar === "defaultUser.png") {
     return DEFAULT_AVATAR_URL;
   }
   if (avatar.startsWith("http")) {
     return avatar;
   }
+  if (size) {
+    return `${process.env.REACT_APP_API_URL}/media/${avatar}?size=${size}`;
+  }
   return `${process.env.REACT_APP_API_URL}/${avatar}`;
 };
 
@@ -51,9 +62,23 @@ export const getVideoUrl = (videoPath?: string): string => {
   if (videoPath.startsWith("http")) {
     return videoPath;
   }
-  return `${process.env.REACT_APP_API_URL}/${videoPath}`;
+  // Video đi qua endpoint /media để hỗ trợ tua (Range)
+  return `${process.env.REACT_APP_API_URL}/media/${videoPath}`;
 }
 
+/**
+ * Prefer the HLS playlist when the browser plays HLS natively (Safari, iOS, Android)
+ * @param videoPath - The video path from API
+ * @param playlist - The HLS playlist path from API, if packaged
+ * @returns Full video or playlist URL
+ */
+export const getLessonVideoUrl = (videoPath?: string, playlist?: string): string => {
+  if (playlist && document.createElement("video").canPlayType("application/vnd.apple.mpegurl")) {
+    return `${process.env.REACT_APP_API_URL}/${playlist}`;
+  }
+  return getVideoUrl(videoPath);
+};
+
 /**
  * Handle image load error by setting fallback image
  * @param event - The error event